@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc.arrow;
+
+import com.hazelcast.sql.SqlColumnMetadata;
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlRow;
+import com.hazelcast.sql.SqlRowMetadata;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TimeNanoVector;
+import org.apache.arrow.vector.TimeStampMicroTZVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Reads the rows of a {@link SqlResult} into batches of Arrow vectors in
+ * off-heap memory. The vectors of the {@link #getRoot() root} are refilled by
+ * each call of {@link #loadNextBatch()}, and {@link #writeTo} streams all the
+ * remaining batches in the Arrow IPC stream format.
+ * <p>
+ * The SQL types are mapped to the Arrow types as follows:
+ * <ul>
+ *     <li>{@code BOOLEAN} to {@code Bool}
+ *     <li>{@code TINYINT}, {@code SMALLINT}, {@code INTEGER} and {@code BIGINT}
+ *     to signed {@code Int} of 8, 16, 32 and 64 bits
+ *     <li>{@code REAL} and {@code DOUBLE} to single and double precision
+ *     {@code FloatingPoint}
+ *     <li>{@code DATE} to {@code Date(DAY)}, {@code TIME} to {@code
+ *     Time(NANOSECOND)}
+ *     <li>{@code TIMESTAMP} to {@code Timestamp(MICROSECOND)} without a time
+ *     zone, {@code TIMESTAMP WITH TIME ZONE} to {@code Timestamp(MICROSECOND,
+ *     UTC)}
+ *     <li>{@code VARCHAR}, {@code JSON} and the other types to {@code Utf8};
+ *     {@code DECIMAL} values as plain strings, because their scale isn't
+ *     fixed, {@code OBJECT} values with {@code toString()}
+ * </ul>
+ * The reader doesn't close the result nor the allocator.
+ */
+public final class ArrowBatchReader implements AutoCloseable {
+
+    private final Iterator<SqlRow> rows;
+    private final int batchSize;
+    private final VectorSchemaRoot root;
+    private final ValueWriter[] writers;
+
+    /**
+     * Creates a reader of the given result, allocating the vectors of at most
+     * {@code batchSize} rows from the given allocator.
+     */
+    public ArrowBatchReader(SqlResult result, BufferAllocator allocator, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive: " + batchSize);
+        }
+        this.rows = result.iterator();
+        this.batchSize = batchSize;
+        SqlRowMetadata metadata = result.getRowMetadata();
+        root = VectorSchemaRoot.create(schema(metadata), allocator);
+        writers = new ValueWriter[metadata.getColumnCount()];
+        for (int i = 0; i < writers.length; i++) {
+            writers[i] = writer(metadata.getColumn(i));
+        }
+    }
+
+    /**
+     * Returns the Arrow schema of the rows with the given metadata.
+     */
+    public static Schema schema(SqlRowMetadata metadata) {
+        List<Field> fields = new ArrayList<>(metadata.getColumnCount());
+        for (SqlColumnMetadata column : metadata.getColumns()) {
+            fields.add(new Field(column.getName(), new FieldType(column.isNullable(), arrowType(column), null), null));
+        }
+        return new Schema(fields);
+    }
+
+    @SuppressWarnings("checkstyle:ReturnCount")
+    private static ArrowType arrowType(SqlColumnMetadata column) {
+        switch (column.getType()) {
+            case BOOLEAN:
+                return ArrowType.Bool.INSTANCE;
+            case TINYINT:
+                return new ArrowType.Int(Byte.SIZE, true);
+            case SMALLINT:
+                return new ArrowType.Int(Short.SIZE, true);
+            case INTEGER:
+                return new ArrowType.Int(Integer.SIZE, true);
+            case BIGINT:
+                return new ArrowType.Int(Long.SIZE, true);
+            case REAL:
+                return new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE);
+            case DOUBLE:
+                return new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+            case DATE:
+                return new ArrowType.Date(DateUnit.DAY);
+            case TIME:
+                return new ArrowType.Time(TimeUnit.NANOSECOND, Long.SIZE);
+            case TIMESTAMP:
+                return new ArrowType.Timestamp(TimeUnit.MICROSECOND, null);
+            case TIMESTAMP_WITH_TIME_ZONE:
+                return new ArrowType.Timestamp(TimeUnit.MICROSECOND, "UTC");
+            default:
+                return ArrowType.Utf8.INSTANCE;
+        }
+    }
+
+    @SuppressWarnings({"checkstyle:CyclomaticComplexity", "checkstyle:ReturnCount"})
+    private static ValueWriter writer(SqlColumnMetadata column) {
+        switch (column.getType()) {
+            case BOOLEAN:
+                return (vector, row, value) -> ((BitVector) vector).setSafe(row, (Boolean) value ? 1 : 0);
+            case TINYINT:
+                return (vector, row, value) -> ((TinyIntVector) vector).setSafe(row, (Byte) value);
+            case SMALLINT:
+                return (vector, row, value) -> ((SmallIntVector) vector).setSafe(row, (Short) value);
+            case INTEGER:
+                return (vector, row, value) -> ((IntVector) vector).setSafe(row, (Integer) value);
+            case BIGINT:
+                return (vector, row, value) -> ((BigIntVector) vector).setSafe(row, (Long) value);
+            case REAL:
+                return (vector, row, value) -> ((Float4Vector) vector).setSafe(row, (Float) value);
+            case DOUBLE:
+                return (vector, row, value) -> ((Float8Vector) vector).setSafe(row, (Double) value);
+            case DATE:
+                return (vector, row, value) -> ((DateDayVector) vector).setSafe(row,
+                        (int) ((LocalDate) value).toEpochDay());
+            case TIME:
+                return (vector, row, value) -> ((TimeNanoVector) vector).setSafe(row, ((LocalTime) value).toNanoOfDay());
+            case TIMESTAMP:
+                return (vector, row, value) -> ((TimeStampMicroVector) vector).setSafe(row,
+                        epochMicros(((LocalDateTime) value).toInstant(ZoneOffset.UTC)));
+            case TIMESTAMP_WITH_TIME_ZONE:
+                return (vector, row, value) -> ((TimeStampMicroTZVector) vector).setSafe(row,
+                        epochMicros(((OffsetDateTime) value).toInstant()));
+            case DECIMAL:
+                return (vector, row, value) -> setString(vector, row, ((BigDecimal) value).toPlainString());
+            default:
+                return (vector, row, value) -> setString(vector, row, value.toString());
+        }
+    }
+
+    private static long epochMicros(Instant instant) {
+        return Math.addExact(SECONDS.toMicros(instant.getEpochSecond()), NANOSECONDS.toMicros(instant.getNano()));
+    }
+
+    private static void setString(FieldVector vector, int row, String value) {
+        ((VarCharVector) vector).setSafe(row, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the root holding the vectors of the current batch.
+     */
+    public VectorSchemaRoot getRoot() {
+        return root;
+    }
+
+    /**
+     * Loads the next rows into the vectors of the root.
+     *
+     * @return {@code false} if there are no more rows
+     */
+    public boolean loadNextBatch() {
+        root.allocateNew();
+        List<FieldVector> vectors = root.getFieldVectors();
+        int count = 0;
+        while (count < batchSize && rows.hasNext()) {
+            SqlRow row = rows.next();
+            for (int i = 0; i < writers.length; i++) {
+                Object value = row.getObject(i);
+                // the vectors are allocated with all values null
+                if (value != null) {
+                    writers[i].write(vectors.get(i), count, value);
+                }
+            }
+            count++;
+        }
+        root.setRowCount(count);
+        return count > 0;
+    }
+
+    /**
+     * Writes the remaining rows to the channel in the Arrow IPC stream format,
+     * one record batch per batch of rows. The channel isn't closed.
+     *
+     * @return the number of rows written
+     */
+    public long writeTo(WritableByteChannel channel) throws IOException {
+        long written = 0;
+        // not closed, closing the writer would close the channel
+        ArrowStreamWriter writer = new ArrowStreamWriter(root, null, channel);
+        writer.start();
+        while (loadNextBatch()) {
+            writer.writeBatch();
+            written += root.getRowCount();
+        }
+        writer.end();
+        return written;
+    }
+
+    /**
+     * Releases the memory of the vectors.
+     */
+    @Override
+    public void close() {
+        root.close();
+    }
+
+    @FunctionalInterface
+    private interface ValueWriter {
+        void write(FieldVector vector, int row, Object value);
+    }
+}
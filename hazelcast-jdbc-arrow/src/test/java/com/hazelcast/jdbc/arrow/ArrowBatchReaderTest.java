@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc.arrow;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.sql.SqlResult;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ArrowBatchReaderTest {
+
+    private static final String QUERY = "SELECT v, CAST(v AS BIGINT) AS b, CAST(v AS DOUBLE) / 2 AS d, "
+            + "CASE WHEN v = 2 THEN NULL ELSE 'row-' || CAST(v AS VARCHAR) END AS s, "
+            + "CAST(v AS DECIMAL) / 4 AS amount, DATE '2023-01-01' AS dt, TIMESTAMP '2023-01-01 10:00:00.000001' AS ts "
+            + "FROM TABLE(generate_series(1, 5))";
+
+    private static HazelcastInstance member;
+
+    private final BufferAllocator allocator = new RootAllocator();
+
+    @BeforeAll
+    public static void beforeClass() {
+        Config config = new Config();
+        config.getJetConfig().setEnabled(true);
+        member = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        Hazelcast.shutdownAll();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        allocator.close();
+    }
+
+    @Test
+    public void when_loadNextBatch_then_vectorsFilled() {
+        try (SqlResult result = member.getSql().execute(QUERY);
+             ArrowBatchReader reader = new ArrowBatchReader(result, allocator, 2)) {
+            VectorSchemaRoot root = reader.getRoot();
+            assertThat(root.getSchema().findField("b").getType()).isEqualTo(new ArrowType.Int(64, true));
+            assertThat(root.getSchema().findField("amount").getType()).isEqualTo(ArrowType.Utf8.INSTANCE);
+
+            assertThat(reader.loadNextBatch()).isTrue();
+            assertThat(root.getRowCount()).isEqualTo(2);
+            assertThat(((IntVector) root.getVector("v")).get(0)).isEqualTo(1);
+            assertThat(((BigIntVector) root.getVector("b")).get(1)).isEqualTo(2L);
+            assertThat(((Float8Vector) root.getVector("d")).get(0)).isEqualTo(0.5);
+            VarCharVector strings = (VarCharVector) root.getVector("s");
+            assertThat(strings.getObject(0)).hasToString("row-1");
+            assertThat(strings.isNull(1)).isTrue();
+            assertThat(((VarCharVector) root.getVector("amount")).getObject(1)).hasToString("0.5");
+            assertThat(((DateDayVector) root.getVector("dt")).get(0))
+                    .isEqualTo(LocalDate.of(2023, 1, 1).toEpochDay());
+            long micros = LocalDateTime.of(2023, 1, 1, 10, 0).toEpochSecond(ZoneOffset.UTC) * 1_000_000 + 1;
+            assertThat(((TimeStampMicroVector) root.getVector("ts")).get(0)).isEqualTo(micros);
+
+            assertThat(reader.loadNextBatch()).isTrue();
+            assertThat(reader.loadNextBatch()).isTrue();
+            assertThat(root.getRowCount()).isEqualTo(1);
+            assertThat(((IntVector) root.getVector("v")).get(0)).isEqualTo(5);
+            assertThat(reader.loadNextBatch()).isFalse();
+        }
+    }
+
+    @Test
+    public void when_writeTo_then_ipcStreamReadable() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SqlResult result = member.getSql().execute(QUERY);
+             ArrowBatchReader reader = new ArrowBatchReader(result, allocator, 3)) {
+            assertThat(reader.writeTo(Channels.newChannel(out))).isEqualTo(5);
+        }
+
+        int batches = 0;
+        long rows = 0;
+        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            while (reader.loadNextBatch()) {
+                batches++;
+                rows += reader.getVectorSchemaRoot().getRowCount();
+            }
+            assertThat(reader.getVectorSchemaRoot().getSchema().getFields()).hasSize(7);
+        }
+        assertThat(batches).isEqualTo(2);
+        assertThat(rows).isEqualTo(5);
+    }
+}
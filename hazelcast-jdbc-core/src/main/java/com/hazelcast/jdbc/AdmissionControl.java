@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Limits the number of statements executed concurrently by the connections
+ * to the same cluster. Each statement belongs to a workload class with its
+ * own concurrency limit, queue timeout and priority. When a statement
+ * completes, the waiting statements are admitted in the order of the
+ * priority of their class, and in the order of arrival within a priority.
+ * <p>
+ * A statement holds its permit until its result set is closed, or until it
+ * returns if it doesn't produce rows. The statements of a connection share
+ * its {@link Permit}: a statement executed while another statement of the
+ * same connection holds it is admitted without waiting, so that a connection
+ * executing a statement for each row of an open result set doesn't wait for
+ * itself.
+ */
+final class AdmissionControl {
+
+    /** The URL property with the maximum number of statements executed concurrently, in all classes. */
+    static final String MAX_CONCURRENT_PROPERTY = "maxConcurrentStatements";
+
+    /**
+     * The URL property and the client info property with the workload class
+     * of the statements of a connection.
+     */
+    static final String CLASS_PROPERTY = "workloadClass";
+
+    /** The prefix of the URL properties configuring the classes, e.g. {@code workload.reporting.maxConcurrent}. */
+    static final String CLASS_PREFIX = "workload.";
+
+    static final String DEFAULT_CLASS = "default";
+    static final long DEFAULT_QUEUE_TIMEOUT_MILLIS = 30_000;
+
+    private static final String MAX_CONCURRENT = "maxConcurrent";
+    private static final String QUEUE_TIMEOUT_MILLIS = "queueTimeoutMillis";
+    private static final String PRIORITY = "priority";
+
+    private static final ConcurrentMap<String, AdmissionControl> CONTROLS = new ConcurrentHashMap<>();
+
+    private final int maxConcurrent;
+    private final Map<String, WorkloadClass> classes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final NavigableSet<Waiter> waiters = new TreeSet<>(Comparator
+            .comparingInt((Waiter waiter) -> waiter.workloadClass.priority).reversed()
+            .thenComparingLong(waiter -> waiter.sequence));
+
+    private int active;
+    private long sequence;
+
+    AdmissionControl(int maxConcurrent, Map<String, WorkloadClass> classes) {
+        this.maxConcurrent = maxConcurrent;
+        this.classes = new HashMap<>(classes);
+        this.classes.putIfAbsent(DEFAULT_CLASS, new WorkloadClass(DEFAULT_CLASS, 0, DEFAULT_QUEUE_TIMEOUT_MILLIS, 0));
+    }
+
+    /**
+     * Returns the admission control shared by the connections with the same
+     * cluster and limits, or {@code null} if no limit is set by the URL.
+     */
+    static AdmissionControl create(JdbcUrl url) {
+        Map<String, Map<String, String>> classProperties = new TreeMap<>();
+        for (Entry<String, String> en : url.getProperties().entrySet()) {
+            String key = en.getKey();
+            int separator = key.lastIndexOf('.');
+            if (key.startsWith(CLASS_PREFIX) && separator > CLASS_PREFIX.length()) {
+                classProperties.computeIfAbsent(key.substring(CLASS_PREFIX.length(), separator), name -> new TreeMap<>())
+                        .put(key.substring(separator + 1), en.getValue());
+            }
+        }
+        String maxConcurrentValue = url.getProperty(MAX_CONCURRENT_PROPERTY);
+        if (maxConcurrentValue == null && classProperties.isEmpty()) {
+            return null;
+        }
+        int maxConcurrent = parseInt(MAX_CONCURRENT_PROPERTY, maxConcurrentValue, 0);
+        Map<String, WorkloadClass> classes = new HashMap<>();
+        classProperties.forEach((name, properties) -> classes.put(name, workloadClass(name, properties)));
+        String key = ResultCache.clusterKey(url) + '|' + maxConcurrent + '|' + classProperties;
+        return CONTROLS.computeIfAbsent(key, k -> new AdmissionControl(maxConcurrent, classes));
+    }
+
+    private static WorkloadClass workloadClass(String name, Map<String, String> properties) {
+        int maxConcurrent = 0;
+        long queueTimeoutMillis = DEFAULT_QUEUE_TIMEOUT_MILLIS;
+        int priority = 0;
+        for (Entry<String, String> en : properties.entrySet()) {
+            String key = CLASS_PREFIX + name + '.' + en.getKey();
+            switch (en.getKey()) {
+                case MAX_CONCURRENT:
+                    maxConcurrent = parseInt(key, en.getValue(), 0);
+                    break;
+                case QUEUE_TIMEOUT_MILLIS:
+                    queueTimeoutMillis = parseInt(key, en.getValue(), 0);
+                    break;
+                case PRIORITY:
+                    priority = parseInt(key, en.getValue(), Integer.MIN_VALUE);
+                    break;
+                default:
+                    throw new RuntimeException(String.format("Unknown workload class property '%s'", key));
+            }
+        }
+        return new WorkloadClass(name, maxConcurrent, queueTimeoutMillis, priority);
+    }
+
+    private static int parseInt(String key, String value, int min) {
+        if (value == null) {
+            return 0;
+        }
+        int result;
+        try {
+            result = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException(String.format("'%s' not a number, '%s'", key, value), e);
+        }
+        if (result < min) {
+            throw new RuntimeException(String.format("'%s' must not be less than %d, '%s'", key, min, value));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the workload class with the given name, the default class if
+     * the name is {@code null}.
+     */
+    WorkloadClass workloadClass(String name) throws SQLException {
+        WorkloadClass workloadClass = classes.get(name == null ? DEFAULT_CLASS : name);
+        if (workloadClass == null) {
+            throw new SQLException("Unknown workload class: " + name);
+        }
+        return workloadClass;
+    }
+
+    /**
+     * Waits until a statement of the given class can be executed.
+     *
+     * @throws SQLTimeoutException if the statement isn't admitted within the
+     *                             queue timeout of the class
+     */
+    void acquire(WorkloadClass workloadClass) throws SQLException {
+        lock.lock();
+        try {
+            // the waiters which can be admitted are admitted when a permit is released,
+            // so the remaining ones don't have precedence over this statement
+            if (canAdmit(workloadClass)) {
+                admit(workloadClass);
+                return;
+            }
+            Waiter waiter = new Waiter(workloadClass, sequence++, lock.newCondition());
+            waiters.add(waiter);
+            long remainingNanos = MILLISECONDS.toNanos(workloadClass.queueTimeoutMillis);
+            try {
+                while (!waiter.admitted) {
+                    if (remainingNanos <= 0) {
+                        waiters.remove(waiter);
+                        throw new SQLTimeoutException("The statement wasn't admitted within "
+                                + workloadClass.queueTimeoutMillis + " ms in the workload class '"
+                                + workloadClass.name + "'");
+                    }
+                    remainingNanos = waiter.condition.awaitNanos(remainingNanos);
+                }
+            } catch (InterruptedException e) {
+                if (waiter.admitted) {
+                    release(workloadClass);
+                } else {
+                    waiters.remove(waiter);
+                }
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for admission", e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a statement of the given class can be executed, unless the
+     * permit is already held by another statement of its connection.
+     *
+     * @throws SQLTimeoutException if the statement isn't admitted within the
+     *                             queue timeout of the class
+     */
+    void acquire(Permit permit, WorkloadClass workloadClass) throws SQLException {
+        lock.lock();
+        try {
+            if (permit.holds == 0) {
+                acquire(workloadClass);
+                permit.workloadClass = workloadClass;
+            }
+            permit.holds++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the permit when it's released by all the statements holding
+     * it.
+     */
+    void release(Permit permit) {
+        lock.lock();
+        try {
+            if (--permit.holds == 0) {
+                release(permit.workloadClass);
+                permit.workloadClass = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the permit of a statement and admits the waiting ones.
+     */
+    void release(WorkloadClass workloadClass) {
+        lock.lock();
+        try {
+            active--;
+            workloadClass.active--;
+            for (Iterator<Waiter> iterator = waiters.iterator(); iterator.hasNext()
+                    && (maxConcurrent == 0 || active < maxConcurrent); ) {
+                Waiter waiter = iterator.next();
+                if (canAdmit(waiter.workloadClass)) {
+                    iterator.remove();
+                    admit(waiter.workloadClass);
+                    waiter.admitted = true;
+                    waiter.condition.signal();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int active() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int waiting() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canAdmit(WorkloadClass workloadClass) {
+        return (maxConcurrent == 0 || active < maxConcurrent)
+                && (workloadClass.maxConcurrent == 0 || workloadClass.active < workloadClass.maxConcurrent);
+    }
+
+    private void admit(WorkloadClass workloadClass) {
+        active++;
+        workloadClass.active++;
+    }
+
+    /**
+     * A named class of statements with its concurrency limit (0 if
+     * unlimited), queue timeout and priority.
+     */
+    static final class WorkloadClass {
+
+        private final String name;
+        private final int maxConcurrent;
+        private final long queueTimeoutMillis;
+        private final int priority;
+
+        /** Number of statements of the class being executed, guarded by the lock. */
+        private int active;
+
+        WorkloadClass(String name, int maxConcurrent, long queueTimeoutMillis, int priority) {
+            this.name = name;
+            this.maxConcurrent = maxConcurrent;
+            this.queueTimeoutMillis = queueTimeoutMillis;
+            this.priority = priority;
+        }
+
+        String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * The permit of a connection, held by its statements being executed.
+     */
+    static final class Permit {
+
+        /** The class of the statement which acquired the permit, guarded by the lock. */
+        private WorkloadClass workloadClass;
+
+        /** Number of statements holding the permit, guarded by the lock. */
+        private int holds;
+    }
+
+    private static final class Waiter {
+
+        private final WorkloadClass workloadClass;
+        private final long sequence;
+        private final Condition condition;
+        private boolean admitted;
+
+        Waiter(WorkloadClass workloadClass, long sequence, Condition condition) {
+            this.workloadClass = workloadClass;
+            this.sequence = sequence;
+            this.condition = condition;
+        }
+    }
+}
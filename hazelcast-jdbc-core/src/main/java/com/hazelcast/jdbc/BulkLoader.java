@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.core.HazelcastJsonValue;
+import com.hazelcast.internal.json.Json;
+import com.hazelcast.internal.json.JsonObject;
+import com.hazelcast.internal.json.JsonValue;
+import com.hazelcast.internal.json.ParseException;
+import com.hazelcast.sql.HazelcastSqlException;
+import com.hazelcast.sql.SqlColumnType;
+import com.hazelcast.sql.SqlExpectedResultType;
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlRow;
+import com.hazelcast.sql.SqlStatement;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Loads the rows of a CSV or JSON lines input into a mapping. The values are
+ * converted to the types of the mapping columns, as listed by {@code
+ * information_schema.columns}, and written by {@code SINK INTO} statements
+ * with a batch of rows each. Up to {@code copyParallelism} batches are
+ * written concurrently, the reading of the input waiting for the oldest one
+ * when the limit is reached.
+ */
+final class BulkLoader {
+
+    /** The URL property with the number of rows written by a statement. */
+    static final String BATCH_SIZE_PROPERTY = "copyBatchSize";
+
+    /** The URL property with the number of batches written concurrently. */
+    static final String PARALLELISM_PROPERTY = "copyParallelism";
+
+    static final long DEFAULT_BATCH_SIZE = 500;
+    static final long DEFAULT_PARALLELISM = 4;
+
+    private static final String DEFAULT_SCHEMA = "public";
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final String COLUMNS_SQL = "SELECT column_name, data_type FROM information_schema.columns "
+            + "WHERE table_schema = ? AND table_name = ? ORDER BY ordinal_position";
+
+    private static final Map<SqlColumnType, Function<String, Object>> PARSERS = new EnumMap<>(SqlColumnType.class);
+
+    static {
+        PARSERS.put(SqlColumnType.BOOLEAN, BulkLoader::parseBoolean);
+        PARSERS.put(SqlColumnType.TINYINT, Byte::valueOf);
+        PARSERS.put(SqlColumnType.SMALLINT, Short::valueOf);
+        PARSERS.put(SqlColumnType.INTEGER, Integer::valueOf);
+        PARSERS.put(SqlColumnType.BIGINT, Long::valueOf);
+        PARSERS.put(SqlColumnType.DECIMAL, BigDecimal::new);
+        PARSERS.put(SqlColumnType.REAL, Float::valueOf);
+        PARSERS.put(SqlColumnType.DOUBLE, Double::valueOf);
+        PARSERS.put(SqlColumnType.DATE, LocalDate::parse);
+        PARSERS.put(SqlColumnType.TIME, LocalTime::parse);
+        PARSERS.put(SqlColumnType.TIMESTAMP, LocalDateTime::parse);
+        PARSERS.put(SqlColumnType.TIMESTAMP_WITH_TIME_ZONE, OffsetDateTime::parse);
+        PARSERS.put(SqlColumnType.JSON, HazelcastJsonValue::new);
+    }
+
+    private final HazelcastSqlClient client;
+    private final String schema;
+    private final String mapping;
+    private final int batchSize;
+    private final int parallelism;
+
+    /** The types of the mapping columns by name, in the order of the mapping. */
+    private final Map<String, SqlColumnType> columnTypes;
+
+    private final Deque<Future<Integer>> inFlight = new ArrayDeque<>();
+    private long rowCount;
+
+    BulkLoader(HazelcastSqlClient client, String schema, String mapping) throws SQLException {
+        this.client = client;
+        this.schema = schema;
+        this.mapping = mapping;
+        JdbcUrl url = client.getJdbcUrl();
+        batchSize = (int) Math.max(1, HazelcastConfigFactory.parseLong(url, BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE));
+        parallelism = (int) Math.max(1, HazelcastConfigFactory.parseLong(url, PARALLELISM_PROPERTY, DEFAULT_PARALLELISM));
+        columnTypes = columnTypes();
+    }
+
+    private Map<String, SqlColumnType> columnTypes() throws SQLException {
+        SqlStatement statement = new SqlStatement(COLUMNS_SQL)
+                .setParameters(Arrays.asList(schema != null ? schema : DEFAULT_SCHEMA, mapping));
+        Map<String, SqlColumnType> types = new LinkedHashMap<>();
+        try (SqlResult result = client.execute(statement)) {
+            for (SqlRow row : result) {
+                String dataType = row.<String>getObject(1).replace(' ', '_');
+                SqlColumnType type;
+                try {
+                    type = SqlColumnType.valueOf(dataType);
+                } catch (IllegalArgumentException e) {
+                    type = SqlColumnType.VARCHAR;
+                }
+                types.put(row.getObject(0), type);
+            }
+        } catch (HazelcastSqlException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+        if (types.isEmpty()) {
+            throw new SQLException("Mapping not found: " + mapping);
+        }
+        return types;
+    }
+
+    /**
+     * Reads the rows from the channel and writes them to the mapping.
+     *
+     * @return the number of written rows
+     */
+    long load(ExportFormat format, ReadableByteChannel channel, CopyProgressListener listener) throws SQLException {
+        BufferedReader reader = new BufferedReader(Channels.newReader(channel, UTF_8.newDecoder(), -1), READ_BUFFER_SIZE);
+        try {
+            if (format == ExportFormat.CSV) {
+                loadCsv(new CsvReader(reader), listener);
+            } else {
+                loadJsonLines(reader, listener);
+            }
+            while (!inFlight.isEmpty()) {
+                completeOldest(listener);
+            }
+            return rowCount;
+        } catch (IOException e) {
+            throw new SQLException("Failed to read the rows: " + e.getMessage(), e);
+        } finally {
+            for (Future<Integer> future : inFlight) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private void loadCsv(CsvReader reader, CopyProgressListener listener) throws IOException, SQLException {
+        List<String> header = reader.next();
+        if (header == null) {
+            return;
+        }
+        List<SqlColumnType> types = new ArrayList<>(header.size());
+        for (String name : header) {
+            types.add(columnType(name));
+        }
+        Batch batch = new Batch(header);
+        long line = 1;
+        for (List<String> record; (record = reader.next()) != null; ) {
+            line++;
+            if (record.size() != header.size()) {
+                throw new SQLException(String.format("Record %d has %d fields, the header has %d",
+                        line, record.size(), header.size()));
+            }
+            for (int i = 0; i < record.size(); i++) {
+                batch.values.add(convert(record.get(i), types.get(i), header.get(i), line));
+            }
+            batch = added(batch, listener);
+        }
+        flush(batch, listener);
+    }
+
+    private void loadJsonLines(BufferedReader reader, CopyProgressListener listener) throws IOException, SQLException {
+        List<String> names = new ArrayList<>(columnTypes.keySet());
+        Map<String, Integer> indexes = new LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            indexes.put(names.get(i), i);
+        }
+        Batch batch = new Batch(names);
+        long line = 0;
+        for (String text; (text = reader.readLine()) != null; ) {
+            line++;
+            if (text.trim().isEmpty()) {
+                continue;
+            }
+            Object[] values = new Object[names.size()];
+            for (JsonObject.Member member : parseObject(text, line)) {
+                Integer index = indexes.get(member.getName());
+                if (index == null) {
+                    throw unknownColumn(member.getName());
+                }
+                values[index] = convert(jsonText(member.getValue()), columnTypes.get(member.getName()),
+                        member.getName(), line);
+            }
+            Collections.addAll(batch.values, values);
+            batch = added(batch, listener);
+        }
+        flush(batch, listener);
+    }
+
+    private static JsonObject parseObject(String text, long line) throws SQLException {
+        try {
+            JsonValue value = Json.parse(text);
+            if (value.isObject()) {
+                return value.asObject();
+            }
+        } catch (ParseException e) {
+            throw new SQLException(String.format("Line %d isn't valid JSON: %s", line, e.getMessage()), e);
+        }
+        throw new SQLException(String.format("Line %d isn't a JSON object", line));
+    }
+
+    private static String jsonText(JsonValue value) {
+        if (value.isNull()) {
+            return null;
+        }
+        return value.isString() ? value.asString() : value.toString();
+    }
+
+    private SqlColumnType columnType(String name) throws SQLException {
+        SqlColumnType type = columnTypes.get(name);
+        if (type == null) {
+            throw unknownColumn(name);
+        }
+        return type;
+    }
+
+    private SQLException unknownColumn(String name) {
+        return new SQLException(String.format("Unknown column '%s' in mapping '%s'", name, mapping));
+    }
+
+    private static Object convert(String text, SqlColumnType type, String column, long line) throws SQLException {
+        Function<String, Object> parser = PARSERS.get(type);
+        if (text == null || parser == null) {
+            return text;
+        }
+        try {
+            return parser.apply(text.trim());
+        } catch (RuntimeException e) {
+            throw new SQLException(String.format("Invalid %s value of column '%s' at line %d: '%s'",
+                    type, column, line, text), e);
+        }
+    }
+
+    private static Boolean parseBoolean(String text) {
+        if ("true".equalsIgnoreCase(text)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(text)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException(text);
+    }
+
+    /**
+     * Submits the batch if it's full, returns the batch to add the next row to.
+     */
+    private Batch added(Batch batch, CopyProgressListener listener) throws SQLException {
+        batch.rows++;
+        if (batch.rows < batchSize) {
+            return batch;
+        }
+        flush(batch, listener);
+        return new Batch(batch.columns);
+    }
+
+    private void flush(Batch batch, CopyProgressListener listener) throws SQLException {
+        if (batch.rows == 0) {
+            return;
+        }
+        if (inFlight.size() >= parallelism) {
+            completeOldest(listener);
+        }
+        SqlStatement statement = new SqlStatement(batch.sql(mapping))
+                .setParameters(batch.values)
+                .setSchema(schema)
+                .setExpectedResultType(SqlExpectedResultType.UPDATE_COUNT);
+        int rows = batch.rows;
+        inFlight.add(Writers.EXECUTOR.submit(() -> {
+            try (SqlResult ignored = client.execute(statement)) {
+                return rows;
+            }
+        }));
+    }
+
+    private void completeOldest(CopyProgressListener listener) throws SQLException {
+        try {
+            rowCount += inFlight.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while writing the rows", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new SQLException(cause.getMessage(), cause);
+        }
+        if (listener != null) {
+            listener.rowsWritten(rowCount);
+        }
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * The rows written by a statement.
+     */
+    private static final class Batch {
+
+        private final List<String> columns;
+        private final List<Object> values = new ArrayList<>();
+        private int rows;
+
+        Batch(List<String> columns) {
+            this.columns = columns;
+        }
+
+        String sql(String mapping) {
+            StringBuilder sql = new StringBuilder("SINK INTO ").append(quote(mapping)).append(" (");
+            StringBuilder row = new StringBuilder("(");
+            for (int i = 0; i < columns.size(); i++) {
+                sql.append(i > 0 ? ", " : "").append(quote(columns.get(i)));
+                row.append(i > 0 ? ", ?" : "?");
+            }
+            sql.append(") VALUES ");
+            row.append(')');
+            for (int i = 0; i < rows; i++) {
+                sql.append(i > 0 ? ", " : "").append(row);
+            }
+            return sql.toString();
+        }
+    }
+
+    /**
+     * Holder of the threads writing the batches, created on first use.
+     */
+    private static final class Writers {
+
+        private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 1, TimeUnit.MINUTES,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "hz-jdbc-copy");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private Writers() {
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlRow;
+import com.hazelcast.sql.SqlRowMetadata;
+import com.hazelcast.sql.impl.ResultIterator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delegating {@link SqlResult} which copies the rows as they are read and
+ * puts them to the {@link ResultCache} once the last row was read. Stops
+ * copying if the rows are too large to be cached.
+ */
+class CachingSqlResult implements SqlResult {
+
+    private final SqlResult delegate;
+    private final ResultCache cache;
+    private final ResultCache.Key key;
+    private final long generation;
+
+    CachingSqlResult(SqlResult delegate, ResultCache cache, ResultCache.Key key, long generation) {
+        this.delegate = delegate;
+        this.cache = cache;
+        this.key = key;
+        this.generation = generation;
+    }
+
+    @Override
+    public SqlRowMetadata getRowMetadata() {
+        return delegate.getRowMetadata();
+    }
+
+    @Override
+    public Iterator<SqlRow> iterator() {
+        return new CachingIterator(delegate.iterator(), delegate.getRowMetadata());
+    }
+
+    @Override
+    public long updateCount() {
+        return delegate.updateCount();
+    }
+
+    @Override
+    public boolean isRowSet() {
+        return delegate.isRowSet();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private final class CachingIterator implements ResultIterator<SqlRow> {
+
+        private final Iterator<SqlRow> iterator;
+        private final SqlRowMetadata metadata;
+
+        /** The copied rows, null if the result isn't cached. */
+        private List<Object[]> rows = new ArrayList<>();
+        private long bytes;
+
+        CachingIterator(Iterator<SqlRow> iterator, SqlRowMetadata metadata) {
+            this.iterator = iterator;
+            this.metadata = metadata;
+        }
+
+        @Override
+        public HasNextResult hasNext(long timeout, TimeUnit timeUnit) {
+            HasNextResult result;
+            if (iterator instanceof ResultIterator) {
+                result = ((ResultIterator<SqlRow>) iterator).hasNext(timeout, timeUnit);
+            } else {
+                result = iterator.hasNext() ? HasNextResult.YES : HasNextResult.DONE;
+            }
+            if (result == HasNextResult.DONE) {
+                done();
+            }
+            return result;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean hasNext = iterator.hasNext();
+            if (!hasNext) {
+                done();
+            }
+            return hasNext;
+        }
+
+        @Override
+        public SqlRow next() {
+            SqlRow row = iterator.next();
+            if (rows != null) {
+                copy(row);
+            }
+            return row;
+        }
+
+        private void copy(SqlRow row) {
+            Object[] values = ResultCache.copyValues(row, metadata.getColumnCount());
+            bytes += values == null ? 0 : ResultCache.estimateBytes(values);
+            values = values == null ? null : cache.cachedValues(metadata, values);
+            if (values == null || bytes > cache.maxEntryBytes()) {
+                rows = null;
+                return;
+            }
+            rows.add(values);
+        }
+
+        private void done() {
+            if (rows != null) {
+                cache.put(key, generation, metadata, Collections.unmodifiableList(rows), bytes);
+                rows = null;
+            }
+        }
+    }
+}
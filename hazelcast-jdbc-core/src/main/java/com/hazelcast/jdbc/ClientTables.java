@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.sql.SqlColumnMetadata;
+import com.hazelcast.sql.SqlColumnType;
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlRow;
+import com.hazelcast.sql.SqlRowMetadata;
+import com.hazelcast.sql.impl.UpdateSqlResultImpl;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Tables of the {@value #SCHEMA} schema, served by the driver without
+ * contacting the cluster. Only the following statements are supported:
+ * <ul>
+ *     <li>{@code SELECT * FROM jdbc_client.statement_stats [ORDER BY column [ASC|DESC]] [LIMIT n]},
+ *     ordered by {@code total_time_ms DESC} by default</li>
+ *     <li>{@code DELETE FROM jdbc_client.statement_stats}, resets the statistics</li>
+ * </ul>
+ * The statistics are kept by the driver for all connections, so a
+ * {@code DELETE} executed by any connection resets them for all of them.
+ */
+final class ClientTables {
+
+    static final String SCHEMA = "jdbc_client";
+
+    private static final Pattern SELECT_STATEMENT_STATS = Pattern.compile(
+            "\\s*SELECT\\s+\\*\\s+FROM\\s+jdbc_client\\s*\\.\\s*statement_stats"
+                    + "(?:\\s+ORDER\\s+BY\\s+(\\w+)(?:\\s+(ASC|DESC))?)?(?:\\s+LIMIT\\s+(\\d+))?\\s*;?\\s*",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern DELETE_STATEMENT_STATS = Pattern.compile(
+            "\\s*DELETE\\s+FROM\\s+jdbc_client\\s*\\.\\s*statement_stats\\s*;?\\s*",
+            Pattern.CASE_INSENSITIVE);
+
+    /**
+     * A {@code SELECT} or {@code DELETE} whose first {@code FROM} reads the
+     * schema, not preceded by a string literal. Other statements mentioning
+     * the schema, in a literal, an alias or the name of a mapping, are
+     * executed by the cluster.
+     */
+    private static final Pattern CLIENT_TABLE_STATEMENT = Pattern.compile(
+            "\\s*(?:SELECT|DELETE)\\b[^']*?\\bFROM\\s+jdbc_client\\s*\\.",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final SqlRowMetadata STATEMENT_STATS_METADATA = new SqlRowMetadata(asList(
+            new SqlColumnMetadata("fingerprint", SqlColumnType.VARCHAR, false),
+            new SqlColumnMetadata("statement_type", SqlColumnType.VARCHAR, false),
+            new SqlColumnMetadata("calls", SqlColumnType.BIGINT, false),
+            new SqlColumnMetadata("errors", SqlColumnType.BIGINT, false),
+            new SqlColumnMetadata("rows", SqlColumnType.BIGINT, false),
+            new SqlColumnMetadata("total_time_ms", SqlColumnType.DOUBLE, false),
+            new SqlColumnMetadata("mean_time_ms", SqlColumnType.DOUBLE, false),
+            new SqlColumnMetadata("p50_time_ms", SqlColumnType.DOUBLE, false),
+            new SqlColumnMetadata("p99_time_ms", SqlColumnType.DOUBLE, false),
+            new SqlColumnMetadata("max_time_ms", SqlColumnType.DOUBLE, false)
+    ));
+    private static final int DEFAULT_ORDER_COLUMN = STATEMENT_STATS_METADATA.findColumn("total_time_ms");
+
+    private ClientTables() {
+    }
+
+    /**
+     * Returns whether the statement reads from the {@value #SCHEMA} schema.
+     * Cheap enough to be called for every statement, the statements which
+     * don't mention the schema aren't matched against the pattern.
+     */
+    static boolean isClientTableStatement(String sql) {
+        return containsIgnoreCase(sql, SCHEMA) && CLIENT_TABLE_STATEMENT.matcher(sql).lookingAt();
+    }
+
+    private static boolean containsIgnoreCase(String sql, String part) {
+        int length = part.length();
+        for (int i = 0; i <= sql.length() - length; i++) {
+            if (sql.regionMatches(true, i, part, 0, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Executes a statement accepted by {@link #isClientTableStatement}.
+     *
+     * @return a {@link FixedRowsSqlResult} with the rows, or an update count
+     * result
+     */
+    static SqlResult execute(String sql, StatementStats stats) throws SQLException {
+        Matcher select = SELECT_STATEMENT_STATS.matcher(sql);
+        if (select.matches()) {
+            return selectStatementStats(stats, select.group(1), select.group(2), select.group(3));
+        }
+        if (DELETE_STATEMENT_STATS.matcher(sql).matches()) {
+            return UpdateSqlResultImpl.createUpdateCountResult(stats.reset());
+        }
+        throw new SQLException("Unsupported statement on the " + SCHEMA + " schema, supported are "
+                + "SELECT * FROM jdbc_client.statement_stats [ORDER BY column [ASC|DESC]] [LIMIT n] "
+                + "and DELETE FROM jdbc_client.statement_stats");
+    }
+
+    private static SqlResult selectStatementStats(StatementStats stats, String orderBy, String direction, String limit)
+            throws SQLException {
+        int orderColumn = DEFAULT_ORDER_COLUMN;
+        boolean descending = true;
+        if (orderBy != null) {
+            orderColumn = STATEMENT_STATS_METADATA.findColumn(orderBy.toLowerCase(Locale.ROOT));
+            if (orderColumn == SqlRowMetadata.COLUMN_NOT_FOUND) {
+                throw new SQLException("Column '" + orderBy + "' not found in " + SCHEMA + ".statement_stats");
+            }
+            descending = "DESC".equalsIgnoreCase(direction);
+        }
+        long maxRows = Long.MAX_VALUE;
+        try {
+            if (limit != null) {
+                maxRows = Long.parseLong(limit);
+            }
+        } catch (NumberFormatException e) {
+            throw new SQLException("Invalid LIMIT: " + limit, e);
+        }
+
+        List<Object[]> values = new ArrayList<>();
+        for (StatementStats.Entry entry : stats.entries()) {
+            LatencySnapshot latency = entry.getLatency();
+            values.add(new Object[]{
+                    entry.getFingerprint(),
+                    entry.getType().name(),
+                    latency.getCount(),
+                    entry.getErrors(),
+                    entry.getRows(),
+                    latency.getTotalMillis(),
+                    latency.getMeanMillis(),
+                    latency.getP50Millis(),
+                    latency.getP99Millis(),
+                    latency.getMaxMillis()
+            });
+        }
+        values.sort(comparator(orderColumn, descending));
+
+        List<SqlRow> rows = new ArrayList<>();
+        for (int i = 0; i < values.size() && i < maxRows; i++) {
+            rows.add(FixedRowsSqlResult.row(STATEMENT_STATS_METADATA, Serialization.SERVICE, values.get(i)));
+        }
+        return new FixedRowsSqlResult(STATEMENT_STATS_METADATA, rows);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Object[]> comparator(int column, boolean descending) {
+        Comparator<Object[]> comparator = Comparator.comparing(row -> (Comparable) row[column]);
+        return descending ? comparator.reversed() : comparator;
+    }
+
+    /**
+     * Holder of the serialization service of the rows, created on first use.
+     */
+    private static final class Serialization {
+
+        private static final InternalSerializationService SERVICE = new DefaultSerializationServiceBuilder().build();
+
+        private Serialization() {
+        }
+    }
+}
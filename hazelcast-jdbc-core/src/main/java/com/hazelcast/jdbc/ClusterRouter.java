@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.HazelcastClientNotActiveException;
+import com.hazelcast.client.HazelcastClientOfflineException;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.sql.HazelcastSqlException;
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlStatement;
+import com.hazelcast.sql.impl.SqlErrorCode;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Routes the statements of a connection to one of several clusters holding
+ * the same data, listed in the URL separated by {@code ;}. Each cluster is
+ * probed periodically, the queries are executed by the healthy cluster with
+ * the lowest round-trip time, the other statements by the first healthy
+ * cluster in the order of the URL. A query failing because its cluster isn't
+ * reachable is executed once more by the next cluster.
+ */
+final class ClusterRouter implements StatementRouter {
+
+    /** The URL property with the comma-separated names of the clusters, in the order of the URL. */
+    static final String CLUSTER_NAMES_PROPERTY = "clusterNames";
+
+    /** The URL property with the interval of the round-trip time probes. */
+    static final String PROBE_INTERVAL_PROPERTY = "clusterProbeIntervalMillis";
+
+    static final long DEFAULT_PROBE_INTERVAL_MILLIS = 5_000;
+    static final String PROBE_SQL = "SELECT 1";
+
+    /** Weight of the last probe in the smoothed round-trip time. */
+    private static final double RTT_WEIGHT = 0.3;
+
+    private final List<Cluster> clusters;
+    private final ExecutorService probeExecutor;
+    private final ScheduledFuture<?> probeTask;
+    private volatile boolean shutdown;
+
+    ClusterRouter(JdbcUrl url, ClientConfig config) {
+        List<List<String>> clusterAuthorities = url.getClusterAuthorities();
+        List<String> names = clusterNames(url, config, clusterAuthorities.size());
+        List<Cluster> list = new ArrayList<>(clusterAuthorities.size());
+        for (int i = 0; i < clusterAuthorities.size(); i++) {
+            list.add(new Cluster(names.get(i), clusterAuthorities.get(i), url, config));
+        }
+        clusters = Collections.unmodifiableList(list);
+        probeExecutor = Probes.newExecutor(clusters.size());
+        long interval = HazelcastConfigFactory.parseLong(url, PROBE_INTERVAL_PROPERTY, DEFAULT_PROBE_INTERVAL_MILLIS);
+        probeTask = interval > 0
+                ? Probes.SCHEDULER.scheduleWithFixedDelay(this::probeAll, 0, interval, MILLISECONDS)
+                : null;
+    }
+
+    /**
+     * Returns the names of the clusters listed in the URL.
+     */
+    static List<String> clusterNames(JdbcUrl url, ClientConfig config, int count) {
+        String value = url.getProperty(CLUSTER_NAMES_PROPERTY);
+        if (value == null) {
+            return Collections.nCopies(count, config.getClusterName());
+        }
+        String[] names = value.split(",");
+        if (names.length != count) {
+            throw new RuntimeException(String.format("'%s' must have a name for each of the %d clusters, '%s'",
+                    CLUSTER_NAMES_PROPERTY, count, value));
+        }
+        List<String> result = new ArrayList<>(count);
+        for (String name : names) {
+            result.add(name.trim());
+        }
+        return result;
+    }
+
+    @Override
+    public SqlResult execute(SqlStatement statement) throws SQLException {
+        boolean query = SqlStatementType.of(statement.getSql()) == SqlStatementType.QUERY;
+        Cluster target = query ? nearest(null) : primary();
+        try {
+            return target.client.execute(statement);
+        } catch (RuntimeException | SQLException e) {
+            if (!isUnreachable(e)) {
+                throw e;
+            }
+            target.healthy = false;
+            // other statements aren't repeated, they may have been applied
+            Cluster next = query ? nearest(target) : null;
+            if (next == null) {
+                throw e;
+            }
+            return next.client.execute(statement);
+        }
+    }
+
+    /**
+     * Returns the instance of the cluster executing the queries.
+     */
+    @Override
+    public HazelcastInstance getClient() {
+        return nearest(null).client.getClient();
+    }
+
+    @Override
+    public boolean isRunning() {
+        if (shutdown) {
+            return false;
+        }
+        for (Cluster cluster : clusters) {
+            if (cluster.client.isRunning()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        if (probeTask != null) {
+            probeTask.cancel(false);
+        }
+        probeExecutor.shutdown();
+        for (Cluster cluster : clusters) {
+            cluster.shutdown();
+        }
+    }
+
+    List<Cluster> clusters() {
+        return clusters;
+    }
+
+    /**
+     * Returns the healthy cluster with the lowest round-trip time other than
+     * the excluded one, the clusters with unknown time being the last ones in
+     * the order of the URL. If no cluster is healthy, returns the first one
+     * which isn't excluded, or {@code null} if there's none.
+     */
+    private Cluster nearest(Cluster excluded) {
+        Cluster nearest = null;
+        for (Cluster cluster : clusters) {
+            if (cluster != excluded && cluster.healthy
+                    && (nearest == null || Long.compareUnsigned(cluster.rttNanos, nearest.rttNanos) < 0)) {
+                nearest = cluster;
+            }
+        }
+        if (nearest == null) {
+            for (Cluster cluster : clusters) {
+                if (cluster != excluded) {
+                    return cluster;
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns the first healthy cluster in the order of the URL, the first
+     * cluster if none is healthy.
+     */
+    private Cluster primary() {
+        for (Cluster cluster : clusters) {
+            if (cluster.healthy) {
+                return cluster;
+            }
+        }
+        return clusters.get(0);
+    }
+
+    private void probeAll() {
+        for (Cluster cluster : clusters) {
+            if (cluster.probing.compareAndSet(false, true)) {
+                // probed in parallel, so that an unreachable cluster doesn't delay the others
+                try {
+                    probeExecutor.execute(() -> {
+                        try {
+                            cluster.probe();
+                        } finally {
+                            cluster.probing.set(false);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // the router is shut down
+                    cluster.probing.set(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the URL of a single cluster listed in the given URL. The idle
+     * timeout doesn't apply, the client of the cluster is kept alive by the
+     * connection, and neither do the properties of several clusters.
+     */
+    static JdbcUrl clusterUrl(List<String> addresses, JdbcUrl url) {
+        Properties properties = new Properties();
+        properties.putAll(url.getProperties());
+        properties.remove(HazelcastSqlClient.IDLE_TIMEOUT_PROPERTY);
+        properties.remove(ShardRouter.SHARDING_FUNCTION_PROPERTY);
+        properties.remove(ShardRouter.SHARD_KEY_PARAMETER_PROPERTY);
+        return new JdbcUrl("jdbc:hazelcast://" + String.join(",", addresses) + "/", properties);
+    }
+
+    /**
+     * Returns a copy of the configuration for a single cluster.
+     */
+    static ClientConfig clusterConfig(String name, List<String> addresses, ClientConfig config) {
+        ClientConfig clusterConfig = new ClientConfig(config);
+        clusterConfig.setClusterName(name);
+        clusterConfig.getNetworkConfig().setAddresses(new ArrayList<>(addresses));
+        return clusterConfig;
+    }
+
+    /**
+     * Returns whether the failure is caused by the connection to the cluster,
+     * not by the statement: the other failures, e.g. a parse error or an
+     * admission timeout, would fail on the other clusters too.
+     */
+    static boolean isUnreachable(Exception e) {
+        if (e instanceof HazelcastSqlException) {
+            return ((HazelcastSqlException) e).getCode() == SqlErrorCode.CONNECTION_PROBLEM;
+        }
+        // client not connected yet, or shut down after it failed to connect
+        return e instanceof SQLTransientConnectionException || e instanceof HazelcastClientOfflineException
+                || e instanceof HazelcastClientNotActiveException;
+    }
+
+    /**
+     * One of the clusters, with its own client.
+     */
+    static final class Cluster {
+
+        private final String name;
+        private final JdbcUrl url;
+        private final ClientConfig config;
+        private final AtomicBoolean probing = new AtomicBoolean();
+
+        private volatile HazelcastSqlClient client;
+        private volatile boolean healthy = true;
+
+        /** The smoothed round-trip time, -1 (the maximum unsigned value) until probed. */
+        private volatile long rttNanos = -1;
+        private volatile boolean shutdown;
+
+        Cluster(String name, List<String> addresses, JdbcUrl url, ClientConfig config) {
+            this.name = name;
+            this.url = clusterUrl(addresses, url);
+            this.config = clusterConfig(name, addresses, config);
+            // an unreachable cluster must not delay the connection to the others
+            this.config.getConnectionStrategyConfig().setAsyncStart(true);
+            client = new HazelcastSqlClient(this.url, this.config);
+        }
+
+        String getName() {
+            return name;
+        }
+
+        boolean isHealthy() {
+            return healthy;
+        }
+
+        long getRttNanos() {
+            return rttNanos;
+        }
+
+        void recordRtt(long nanos) {
+            long previous = rttNanos;
+            rttNanos = previous == -1 ? nanos : (long) (RTT_WEIGHT * nanos + (1 - RTT_WEIGHT) * previous);
+        }
+
+        /**
+         * Executes the probe query, restarting the client if it shut down by
+         * itself after it failed to connect. A client shut down by the router
+         * isn't restarted.
+         */
+        void probe() {
+            // under the lock of shutdown, so that a restarted client is shut down too
+            synchronized (this) {
+                if (shutdown) {
+                    return;
+                }
+                if (!client.isRunning()) {
+                    HazelcastSqlClient failed = client;
+                    client = new HazelcastSqlClient(url, config);
+                    failed.shutdown();
+                }
+            }
+            long start = System.nanoTime();
+            try (SqlResult result = client.execute(new SqlStatement(PROBE_SQL))) {
+                result.iterator().forEachRemaining(row -> { });
+                recordRtt(System.nanoTime() - start);
+                healthy = true;
+            } catch (RuntimeException | SQLException e) {
+                healthy = false;
+            }
+        }
+
+        synchronized void shutdown() {
+            shutdown = true;
+            client.shutdown();
+        }
+
+        HazelcastSqlClient getClient() {
+            return client;
+        }
+    }
+
+    /**
+     * Holder of the thread scheduling the probes, created on first use.
+     */
+    private static final class Probes {
+
+        private static final ScheduledExecutorService SCHEDULER = createScheduler();
+
+        private Probes() {
+        }
+
+        /**
+         * Returns an executor of the probes of a router, with a thread for
+         * each of its clusters, each cluster having a single probe at a time.
+         */
+        static ExecutorService newExecutor(int clusterCount) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(clusterCount, clusterCount, 1, TimeUnit.MINUTES,
+                    new LinkedBlockingQueue<>(), Probes::newThread);
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+
+        private static ScheduledExecutorService createScheduler() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, Probes::newThread);
+            executor.setRemoveOnCancelPolicy(true);
+            executor.setKeepAliveTime(1, TimeUnit.MINUTES);
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+
+        private static Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "hz-jdbc-cluster-probe");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.sql.SqlColumnType;
+import com.hazelcast.sql.SqlRow;
+import com.hazelcast.sql.SqlRowMetadata;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Rows of a result set stored by column, filled by {@link
+ * HazelcastResultSet#nextBatch(ColumnBatch)}. The values of {@code TINYINT},
+ * {@code SMALLINT} and {@code INTEGER} columns are stored in {@code int}
+ * arrays, of {@code BIGINT} columns in {@code long} arrays, of {@code REAL}
+ * and {@code DOUBLE} columns in {@code double} arrays, and of the other
+ * columns in {@code Object} arrays. Null values are marked in a bitmap and
+ * stored as 0 in the primitive arrays.
+ * <p>
+ * The arrays are reused by the following batches as long as the columns
+ * don't change, so the values must be copied if they're needed later. The
+ * columns are numbered from 1 and the rows from 0.
+ */
+public final class ColumnBatch {
+
+    /** The shift from a row to its element of a null bitmap, 64 rows per element. */
+    private static final int BITMAP_SHIFT = 6;
+
+    private final int capacity;
+    private int size;
+    private SqlColumnType[] types = new SqlColumnType[0];
+    private Object[] values = new Object[0];
+    private long[][] nulls = new long[0][];
+
+    /**
+     * Creates a batch of at most the given number of rows.
+     */
+    public ColumnBatch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of rows in the batch.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getColumnCount() {
+        return types.length;
+    }
+
+    /**
+     * Returns the values of a {@code TINYINT}, {@code SMALLINT} or {@code
+     * INTEGER} column.
+     */
+    public int[] getInts(int column) throws SQLException {
+        return (int[]) values(column, int[].class);
+    }
+
+    /**
+     * Returns the values of a {@code BIGINT} column.
+     */
+    public long[] getLongs(int column) throws SQLException {
+        return (long[]) values(column, long[].class);
+    }
+
+    /**
+     * Returns the values of a {@code REAL} or {@code DOUBLE} column.
+     */
+    public double[] getDoubles(int column) throws SQLException {
+        return (double[]) values(column, double[].class);
+    }
+
+    /**
+     * Returns the values of a column not stored in a primitive array.
+     */
+    public Object[] getObjects(int column) throws SQLException {
+        return (Object[]) values(column, Object[].class);
+    }
+
+    /**
+     * Returns whether the value of the given column and row is null.
+     */
+    public boolean isNull(int column, int row) throws SQLException {
+        return (getNulls(column)[row >>> BITMAP_SHIFT] & (1L << row)) != 0;
+    }
+
+    /**
+     * Returns the bitmap of the null values of a column: the value of the
+     * row {@code i} is null if the bit {@code i % 64} of the element {@code i
+     * / 64} is set.
+     */
+    public long[] getNulls(int column) throws SQLException {
+        checkColumn(column);
+        return nulls[column - 1];
+    }
+
+    private Object values(int column, Class<?> arrayClass) throws SQLException {
+        checkColumn(column);
+        Object array = values[column - 1];
+        if (array.getClass() != arrayClass) {
+            throw new SQLException("Column " + column + " of type " + types[column - 1] + " isn't stored in "
+                    + arrayClass.getSimpleName());
+        }
+        return array;
+    }
+
+    private void checkColumn(int column) throws SQLException {
+        if (column < 1 || column > types.length) {
+            throw new SQLException("Invalid column index: " + column);
+        }
+    }
+
+    /**
+     * Prepares the batch for the rows with the given metadata, reusing the
+     * arrays if the column types are the same.
+     */
+    void start(SqlRowMetadata metadata) {
+        size = 0;
+        int count = metadata.getColumnCount();
+        boolean same = count == types.length;
+        for (int i = 0; same && i < count; i++) {
+            same = metadata.getColumn(i).getType() == types[i];
+        }
+        if (same) {
+            for (long[] bitmap : nulls) {
+                Arrays.fill(bitmap, 0);
+            }
+            return;
+        }
+        types = new SqlColumnType[count];
+        values = new Object[count];
+        nulls = new long[count][(capacity + Long.SIZE - 1) >>> BITMAP_SHIFT];
+        for (int i = 0; i < count; i++) {
+            types[i] = metadata.getColumn(i).getType();
+            values[i] = newArray(types[i]);
+        }
+    }
+
+    private Object newArray(SqlColumnType type) {
+        switch (type) {
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+                return new int[capacity];
+            case BIGINT:
+                return new long[capacity];
+            case REAL:
+            case DOUBLE:
+                return new double[capacity];
+            default:
+                return new Object[capacity];
+        }
+    }
+
+    /**
+     * Stores the values of the given row at the end of the batch.
+     */
+    void add(SqlRow row) {
+        for (int i = 0; i < types.length; i++) {
+            Object value = row.getObject(i);
+            Object array = values[i];
+            if (value == null) {
+                nulls[i][size >>> BITMAP_SHIFT] |= 1L << size;
+                value = array instanceof Object[] ? null : 0;
+            }
+            if (array instanceof int[]) {
+                ((int[]) array)[size] = ((Number) value).intValue();
+            } else if (array instanceof long[]) {
+                ((long[]) array)[size] = ((Number) value).longValue();
+            } else if (array instanceof double[]) {
+                ((double[]) array)[size] = ((Number) value).doubleValue();
+            } else {
+                ((Object[]) array)[size] = value;
+            }
+        }
+        size++;
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.config.ClientConfig;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Caches the parsed {@link JdbcUrl} and the {@link ClientConfig} created for
+ * it, so that connecting repeatedly with the same URL and properties doesn't
+ * parse the URL and load the client configuration files again.
+ * <p>
+ * The cached configurations are discarded when any of the sources read by
+ * {@link ClientConfig#load()} changes: the file referenced by the {@code
+ * hazelcast.client.config} system property, the {@code hazelcast-client.*}
+ * files in the working directory or on the classpath, or the {@code
+ * hz-client.*} override system properties. The sources are checked at most
+ * once per second.
+ */
+final class ConnectionConfigCache {
+
+    static final int MAX_ENTRIES = 256;
+
+    private static final String CONFIG_SYSTEM_PROPERTY = "hazelcast.client.config";
+    private static final String OVERRIDE_SYSTEM_PROPERTY_PREFIX = "hz-client.";
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final String[] CONFIG_FILE_NAMES = {
+            "hazelcast-client.xml", "hazelcast-client.yaml", "hazelcast-client.yml"
+    };
+    private static final long DEFAULT_CHECK_INTERVAL_NANOS = SECONDS.toNanos(1);
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Supplier<String> sourcesStampSupplier;
+    private final long checkIntervalNanos;
+
+    private volatile String sourcesStamp;
+    private volatile long sourcesCheckedNanos;
+
+    ConnectionConfigCache() {
+        this(ConnectionConfigCache::configSourcesStamp, DEFAULT_CHECK_INTERVAL_NANOS);
+    }
+
+    ConnectionConfigCache(Supplier<String> sourcesStampSupplier, long checkIntervalNanos) {
+        this.sourcesStampSupplier = sourcesStampSupplier;
+        this.checkIntervalNanos = checkIntervalNanos;
+        this.sourcesStamp = sourcesStampSupplier.get();
+        this.sourcesCheckedNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns the cached configuration for the given URL and properties.
+     *
+     * @throws IllegalArgumentException if the URL is malformed
+     */
+    Entry resolve(String url, Properties info) {
+        checkSources();
+        Key key = new Key(url, info);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            if (entries.size() >= MAX_ENTRIES) {
+                entries.clear();
+            }
+            Entry newEntry = new Entry(new JdbcUrl(url, info));
+            entry = entries.putIfAbsent(key, newEntry);
+            if (entry == null) {
+                entry = newEntry;
+            }
+        }
+        return entry;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void checkSources() {
+        long now = System.nanoTime();
+        if (now - sourcesCheckedNanos < checkIntervalNanos) {
+            return;
+        }
+        sourcesCheckedNanos = now;
+        String stamp = sourcesStampSupplier.get();
+        if (!stamp.equals(sourcesStamp)) {
+            sourcesStamp = stamp;
+            entries.clear();
+        }
+    }
+
+    /**
+     * Describes the current state of the client configuration sources, the
+     * result changes if any of the sources is added, removed or modified.
+     */
+    static String configSourcesStamp() {
+        StringBuilder stamp = new StringBuilder();
+        String configProperty = System.getProperty(CONFIG_SYSTEM_PROPERTY);
+        if (configProperty != null) {
+            stamp.append(configProperty).append(';');
+            if (!configProperty.startsWith(CLASSPATH_PREFIX)) {
+                appendFile(stamp, new File(configProperty));
+            }
+        }
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = ClientConfig.class.getClassLoader();
+        }
+        for (String fileName : CONFIG_FILE_NAMES) {
+            appendFile(stamp, new File(fileName));
+            appendResource(stamp, classLoader.getResource(fileName));
+        }
+        Map<String, String> overrides = new TreeMap<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(OVERRIDE_SYSTEM_PROPERTY_PREFIX)) {
+                overrides.put(name, System.getProperty(name));
+            }
+        }
+        return stamp.append(overrides).toString();
+    }
+
+    private static void appendResource(StringBuilder stamp, URL resource) {
+        if (resource == null) {
+            return;
+        }
+        stamp.append(resource).append(';');
+        if ("file".equals(resource.getProtocol())) {
+            try {
+                appendFile(stamp, new File(resource.toURI()));
+            } catch (URISyntaxException | IllegalArgumentException ignored) {
+                // the resource URL itself is in the stamp
+                stamp.append('?');
+            }
+        }
+    }
+
+    private static void appendFile(StringBuilder stamp, File file) {
+        if (file.isFile()) {
+            stamp.append(file.getAbsolutePath()).append(':')
+                    .append(file.lastModified()).append(':')
+                    .append(file.length()).append(';');
+        }
+    }
+
+    /**
+     * The resolved configuration for one URL and properties pair.
+     */
+    static final class Entry {
+
+        private final JdbcUrl jdbcUrl;
+        private volatile ClientConfig clientConfig;
+
+        private Entry(JdbcUrl jdbcUrl) {
+            this.jdbcUrl = jdbcUrl;
+        }
+
+        JdbcUrl getJdbcUrl() {
+            return jdbcUrl;
+        }
+
+        /**
+         * Returns the client configuration template for the URL. The template
+         * is shared and must not be modified, clients are started with a copy.
+         */
+        ClientConfig getClientConfig() {
+            ClientConfig config = clientConfig;
+            if (config == null) {
+                synchronized (this) {
+                    config = clientConfig;
+                    if (config == null) {
+                        config = new HazelcastConfigFactory().clientConfig(jdbcUrl);
+                        clientConfig = config;
+                    }
+                }
+            }
+            return config;
+        }
+    }
+
+    private static final class Key {
+
+        private final String url;
+        private final Map<Object, Object> properties;
+
+        private Key(String url, Properties info) {
+            this.url = url;
+            this.properties = info == null ? null : new HashMap<>(info);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return url.equals(key.url) && Objects.equals(properties, key.properties);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * url.hashCode() + Objects.hashCode(properties);
+        }
+    }
+}
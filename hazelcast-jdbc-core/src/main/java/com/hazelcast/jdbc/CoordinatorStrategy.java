@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.impl.clientside.HazelcastClientInstanceImpl;
+import com.hazelcast.client.impl.clientside.HazelcastClientProxy;
+import com.hazelcast.client.impl.connection.ClientConnection;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.util.AddressUtil;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Strategies choosing the member which coordinates the statements of a
+ * connection. The client of the connection connects only to the chosen
+ * member, and the other addresses are used only if it isn't reachable.
+ */
+enum CoordinatorStrategy {
+
+    /** A random member. */
+    RANDOM("random"),
+
+    /** The members in turn, for the connections opened by this driver. */
+    ROUND_ROBIN("roundRobin"),
+
+    /** The member with the fewest statements in progress from this driver. */
+    LEAST_IN_FLIGHT("leastInFlight");
+
+    /** The URL property selecting the strategy, not set by default. */
+    static final String PROPERTY = "coordinatorStrategy";
+
+    private static final int DEFAULT_PORT = 5701;
+    private static final AtomicInteger NEXT = new AtomicInteger();
+    private static final ConcurrentMap<String, AtomicInteger> IN_FLIGHT = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    CoordinatorStrategy(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the strategy selected by the URL, {@code null} if not set.
+     */
+    static CoordinatorStrategy of(JdbcUrl url) {
+        String value = url.getProperty(PROPERTY);
+        if (value == null) {
+            return null;
+        }
+        for (CoordinatorStrategy strategy : values()) {
+            if (strategy.name.equalsIgnoreCase(value)) {
+                return strategy;
+            }
+        }
+        throw new RuntimeException(String.format("Unknown '%s', '%s'", PROPERTY, value));
+    }
+
+    /**
+     * Returns a copy of the addresses ordered so that the chosen coordinator
+     * is the first one.
+     */
+    List<String> order(List<String> addresses) {
+        if (addresses.size() < 2) {
+            return new ArrayList<>(addresses);
+        }
+        int first;
+        switch (this) {
+            case RANDOM:
+                first = ThreadLocalRandom.current().nextInt(addresses.size());
+                break;
+            case ROUND_ROBIN:
+                first = Math.floorMod(NEXT.getAndIncrement(), addresses.size());
+                break;
+            default:
+                first = leastInFlight(addresses);
+                break;
+        }
+        List<String> ordered = new ArrayList<>(addresses.size());
+        for (int i = 0; i < addresses.size(); i++) {
+            ordered.add(addresses.get((first + i) % addresses.size()));
+        }
+        return ordered;
+    }
+
+    private static int leastInFlight(List<String> addresses) {
+        // the ties are broken at random, so that the connections opened at once are spread
+        int offset = ThreadLocalRandom.current().nextInt(addresses.size());
+        int least = offset;
+        int leastCount = Integer.MAX_VALUE;
+        for (int i = 0; i < addresses.size(); i++) {
+            int index = (offset + i) % addresses.size();
+            int count = inFlight(addresses.get(index));
+            if (count < leastCount) {
+                least = index;
+                leastCount = count;
+            }
+        }
+        return least;
+    }
+
+    /**
+     * Returns the number of statements in progress on the member with the
+     * given address.
+     */
+    static int inFlight(String address) {
+        AtomicInteger count = IN_FLIGHT.get(memberKey(address));
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Returns the key of the member with the given address, its IP address
+     * and port, or the address itself if the host can't be resolved.
+     */
+    static String memberKey(String address) {
+        AddressUtil.AddressHolder holder = AddressUtil.getAddressHolder(address, DEFAULT_PORT);
+        try {
+            return memberKey(new InetSocketAddress(InetAddress.getByName(holder.getAddress()), holder.getPort()));
+        } catch (UnknownHostException e) {
+            return holder.getAddress() + ':' + holder.getPort();
+        }
+    }
+
+    private static String memberKey(InetSocketAddress address) {
+        return address.getAddress().getHostAddress() + ':' + address.getPort();
+    }
+
+    /**
+     * Returns the key of the member the client sends its statements to, which
+     * isn't the chosen one after a failover, or {@code null} if the client
+     * isn't connected.
+     */
+    static String connectedMember(HazelcastInstance instance) {
+        if (!(instance instanceof HazelcastClientProxy)) {
+            return null;
+        }
+        HazelcastClientInstanceImpl client = ((HazelcastClientProxy) instance).client;
+        ClientConnection connection = client == null ? null : client.getConnectionManager().getConnectionForSql();
+        InetSocketAddress remote = connection == null ? null : connection.getRemoteSocketAddress();
+        return remote == null || remote.getAddress() == null ? null : memberKey(remote);
+    }
+
+    static void started(String member) {
+        IN_FLIGHT.computeIfAbsent(member, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    static void finished(String member) {
+        IN_FLIGHT.get(member).decrementAndGet();
+    }
+}
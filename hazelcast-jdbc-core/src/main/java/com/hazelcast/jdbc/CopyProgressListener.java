@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+/**
+ * Listener of the progress of {@link HazelcastConnection#copyFrom}.
+ */
+@FunctionalInterface
+public interface CopyProgressListener {
+
+    /**
+     * Called after a batch is written.
+     *
+     * @param rowCount the number of rows written so far
+     */
+    void rowsWritten(long rowCount);
+}
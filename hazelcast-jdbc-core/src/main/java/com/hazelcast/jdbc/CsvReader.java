@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the records of a CSV input as defined by RFC 4180, as written by
+ * {@link ExportFormat#CSV}. The quoted fields may contain line breaks, and
+ * the empty fields which aren't quoted are read as {@code null}.
+ */
+final class CsvReader {
+
+    /** The value of {@code next} when no char was peeked. */
+    private static final int NONE = -2;
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private int next = NONE;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the fields of the next record, {@code null} at the end of the
+     * input.
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        while (true) {
+            boolean quoted = c == '"';
+            c = quoted ? readQuoted() : readUnquoted(c);
+            fields.add(quoted || field.length() > 0 ? field.toString() : null);
+            field.setLength(0);
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c == '\r' && peek() == '\n') {
+                read();
+            }
+            return fields;
+        }
+    }
+
+    /**
+     * Reads an unquoted field starting with the given char, returns the char
+     * following it.
+     */
+    private int readUnquoted(int first) throws IOException {
+        int c = first;
+        while (c != ',' && c != '\r' && c != '\n' && c != -1) {
+            field.append((char) c);
+            c = read();
+        }
+        return c;
+    }
+
+    /**
+     * Reads a quoted field after its opening quote, returns the char following
+     * the closing quote.
+     */
+    private int readQuoted() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw new IOException("Unterminated quoted field");
+            }
+            if (c == '"') {
+                c = read();
+                if (c != '"') {
+                    return c;
+                }
+            }
+            field.append((char) c);
+        }
+    }
+
+    private int read() throws IOException {
+        int c = next != NONE ? next : reader.read();
+        next = NONE;
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (next == NONE) {
+            next = reader.read();
+        }
+        return next;
+    }
+}
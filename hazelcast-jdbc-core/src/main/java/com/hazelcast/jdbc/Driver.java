@@ -15,6 +15,9 @@
  */
 package com.hazelcast.jdbc;
 
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.spi.annotation.PrivateApi;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -23,8 +26,10 @@ import java.sql.DriverManager;
 import java.sql.DriverPropertyInfo;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * Use {@link DriverManager#getConnection(String)} instead of directly using
@@ -37,7 +42,15 @@ public class Driver implements java.sql.Driver {
     static final int VER_MAJOR = 4;
     static final int VER_MINOR = 0;
 
+    /**
+     * The URL property referencing a running {@link HazelcastInstance} by its
+     * name. When set, the connection uses that instance instead of starting a
+     * new client.
+     */
+    static final String INSTANCE_NAME_PROPERTY = "instanceName";
+
     private static final Driver INSTANCE = new Driver();
+    private static final ConnectionConfigCache CONFIG_CACHE = new ConnectionConfigCache();
     private static boolean registered;
 
     static {
@@ -52,14 +65,24 @@ public class Driver implements java.sql.Driver {
         if (!JdbcUrl.acceptsUrl(url)) {
             return null;
         }
-        JdbcUrl jdbcUrl;
+        long start = System.nanoTime();
+        Object jfrEvent = JfrEvents.beginConnect();
+        boolean success = false;
         try {
-            jdbcUrl = new JdbcUrl(url, info);
-        } catch (IllegalArgumentException e) {
-            // convert to SQLException
-            throw new SQLException(e.getMessage(), e);
+            ConnectionConfigCache.Entry config;
+            try {
+                config = CONFIG_CACHE.resolve(url, info);
+            } catch (IllegalArgumentException e) {
+                // convert to SQLException
+                throw new SQLException(e.getMessage(), e);
+            }
+            Connection connection = createConnection(config);
+            success = true;
+            return connection;
+        } finally {
+            JdbcMetrics.getInstance().connected(System.nanoTime() - start, success);
+            JfrEvents.commitConnect(jfrEvent, url, success);
         }
-        return new JdbcConnection(new HazelcastSqlClient(jdbcUrl));
     }
 
     @Override
@@ -95,6 +118,57 @@ public class Driver implements java.sql.Driver {
         throw new SQLFeatureNotSupportedException("The driver does not use java.util.logging");
     }
 
+    private static Connection createConnection(ConnectionConfigCache.Entry config) throws SQLException {
+        JdbcUrl jdbcUrl = config.getJdbcUrl();
+        if (jdbcUrl.isEmbedded()) {
+            return new JdbcConnection(new HazelcastSqlClient(findMember(jdbcUrl.getRawAuthority()), jdbcUrl));
+        }
+        String instanceName = jdbcUrl.getProperty(INSTANCE_NAME_PROPERTY);
+        if (instanceName != null) {
+            return new JdbcConnection(new HazelcastSqlClient(findInstance(instanceName), jdbcUrl));
+        }
+        return new JdbcConnection(new HazelcastSqlClient(jdbcUrl, config.getClientConfig()));
+    }
+
+    /**
+     * Looks up a running client with the given name, then a running member.
+     */
+    private static HazelcastInstance findInstance(String instanceName) throws SQLException {
+        HazelcastInstance instance = HazelcastClient.getHazelcastClientByName(instanceName);
+        if (instance == null) {
+            instance = Hazelcast.getHazelcastInstanceByName(instanceName);
+        }
+        if (instance == null || !instance.getLifecycleService().isRunning()) {
+            throw new SQLException("No running HazelcastInstance with name '" + instanceName + "'");
+        }
+        return instance;
+    }
+
+    /**
+     * Looks up a running member in this JVM. If the name is empty, exactly
+     * one member must be running.
+     */
+    private static HazelcastInstance findMember(String instanceName) throws SQLException {
+        if (!instanceName.isEmpty()) {
+            HazelcastInstance member = Hazelcast.getHazelcastInstanceByName(instanceName);
+            if (member == null || !member.getLifecycleService().isRunning()) {
+                throw new SQLException("No running Hazelcast member with name '" + instanceName + "'");
+            }
+            return member;
+        }
+        List<HazelcastInstance> members = Hazelcast.getAllHazelcastInstances().stream()
+                .filter(member -> member.getLifecycleService().isRunning())
+                .collect(Collectors.toList());
+        if (members.isEmpty()) {
+            throw new SQLException("No Hazelcast member is running in this JVM");
+        }
+        if (members.size() > 1) {
+            throw new SQLException("Multiple Hazelcast members are running in this JVM, use "
+                    + "jdbc:hazelcast:embedded/<instanceName> to choose one");
+        }
+        return members.get(0);
+    }
+
     private static void load() {
         try {
             if (!registered) {
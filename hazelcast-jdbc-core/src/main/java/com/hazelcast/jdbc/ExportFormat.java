@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+/**
+ * The formats of {@link HazelcastStatement#exportQuery} and {@link
+ * HazelcastConnection#copyFrom}, encoded in UTF-8.
+ */
+public enum ExportFormat {
+
+    /**
+     * Comma-separated values as defined by RFC 4180: a header row with the
+     * column names, then a line per row ending with CRLF. Null values are
+     * empty fields, and the fields containing a comma, a quote or a line
+     * break are quoted.
+     */
+    CSV,
+
+    /**
+     * A JSON object per row, with the column names as keys, ending with LF.
+     * Numbers and booleans are JSON numbers and booleans, the values of the
+     * {@code JSON} type are embedded as is, and the other values are JSON
+     * strings.
+     */
+    JSON_LINES
+}
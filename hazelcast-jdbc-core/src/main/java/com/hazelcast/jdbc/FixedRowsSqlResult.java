@@ -15,12 +15,15 @@
  */
 package com.hazelcast.jdbc;
 
+import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.sql.SqlRow;
 import com.hazelcast.sql.SqlRowMetadata;
 import com.hazelcast.sql.impl.AbstractSqlResult;
 import com.hazelcast.sql.impl.QueryException;
 import com.hazelcast.sql.impl.QueryId;
 import com.hazelcast.sql.impl.ResultIterator;
+import com.hazelcast.sql.impl.SqlRowImpl;
+import com.hazelcast.sql.impl.row.JetSqlRow;
 
 import java.util.Iterator;
 import java.util.List;
@@ -41,6 +44,13 @@ public class FixedRowsSqlResult extends AbstractSqlResult {
         this.sqlRowMetadata = sqlRowMetadata;
     }
 
+    /**
+     * Creates a row with the given values, which must be already deserialized.
+     */
+    static SqlRow row(SqlRowMetadata metadata, SerializationService serializationService, Object[] values) {
+        return new SqlRowImpl(metadata, new JetSqlRow(serializationService, values));
+    }
+
     @Override
     public SqlRowMetadata getRowMetadata() {
         return this.sqlRowMetadata;
@@ -48,7 +58,7 @@ public class FixedRowsSqlResult extends AbstractSqlResult {
 
     @Override
     public long updateCount() {
-        return 0;
+        return -1;
     }
 
     @Override
@@ -18,6 +18,7 @@ package com.hazelcast.jdbc;
 import com.hazelcast.client.config.ClientConfig;
 import com.hazelcast.client.config.ClientSqlResubmissionMode;
 import com.hazelcast.client.config.ConnectionRetryConfig;
+import com.hazelcast.client.properties.ClientProperty;
 import com.hazelcast.config.SSLConfig;
 import com.hazelcast.security.UsernamePasswordCredentials;
 
@@ -36,6 +37,7 @@ class HazelcastConfigFactory {
     static {
         Map<String, BiConsumer<ClientConfig, String>> map = new HashMap<>();
         map.put("clusterName", ClientConfig::setClusterName);
+        map.put("asyncStart", (c, p) -> c.getConnectionStrategyConfig().setAsyncStart(p.equalsIgnoreCase("true")));
         gcpConfigMapping(map);
         awsConfigMapping(map);
         azureConfigMapping(map);
@@ -120,6 +122,7 @@ class HazelcastConfigFactory {
         } else {
             clientConfig.getNetworkConfig().setAddresses(url.getAuthorities());
             clientConfig.getNetworkConfig().setSmartRouting(parseBoolean(url, "smartRouting", true));
+            coordinatorConfig(url, clientConfig);
         }
 
         CONFIGURATION_MAPPING.forEach((k, v) -> {
@@ -139,6 +142,18 @@ class HazelcastConfigFactory {
         return clientConfig;
     }
 
+    private static void coordinatorConfig(JdbcUrl url, ClientConfig c) {
+        if (CoordinatorStrategy.of(url) == null) {
+            return;
+        }
+        if (parseBoolean(url, "smartRouting", false)) {
+            throw new RuntimeException(String.format("'%s' requires 'smartRouting=false'", CoordinatorStrategy.PROPERTY));
+        }
+        // the client connects to the first reachable address, which is chosen by the strategy
+        c.getNetworkConfig().setSmartRouting(false);
+        c.setProperty(ClientProperty.SHUFFLE_MEMBER_LIST.getName(), "false");
+    }
+
     private void securityConfig(JdbcUrl url, ClientConfig c) {
         String user = url.getProperty("user");
         String password = url.getProperty("password");
@@ -233,4 +248,38 @@ class HazelcastConfigFactory {
         String message = String.format("'%s' not boolean, '%s'", key, value);
         throw new RuntimeException(message);
     }
+
+    protected static long parseLong(JdbcUrl url, String key, long def) {
+        String value = url.getProperty(key);
+        if (value == null) {
+            return def;
+        }
+        long result;
+        try {
+            result = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException(String.format("'%s' not a number, '%s'", key, value), e);
+        }
+        if (result < 0) {
+            throw new RuntimeException(String.format("'%s' must not be negative, '%s'", key, value));
+        }
+        return result;
+    }
+
+    protected static double parseFraction(JdbcUrl url, String key, double def) {
+        String value = url.getProperty(key);
+        if (value == null) {
+            return def;
+        }
+        double result;
+        try {
+            result = Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException(String.format("'%s' not a number, '%s'", key, value), e);
+        }
+        if (!(result >= 0 && result <= 1)) {
+            throw new RuntimeException(String.format("'%s' must be between 0 and 1, '%s'", key, value));
+        }
+        return result;
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import java.nio.channels.ReadableByteChannel;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hazelcast-specific extensions of {@link Connection}, obtained with {@code
+ * connection.unwrap(HazelcastConnection.class)}.
+ */
+public interface HazelcastConnection extends Connection {
+
+    /**
+     * Loads the rows read from the channel into a mapping of the schema of
+     * this connection. The values are converted to the types of the mapping
+     * columns. A CSV input starts with a header row naming the columns, a JSON
+     * lines input has the column names as keys, the missing columns being
+     * null. The rows are written in batches of {@code copyBatchSize} rows, by
+     * up to {@code copyParallelism} concurrent statements, so that at most
+     * that many batches are held in memory. The load isn't atomic: if it
+     * fails, the batches written so far remain in the mapping. The channel
+     * isn't closed.
+     *
+     * @param mapping  the name of the mapping
+     * @param format   the format of the input
+     * @param channel  the channel to read from
+     * @param listener notified of the number of rows written after each batch,
+     *                 in the calling thread, or {@code null}
+     * @return the number of written rows
+     * @throws SQLException if the mapping doesn't exist, if the input is
+     *                      malformed or if writing a batch fails
+     */
+    long copyFrom(String mapping, ExportFormat format, ReadableByteChannel channel, CopyProgressListener listener)
+            throws SQLException;
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.core.HazelcastInstance;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * A {@link DataSource} creating connections on top of an existing
+ * {@link HazelcastInstance} owned by the application. The instance can be
+ * either a client or a member. The connections share the instance and don't
+ * control its lifecycle: closing a connection doesn't shut the instance down.
+ * <p>
+ * The driver properties, if given, have the same meaning as the properties in
+ * the JDBC URL. The properties configuring the client itself are ignored.
+ */
+public class HazelcastDataSource implements DataSource {
+
+    private final HazelcastInstance instance;
+    private final Properties properties;
+
+    private PrintWriter logWriter;
+    private int loginTimeout;
+
+    public HazelcastDataSource(HazelcastInstance instance) {
+        this(instance, new Properties());
+    }
+
+    public HazelcastDataSource(HazelcastInstance instance, Properties properties) {
+        this.instance = Objects.requireNonNull(instance, "instance");
+        this.properties = new Properties();
+        this.properties.putAll(properties);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!instance.getLifecycleService().isRunning()) {
+            throw new SQLException("HazelcastInstance '" + instance.getName() + "' is not running");
+        }
+        return new JdbcConnection(new HazelcastSqlClient(instance, jdbcUrl()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw JdbcUtils.unsupported("Credentials are defined by the HazelcastInstance");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("The driver does not use java.util.logging");
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) {
+        return JdbcUtils.unwrap(this, iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return JdbcUtils.isWrapperFor(this, iface);
+    }
+
+    /**
+     * Returns the instance the connections are created for.
+     */
+    public HazelcastInstance getHazelcastInstance() {
+        return instance;
+    }
+
+    private JdbcUrl jdbcUrl() {
+        try {
+            String name = URLEncoder.encode(instance.getName(), StandardCharsets.UTF_8.name());
+            return new JdbcUrl("jdbc:hazelcast://" + name + "/", properties);
+        } catch (UnsupportedEncodingException impossible) {
+            throw new RuntimeException(impossible);
+        }
+    }
+}
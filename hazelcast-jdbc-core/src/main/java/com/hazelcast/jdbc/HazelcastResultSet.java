@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.sql.SqlRow;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.stream.Stream;
+
+/**
+ * Hazelcast-specific extensions of {@link ResultSet}, obtained with {@code
+ * resultSet.unwrap(HazelcastResultSet.class)}.
+ */
+public interface HazelcastResultSet extends ResultSet {
+
+    /**
+     * Reads the next rows into the given batch, at most its capacity. The
+     * batch ends early at the end of a page of rows already fetched from the
+     * cluster, so that they can be processed while the next page is fetched.
+     * Afterwards the cursor is on the last row read.
+     *
+     * @return the number of rows read, 0 after the last row
+     */
+    int nextBatch(ColumnBatch batch) throws SQLException;
+
+    /**
+     * Returns a lazy stream of the remaining rows. The stream can be
+     * parallel: its splits take the rows already fetched from the cluster,
+     * which are processed by other threads while the next page is fetched.
+     * Closing the stream closes this result set. The cursor must not be moved
+     * while the stream is used.
+     */
+    Stream<SqlRow> stream() throws SQLException;
+
+    /**
+     * Maps the current row to an instance of the given class. The columns are
+     * matched to the names of the parameters of the public constructor with
+     * the most parameters named after the columns, available when the class
+     * is compiled with {@code -parameters}, or else to the public setters and
+     * fields of an instance created by the public no-argument constructor.
+     * The names are matched ignoring case and underscores, and the values are
+     * converted as by {@link #getObject(int, Class)}, a null value to the
+     * default value of a primitive. The mapping is bound once per class and
+     * shape of the rows.
+     */
+    <T> T mapTo(Class<T> type) throws SQLException;
+
+    /**
+     * Returns the value of a column of the current row in its serialized
+     * form, without deserializing it, {@code null} if the value is null. The
+     * values of {@code OBJECT} columns are received serialized from the
+     * cluster. The other getters return the deserialized value, so a
+     * {@code byte[]} stored in an {@code OBJECT} column is still returned as
+     * is by {@link #getBytes(int)}.
+     *
+     * @throws SQLException if the result set is closed or isn't positioned
+     *                      on a row
+     */
+    SerializedObject getSerializedObject(int columnIndex) throws SQLException;
+}
@@ -17,39 +17,545 @@ package com.hazelcast.jdbc;
 
 import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.ListenerConfig;
+import com.hazelcast.core.HazelcastException;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.LifecycleEvent;
+import com.hazelcast.core.LifecycleListener;
 import com.hazelcast.sql.SqlResult;
 import com.hazelcast.sql.SqlStatement;
 
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
 class HazelcastSqlClient {
 
-    private final HazelcastInstance client;
+    /**
+     * The URL property with the time in milliseconds after which an idle client
+     * is shut down. The client is started again by the next statement.
+     */
+    static final String IDLE_TIMEOUT_PROPERTY = "idleTimeoutMillis";
+
+    /** The routers shared by the clients with the same URL and principal, guarded by itself. */
+    private static final Map<String, SharedRouter> ROUTERS = new HashMap<>();
+
     private final JdbcUrl jdbcUrl;
 
+    /**
+     * Whether the client was started by the driver, and hence should be shut
+     * down by it. Only such clients are hibernated when idle.
+     */
+    private final boolean ownsClient;
+
+    /** The configuration used to (re)start the client, null if not owned. */
+    private final ClientConfig clientConfig;
+    private final long idleTimeoutMillis;
+    private final SlowQueryLog slowQueryLog;
+
+    /** The key of the principal of the client, null if it can't be compared, see {@link ResultCache#principalKey}. */
+    private final String principal;
+    private final ResultCache resultCache;
+    private final QueryCoalescer queryCoalescer;
+    private final ReadHedging readHedging;
+    private final AdmissionControl admissionControl;
+    private final AdmissionControl.Permit admissionPermit = new AdmissionControl.Permit();
+    private final CoordinatorStrategy coordinatorStrategy;
+
+    /** Routes the statements to the clusters listed in the URL, null if the URL names a single cluster. */
+    private final StatementRouter router;
+
+    /** Number of executions in progress and row sets not closed yet. */
+    private final AtomicInteger activeResults = new AtomicInteger();
+    private final Object mutex = new Object();
+
+    private volatile HazelcastInstance client;
+    private volatile ClientStartup startup;
+    private volatile long lastUsedNanos = System.nanoTime();
+    private volatile boolean shutdown;
+    private ScheduledFuture<?> idleCheck;
+    private LiveQueries liveQueries;
+
     HazelcastSqlClient(JdbcUrl url) {
+        this(url, new HazelcastConfigFactory().clientConfig(url));
+    }
+
+    /**
+     * Creates and starts a client using a copy of the given configuration,
+     * the configuration itself isn't modified and can be shared.
+     */
+    HazelcastSqlClient(JdbcUrl url, ClientConfig config) {
+        jdbcUrl = url;
+        clientConfig = config;
+        slowQueryLog = SlowQueryLog.create(url);
+        principal = ResultCache.principalKey(config);
+        resultCache = ResultCache.create(url, principal);
+        queryCoalescer = QueryCoalescer.create(url, principal);
+        readHedging = ReadHedging.create(url);
+        admissionControl = AdmissionControl.create(url);
+        coordinatorStrategy = CoordinatorStrategy.of(url);
+        ownsClient = true;
+        if (ShardRouter.isSharded(url) || url.getClusterAuthorities().size() > 1) {
+            // each cluster has its own client, shared by the connections
+            router = acquireRouter(principal == null ? null : routerKey(url, principal), url, config);
+            idleTimeoutMillis = 0;
+            return;
+        }
+        router = null;
+        idleTimeoutMillis = HazelcastConfigFactory.parseLong(url, IDLE_TIMEOUT_PROPERTY, 0);
+        client = startClient();
+        if (idleTimeoutMillis > 0) {
+            long period = Math.max(idleTimeoutMillis / 2, 1);
+            idleCheck = IdleMonitor.EXECUTOR.scheduleWithFixedDelay(this::hibernateIfIdle, period, period, MILLISECONDS);
+        }
+    }
+
+    /**
+     * Creates a client using an instance managed by the application. The
+     * instance can be either a client or a member, and it isn't shut down when
+     * this client is shut down.
+     */
+    HazelcastSqlClient(HazelcastInstance instance, JdbcUrl url) {
         jdbcUrl = url;
-        HazelcastConfigFactory configFactory = new HazelcastConfigFactory();
-        ClientConfig clientConfig = configFactory.clientConfig(url);
-        client = HazelcastClient.newHazelcastClient(clientConfig);
+        client = instance;
+        slowQueryLog = SlowQueryLog.create(url);
+        principal = ResultCache.principalKey(instance);
+        resultCache = ResultCache.create(url, principal);
+        queryCoalescer = QueryCoalescer.create(url, principal);
+        readHedging = ReadHedging.create(url);
+        admissionControl = AdmissionControl.create(url);
+        coordinatorStrategy = null;
+        router = null;
+        clientConfig = null;
+        idleTimeoutMillis = 0;
+        ownsClient = false;
     }
 
-    SqlResult execute(SqlStatement sqlStatement) {
-        return client.getSql().execute(sqlStatement);
+    SqlResult execute(SqlStatement sqlStatement) throws SQLException {
+        if (router != null) {
+            return router.execute(sqlStatement);
+        }
+        // the member actually connected, which isn't the chosen one after a failover
+        String address = coordinatorStrategy == null ? null : CoordinatorStrategy.connectedMember(client);
+        if (address == null) {
+            return executeOnClient(sqlStatement);
+        }
+        CoordinatorStrategy.started(address);
+        SqlResult result;
+        try {
+            result = executeOnClient(sqlStatement);
+        } catch (RuntimeException | SQLException e) {
+            CoordinatorStrategy.finished(address);
+            throw e;
+        }
+        if (!result.isRowSet()) {
+            CoordinatorStrategy.finished(address);
+            return result;
+        }
+        return new TrackedSqlResult(result, () -> CoordinatorStrategy.finished(address));
+    }
+
+    private SqlResult executeOnClient(SqlStatement sqlStatement) throws SQLException {
+        if (idleTimeoutMillis == 0) {
+            return awaitConnected(client).getSql().execute(sqlStatement);
+        }
+        HazelcastInstance instance = acquire();
+        SqlResult result;
+        try {
+            result = awaitConnected(instance).getSql().execute(sqlStatement);
+        } catch (RuntimeException | SQLException e) {
+            release();
+            throw e;
+        }
+        if (!result.isRowSet()) {
+            release();
+            return result;
+        }
+        return new TrackedSqlResult(result, this::release);
     }
 
     void shutdown() {
-        client.shutdown();
+        synchronized (mutex) {
+            boolean wasShutdown = shutdown;
+            shutdown = true;
+            closeLiveQueries();
+            if (!ownsClient) {
+                return;
+            }
+            if (router != null && !wasShutdown) {
+                releaseRouter(router);
+            }
+            if (idleCheck != null) {
+                idleCheck.cancel(false);
+            }
+            if (client != null) {
+                client.shutdown();
+            }
+        }
     }
 
+    /**
+     * Returns whether the client can execute statements: it isn't shut down,
+     * and its instance is running or hibernated while idle.
+     */
     boolean isRunning() {
-        return client.getLifecycleService().isRunning();
+        if (router != null) {
+            return router.isRunning();
+        }
+        HazelcastInstance instance = client;
+        if (instance == null) {
+            // hibernated, started again by the next statement
+            return !shutdown;
+        }
+        return instance.getLifecycleService().isRunning();
+    }
+
+    /**
+     * Returns whether the instance was shut down because the client was idle.
+     */
+    boolean isHibernated() {
+        return router == null && client == null && !shutdown;
     }
 
+    /**
+     * Returns the instance, starting it if it was hibernated.
+     */
     HazelcastInstance getClient() {
-        return client;
+        if (router != null) {
+            return router.getClient();
+        }
+        if (idleTimeoutMillis == 0 && startup == null) {
+            return client;
+        }
+        try {
+            HazelcastInstance instance = acquire();
+            release();
+            return awaitConnected(instance);
+        } catch (SQLException e) {
+            throw new HazelcastException(e.getMessage(), e);
+        }
     }
 
     JdbcUrl getJdbcUrl() {
         return jdbcUrl;
     }
+
+    /**
+     * Returns the slow statement log configured by the URL, null if disabled.
+     */
+    SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
+    /**
+     * Returns the result cache configured by the URL, null if disabled.
+     */
+    ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    /**
+     * Returns the coalescer of identical queries, null if disabled.
+     */
+    QueryCoalescer getQueryCoalescer() {
+        return queryCoalescer;
+    }
+
+    /**
+     * Returns the hedging of the queries, null if disabled.
+     */
+    ReadHedging getReadHedging() {
+        return readHedging;
+    }
+
+    /**
+     * Returns the admission control of the statements, null if disabled.
+     */
+    AdmissionControl getAdmissionControl() {
+        return admissionControl;
+    }
+
+    /**
+     * Returns the admission permit shared by the statements of the connection.
+     */
+    AdmissionControl.Permit getAdmissionPermit() {
+        return admissionPermit;
+    }
+
+    /**
+     * Returns the router of the statements to the clusters listed in the
+     * URL, null if the URL names a single cluster.
+     */
+    StatementRouter getRouter() {
+        return router;
+    }
+
+    /**
+     * Returns the live queries used by this client, shared by the connections
+     * with the same cluster and principal, acquired on first use.
+     */
+    LiveQueries getLiveQueries() throws SQLException {
+        synchronized (mutex) {
+            if (shutdown) {
+                throw new SQLException("Connection is closed");
+            }
+            if (liveQueries == null) {
+                liveQueries = LiveQueries.acquire(this, jdbcUrl, principal);
+            }
+            return liveQueries;
+        }
+    }
+
+    /**
+     * Called after a DDL statement, which may have changed the mappings read
+     * by the live queries.
+     */
+    void mappingsChanged() {
+        synchronized (mutex) {
+            if (liveQueries != null) {
+                liveQueries.mappingsChanged();
+            }
+        }
+    }
+
+    private void closeLiveQueries() {
+        if (liveQueries != null) {
+            liveQueries.release(this);
+            liveQueries = null;
+        }
+    }
+
+    /**
+     * Schedules a periodic check of the idle resources on the thread shutting
+     * down the idle clients.
+     */
+    static ScheduledFuture<?> scheduleIdleCheck(Runnable check, long periodMillis) {
+        return IdleMonitor.EXECUTOR.scheduleWithFixedDelay(check, periodMillis, periodMillis, MILLISECONDS);
+    }
+
+    /**
+     * Returns the key of the router of the URL, the same for the URLs with
+     * the same clusters and properties, other than the credentials, which are
+     * part of the principal.
+     */
+    private static String routerKey(JdbcUrl url, String principal) {
+        Map<String, String> properties = new TreeMap<>(url.getProperties());
+        properties.remove("user");
+        properties.remove("password");
+        return url.getRawAuthority() + '|' + principal + '|' + properties;
+    }
+
+    /**
+     * Returns the router shared by the clients with the given key, creating
+     * it if there's none, or a router of its own if the key is null.
+     */
+    private static StatementRouter acquireRouter(String key, JdbcUrl url, ClientConfig config) {
+        if (key == null) {
+            return newRouter(url, config);
+        }
+        synchronized (ROUTERS) {
+            SharedRouter shared = ROUTERS.get(key);
+            if (shared == null) {
+                shared = new SharedRouter(newRouter(url, config));
+                ROUTERS.put(key, shared);
+            }
+            shared.references++;
+            return shared.router;
+        }
+    }
+
+    /**
+     * Shuts down the router, unless it's shared and still used by other clients.
+     */
+    private static void releaseRouter(StatementRouter router) {
+        synchronized (ROUTERS) {
+            for (Iterator<SharedRouter> iterator = ROUTERS.values().iterator(); iterator.hasNext(); ) {
+                SharedRouter shared = iterator.next();
+                if (shared.router == router) {
+                    if (--shared.references > 0) {
+                        return;
+                    }
+                    iterator.remove();
+                    break;
+                }
+            }
+        }
+        router.shutdown();
+    }
+
+    private static StatementRouter newRouter(JdbcUrl url, ClientConfig config) {
+        return ShardRouter.isSharded(url) ? new ShardRouter(url, config) : new ClusterRouter(url, config);
+    }
+
+    private HazelcastInstance startClient() {
+        ClientConfig config = new ClientConfig(clientConfig);
+        List<String> addresses = config.getNetworkConfig().getAddresses();
+        if (coordinatorStrategy != null && !addresses.isEmpty()) {
+            config.getNetworkConfig().setAddresses(coordinatorStrategy.order(addresses));
+        }
+        Object jfrEvent = JfrEvents.beginClientStart();
+        if (config.getConnectionStrategyConfig().isAsyncStart()) {
+            // the client returns before it's connected, the statements wait for the connection
+            ClientStartup clientStartup = new ClientStartup(jfrEvent, config.getClusterName());
+            config.addListenerConfig(new ListenerConfig(clientStartup));
+            startup = clientStartup;
+            return HazelcastClient.newHazelcastClient(config);
+        }
+        boolean success = false;
+        try {
+            HazelcastInstance instance = HazelcastClient.newHazelcastClient(config);
+            success = true;
+            return instance;
+        } finally {
+            JfrEvents.commitClientStart(jfrEvent, config.getClusterName(), false, success);
+        }
+    }
+
+    private HazelcastInstance acquire() throws SQLException {
+        synchronized (mutex) {
+            if (shutdown) {
+                throw new SQLException("Connection is closed");
+            }
+            activeResults.incrementAndGet();
+            if (client == null) {
+                client = startClient();
+            }
+            return client;
+        }
+    }
+
+    private void release() {
+        lastUsedNanos = System.nanoTime();
+        activeResults.decrementAndGet();
+    }
+
+    private HazelcastInstance awaitConnected(HazelcastInstance instance) throws SQLException {
+        ClientStartup clientStartup = startup;
+        if (clientStartup != null && ownsClient) {
+            long timeoutMillis = clientConfig.getConnectionStrategyConfig()
+                    .getConnectionRetryConfig().getClusterConnectTimeoutMillis();
+            clientStartup.await(instance, timeoutMillis);
+        }
+        return instance;
+    }
+
+    private void hibernateIfIdle() {
+        synchronized (mutex) {
+            if (shutdown || client == null || activeResults.get() > 0
+                    || System.nanoTime() - lastUsedNanos < MILLISECONDS.toNanos(idleTimeoutMillis)) {
+                return;
+            }
+            HazelcastInstance instance = client;
+            closeLiveQueries();
+            client = null;
+            startup = null;
+            instance.shutdown();
+        }
+    }
+
+    /**
+     * Tracks the connection of a client started asynchronously.
+     */
+    private static final class ClientStartup implements LifecycleListener {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final Object jfrEvent;
+        private final String clusterName;
+        private volatile boolean connected;
+
+        ClientStartup(Object jfrEvent, String clusterName) {
+            this.jfrEvent = jfrEvent;
+            this.clusterName = clusterName;
+        }
+
+        @Override
+        public void stateChanged(LifecycleEvent event) {
+            switch (event.getState()) {
+                case CLIENT_CONNECTED:
+                    connected = true;
+                    complete();
+                    break;
+                case SHUTTING_DOWN:
+                case SHUTDOWN:
+                    complete();
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private synchronized void complete() {
+            if (done.getCount() > 0) {
+                JfrEvents.commitClientStart(jfrEvent, clusterName, true, connected);
+                done.countDown();
+            }
+        }
+
+        void await(HazelcastInstance instance, long timeoutMillis) throws SQLException {
+            try {
+                if (timeoutMillis < 0) {
+                    done.await();
+                } else if (!done.await(timeoutMillis, MILLISECONDS)) {
+                    throw new SQLTransientConnectionException("Client '" + instance.getName()
+                            + "' failed to connect to the cluster within " + timeoutMillis + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for the client to connect", e);
+            }
+            if (!connected) {
+                // the client is shut down, its name isn't available anymore
+                throw new SQLTransientConnectionException("Client failed to connect to the cluster '"
+                        + clusterName + "'");
+            }
+        }
+    }
+
+    /**
+     * A router with the number of clients sharing it.
+     */
+    private static final class SharedRouter {
+
+        private final StatementRouter router;
+        private int references;
+
+        SharedRouter(StatementRouter router) {
+            this.router = router;
+        }
+    }
+
+    /**
+     * Holder of the thread shutting down idle clients, created on first use.
+     */
+    private static final class IdleMonitor {
+
+        private static final ScheduledExecutorService EXECUTOR = createExecutor();
+
+        private IdleMonitor() {
+        }
+
+        private static ScheduledExecutorService createExecutor() {
+            ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "hz-jdbc-idle-monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            executor.setKeepAliveTime(1, TimeUnit.MINUTES);
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
 }
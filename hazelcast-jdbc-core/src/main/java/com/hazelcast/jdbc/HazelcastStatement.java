@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import java.nio.channels.WritableByteChannel;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Hazelcast-specific extensions of {@link Statement}, obtained with {@code
+ * statement.unwrap(HazelcastStatement.class)}.
+ */
+public interface HazelcastStatement extends Statement {
+
+    /**
+     * Enables or disables the client-side result cache for the queries
+     * executed by this statement. By default the results are cached if the
+     * connection is read-only. Has no effect if the cache isn't configured
+     * with the {@code resultCacheMaxBytes} URL property.
+     */
+    void setResultCacheEnabled(boolean enabled) throws SQLException;
+
+    /**
+     * Returns whether the results of the queries executed by this statement
+     * are cached.
+     */
+    boolean isResultCacheEnabled() throws SQLException;
+
+    /**
+     * Enables or disables live results for the queries executed by this
+     * statement. The result of a query reading a single IMap mapping is then
+     * kept in the client and reused by the following executions with the same
+     * parameters until the map changes. The client listens to the changes of
+     * the map until it isn't queried for {@code liveQueryIdleTimeoutMillis}.
+     * Disabled by default.
+     */
+    void setLiveQuery(boolean liveQuery) throws SQLException;
+
+    /**
+     * Returns whether live results are enabled for the queries executed by
+     * this statement.
+     */
+    boolean isLiveQuery() throws SQLException;
+
+    /**
+     * Sets the workload class of this statement, overriding the {@code
+     * workloadClass} client info property of the connection. The number of
+     * statements executed concurrently in each class is limited by the
+     * {@code workload.<name>.maxConcurrent} URL properties. Setting {@code
+     * null} restores the class of the connection.
+     *
+     * @throws SQLException if the class isn't configured
+     */
+    void setWorkloadClass(String workloadClass) throws SQLException;
+
+    /**
+     * Returns the workload class of this statement, {@code null} for the
+     * default class.
+     */
+    String getWorkloadClass() throws SQLException;
+
+    /**
+     * Executes a query and writes all its rows to the channel in the given
+     * format. The rows are encoded into direct buffers, written by another
+     * thread while the following rows are fetched and encoded. The channel
+     * isn't closed. The maximum number of rows of this statement applies.
+     *
+     * @return the number of exported rows
+     * @throws SQLException if the query fails, or if writing to the channel fails
+     */
+    long exportQuery(String sql, ExportFormat format, WritableByteChannel channel) throws SQLException;
+
+    /**
+     * Executes a query as several sub-queries reading disjoint parts of its
+     * rows, each one returning the rows for which the remainder of the
+     * division of the given integer column by the number of parts has a
+     * different absolute value, plus the rows with a null value for the
+     * first part. The sub-queries are executed concurrently, and their result
+     * sets can be read by different threads. The query must select the split
+     * column and must not be ordered. The result sets are closed with this
+     * statement or by its next execution.
+     * <p>
+     * The sub-queries are executed as the queries of this statement, but the
+     * query is admitted once: it takes a single permit of the admission
+     * control, if enabled, released when all the result sets are closed. The split
+     * predicate filters the rows of the query, so each sub-query executes the
+     * whole query: the parts speed up fetching the rows, but the cluster does
+     * the work of the query once per part.
+     *
+     * @param sql         the query
+     * @param splitColumn the name of the column splitting the rows, as selected
+     *                    by the query
+     * @param parts       the number of sub-queries, at most 64
+     * @return the result sets of the sub-queries
+     * @throws SQLException if a sub-query fails
+     */
+    List<ResultSet> executePartitionedQuery(String sql, String splitColumn, int parts) throws SQLException;
+
+    /**
+     * Executes a query as {@link #executePartitionedQuery}, returning the rows
+     * of all sub-queries as a single result set. Each sub-query is read by its
+     * own thread, up to 1024 rows ahead, and the rows are returned in the
+     * order they're fetched.
+     *
+     * @throws SQLException if a sub-query fails
+     */
+    ResultSet executeParallelQuery(String sql, String splitColumn, int parts) throws SQLException;
+}
@@ -17,9 +17,11 @@ package com.hazelcast.jdbc;
 
 import com.hazelcast.core.HazelcastInstance;
 
+import java.nio.channels.ReadableByteChannel;
 import java.sql.Array;
 import java.sql.Blob;
 import java.sql.CallableStatement;
+import java.sql.ClientInfoStatus;
 import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
@@ -40,7 +42,7 @@ import java.util.Properties;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-public class JdbcConnection implements Connection {
+public class JdbcConnection implements HazelcastConnection {
 
     private final HazelcastSqlClient client;
 
@@ -69,8 +71,14 @@ public class JdbcConnection implements Connection {
      */
     private SQLWarning warnings;
 
+    /**
+     * The workload class set as client info, null to use the one from the URL.
+     */
+    private String workloadClass;
+
     JdbcConnection(HazelcastSqlClient client) {
         this.client = client;
+        JdbcMetrics.getInstance().connectionOpened();
     }
 
     @Override
@@ -128,6 +136,7 @@ public class JdbcConnection implements Connection {
     public void close() {
         if (closed.compareAndSet(false, true)) {
             client.shutdown();
+            JdbcMetrics.getInstance().connectionClosed();
         }
     }
 
@@ -342,7 +351,11 @@ public class JdbcConnection implements Connection {
         if (isClosed()) {
             throw new SQLClientInfoException("Connection is closed", Collections.emptyMap());
         }
-        generateWarning("Client info is not supported.");
+        if (AdmissionControl.CLASS_PROPERTY.equals(name)) {
+            setWorkloadClass(value);
+        } else {
+            generateWarning("Client info is not supported.");
+        }
     }
 
     @Override
@@ -350,17 +363,36 @@ public class JdbcConnection implements Connection {
         if (isClosed()) {
             throw new SQLClientInfoException("Connection is closed", Collections.emptyMap());
         }
-        generateWarning("Client info is not supported.");
+        // the properties which aren't given are cleared
+        setWorkloadClass(properties.getProperty(AdmissionControl.CLASS_PROPERTY));
+        for (String name : properties.stringPropertyNames()) {
+            if (!AdmissionControl.CLASS_PROPERTY.equals(name)) {
+                generateWarning("Client info is not supported.");
+                break;
+            }
+        }
     }
 
     @Override
     public String getClientInfo(String name) {
-        return null;
+        if (!AdmissionControl.CLASS_PROPERTY.equals(name)) {
+            return null;
+        }
+        if (workloadClass != null) {
+            return workloadClass;
+        }
+        JdbcUrl url = client != null ? client.getJdbcUrl() : null;
+        return url != null ? url.getProperty(AdmissionControl.CLASS_PROPERTY) : null;
     }
 
     @Override
     public Properties getClientInfo() {
-        return new Properties();
+        Properties properties = new Properties();
+        String value = getClientInfo(AdmissionControl.CLASS_PROPERTY);
+        if (value != null) {
+            properties.setProperty(AdmissionControl.CLASS_PROPERTY, value);
+        }
+        return properties;
     }
 
     @Override
@@ -403,6 +435,13 @@ public class JdbcConnection implements Connection {
         throw JdbcUtils.unsupported("Network timeout is not supported");
     }
 
+    @Override
+    public long copyFrom(String mapping, ExportFormat format, ReadableByteChannel channel, CopyProgressListener listener)
+            throws SQLException {
+        checkClosed();
+        return new BulkLoader(client, schema, mapping).load(format, channel, listener);
+    }
+
     @Override
     public <T> T unwrap(Class<T> iface) {
         return JdbcUtils.unwrap(this, iface);
@@ -433,6 +472,19 @@ public class JdbcConnection implements Connection {
         return client.getClient();
     }
 
+    private void setWorkloadClass(String value) throws SQLClientInfoException {
+        AdmissionControl admissionControl = client != null ? client.getAdmissionControl() : null;
+        if (value != null && admissionControl != null) {
+            try {
+                admissionControl.workloadClass(value);
+            } catch (SQLException e) {
+                throw new SQLClientInfoException(e.getMessage(),
+                        Collections.singletonMap(AdmissionControl.CLASS_PROPERTY, ClientInfoStatus.REASON_VALUE_INVALID), e);
+            }
+        }
+        workloadClass = value;
+    }
+
     private void generateWarning(String reason) {
         SQLWarning currentWarning = new SQLWarning(reason);
         if (warnings != null) {
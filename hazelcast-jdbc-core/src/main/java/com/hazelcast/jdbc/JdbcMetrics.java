@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Driver-wide metrics: connection, statement and result set counts and the
+ * latencies of statement executions split by {@link SqlStatementType}. The
+ * metrics are shared by all connections in the class loader of the driver.
+ * <p>
+ * The metrics are exposed in the platform MBean server as {@value
+ * #OBJECT_NAME} and forwarded to the registered {@link JdbcMetricsListener
+ * listeners}.
+ */
+public final class JdbcMetrics implements JdbcMetricsMXBean {
+
+    /** The name of the MBean with the driver metrics. */
+    public static final String OBJECT_NAME = "com.hazelcast.jdbc:type=JdbcMetrics";
+
+    private static final ILogger LOGGER = Logger.getLogger(JdbcMetrics.class);
+    private static final JdbcMetrics INSTANCE = new JdbcMetrics();
+
+    private final List<JdbcMetricsListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<SqlStatementType, LatencyHistogram> executeLatency = new EnumMap<>(SqlStatementType.class);
+    private final LatencyHistogram connectLatency = new LatencyHistogram();
+    private final LatencyHistogram pageFetchLatency = new LatencyHistogram();
+
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder connectionFailures = new LongAdder();
+    private final LongAdder openConnections = new LongAdder();
+    private final LongAdder openStatements = new LongAdder();
+    private final LongAdder openResultSets = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder executionErrors = new LongAdder();
+    private final LongAdder rowsFetched = new LongAdder();
+    private final LongAdder pagesFetched = new LongAdder();
+
+    static {
+        INSTANCE.register();
+    }
+
+    private JdbcMetrics() {
+        for (SqlStatementType type : SqlStatementType.values()) {
+            executeLatency.put(type, new LatencyHistogram());
+        }
+        try {
+            ServiceLoader.load(JdbcMetricsListener.class, JdbcMetrics.class.getClassLoader()).forEach(listeners::add);
+        } catch (ServiceConfigurationError e) {
+            LOGGER.warning("Failed to load a " + JdbcMetricsListener.class.getName(), e);
+        }
+    }
+
+    /**
+     * Returns the metrics of the driver.
+     */
+    public static JdbcMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers a listener receiving the driver events. Listeners declared in
+     * {@code META-INF/services/com.hazelcast.jdbc.JdbcMetricsListener} are
+     * registered automatically.
+     */
+    public static void addListener(JdbcMetricsListener listener) {
+        INSTANCE.listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener added before.
+     */
+    public static void removeListener(JdbcMetricsListener listener) {
+        INSTANCE.listeners.remove(listener);
+    }
+
+    @Override
+    public long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    @Override
+    public long getConnectionFailures() {
+        return connectionFailures.sum();
+    }
+
+    @Override
+    public long getOpenConnections() {
+        return openConnections.sum();
+    }
+
+    @Override
+    public long getOpenStatements() {
+        return openStatements.sum();
+    }
+
+    @Override
+    public long getOpenResultSets() {
+        return openResultSets.sum();
+    }
+
+    @Override
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    @Override
+    public long getExecutionErrors() {
+        return executionErrors.sum();
+    }
+
+    @Override
+    public long getRowsFetched() {
+        return rowsFetched.sum();
+    }
+
+    @Override
+    public long getPagesFetched() {
+        return pagesFetched.sum();
+    }
+
+    @Override
+    public LatencySnapshot getConnectLatency() {
+        return new LatencySnapshot(connectLatency);
+    }
+
+    @Override
+    public LatencySnapshot getQueryLatency() {
+        return new LatencySnapshot(executeLatency.get(SqlStatementType.QUERY));
+    }
+
+    @Override
+    public LatencySnapshot getDmlLatency() {
+        return new LatencySnapshot(executeLatency.get(SqlStatementType.DML));
+    }
+
+    @Override
+    public LatencySnapshot getDdlLatency() {
+        return new LatencySnapshot(executeLatency.get(SqlStatementType.DDL));
+    }
+
+    @Override
+    public LatencySnapshot getOtherLatency() {
+        return new LatencySnapshot(executeLatency.get(SqlStatementType.OTHER));
+    }
+
+    @Override
+    public LatencySnapshot getPageFetchLatency() {
+        return new LatencySnapshot(pageFetchLatency);
+    }
+
+    @Override
+    public void reset() {
+        connectionsOpened.reset();
+        connectionFailures.reset();
+        executions.reset();
+        executionErrors.reset();
+        rowsFetched.reset();
+        pagesFetched.reset();
+        connectLatency.reset();
+        pageFetchLatency.reset();
+        executeLatency.values().forEach(LatencyHistogram::reset);
+    }
+
+    void connected(long durationNanos, boolean success) {
+        connectLatency.record(durationNanos);
+        if (!success) {
+            connectionFailures.increment();
+        }
+        notifyListeners(listener -> listener.onConnect(durationNanos, success));
+    }
+
+    void connectionOpened() {
+        connectionsOpened.increment();
+        openConnections.increment();
+    }
+
+    void connectionClosed() {
+        openConnections.decrement();
+        notifyListeners(JdbcMetricsListener::onConnectionClosed);
+    }
+
+    void statementOpened() {
+        openStatements.increment();
+    }
+
+    void statementClosed() {
+        openStatements.decrement();
+    }
+
+    void executed(SqlStatementType type, long durationNanos, boolean success, boolean rowSet) {
+        executeLatency.get(type).record(durationNanos);
+        executions.increment();
+        if (!success) {
+            executionErrors.increment();
+        } else if (rowSet) {
+            openResultSets.increment();
+        }
+        notifyListeners(listener -> listener.onExecute(type, durationNanos, success));
+    }
+
+    void pageFetched(long waitNanos) {
+        pageFetchLatency.record(waitNanos);
+        notifyListeners(listener -> listener.onPageFetched(waitNanos));
+    }
+
+    void resultSetClosed(SqlStatementType type, long rows, long pages) {
+        openResultSets.decrement();
+        rowsFetched.add(rows);
+        pagesFetched.add(pages);
+        notifyListeners(listener -> listener.onResultSetClosed(type, rows, pages));
+    }
+
+    private void notifyListeners(Consumer<JdbcMetricsListener> event) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        for (JdbcMetricsListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                LOGGER.warning("Metrics listener " + listener + " failed", e);
+            }
+        }
+    }
+
+    private void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException e) {
+            // e.g. the driver is loaded by several class loaders, only the first one is registered
+            LOGGER.fine("JDBC driver metrics not registered in the MBean server", e);
+        }
+    }
+}
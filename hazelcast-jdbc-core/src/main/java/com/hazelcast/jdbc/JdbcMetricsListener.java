@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+/**
+ * Receives the driver events to forward them to a metrics library, such as
+ * Micrometer or Dropwizard Metrics. Implementations are discovered with
+ * {@link java.util.ServiceLoader} or registered with {@link
+ * JdbcMetrics#addListener(JdbcMetricsListener)}.
+ * <p>
+ * The methods are called synchronously on the application threads, so they
+ * must be fast and must not block. Exceptions thrown by them are logged and
+ * ignored. All durations are in nanoseconds.
+ */
+public interface JdbcMetricsListener {
+
+    /**
+     * Called when an attempt to open a connection completes.
+     */
+    default void onConnect(long durationNanos, boolean success) {
+    }
+
+    /**
+     * Called when a connection is closed.
+     */
+    default void onConnectionClosed() {
+    }
+
+    /**
+     * Called when a statement execution completes, for queries when the first
+     * page of rows is available.
+     */
+    default void onExecute(SqlStatementType type, long durationNanos, boolean success) {
+    }
+
+    /**
+     * Called after waiting for a page of rows, other than the first one.
+     */
+    default void onPageFetched(long waitNanos) {
+    }
+
+    /**
+     * Called when a result set is closed with the number of rows returned
+     * from it and the number of pages fetched after the first one.
+     */
+    default void onResultSetClosed(SqlStatementType type, long rows, long pages) {
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+/**
+ * Management interface of the driver-wide metrics, registered in the platform
+ * MBean server as {@value JdbcMetrics#OBJECT_NAME}.
+ */
+public interface JdbcMetricsMXBean {
+
+    /** Returns the number of connections opened, including those of a {@link HazelcastDataSource}. */
+    long getConnectionsOpened();
+
+    /** Returns the number of failed attempts to open a connection. */
+    long getConnectionFailures();
+
+    /** Returns the number of connections which are open. */
+    long getOpenConnections();
+
+    /** Returns the number of statements which are open. */
+    long getOpenStatements();
+
+    /** Returns the number of result sets (cursors) which are open. */
+    long getOpenResultSets();
+
+    /** Returns the number of statements executed, including failed ones. */
+    long getExecutions();
+
+    /** Returns the number of statement executions which failed. */
+    long getExecutionErrors();
+
+    /** Returns the number of rows returned from the closed result sets. */
+    long getRowsFetched();
+
+    /** Returns the number of result pages fetched after the first one, for the closed result sets. */
+    long getPagesFetched();
+
+    /** Returns the time taken by {@link java.sql.DriverManager} to open connections, including the failed attempts. */
+    LatencySnapshot getConnectLatency();
+
+    /** Returns the execution time of {@link SqlStatementType#QUERY} statements. */
+    LatencySnapshot getQueryLatency();
+
+    /** Returns the execution time of {@link SqlStatementType#DML} statements. */
+    LatencySnapshot getDmlLatency();
+
+    /** Returns the execution time of {@link SqlStatementType#DDL} statements. */
+    LatencySnapshot getDdlLatency();
+
+    /** Returns the execution time of {@link SqlStatementType#OTHER} statements. */
+    LatencySnapshot getOtherLatency();
+
+    /** Returns the time spent waiting for result pages after the first one. */
+    LatencySnapshot getPageFetchLatency();
+
+    /** Resets the counters and histograms, the open connection, statement and result set gauges are kept. */
+    void reset();
+}
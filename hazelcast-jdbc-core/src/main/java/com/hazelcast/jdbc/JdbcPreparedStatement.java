@@ -158,17 +158,17 @@ public class JdbcPreparedStatement extends JdbcStatement implements PreparedStat
 
     @Override
     public void setDate(int parameterIndex, Date x) throws SQLException {
-        throw JdbcUtils.unsupported("Date is not supported");
+        setDate(parameterIndex, x, null);
     }
 
     @Override
     public void setTime(int parameterIndex, Time x) throws SQLException {
-        throw JdbcUtils.unsupported("Time is not supported");
+        setTime(parameterIndex, x, null);
     }
 
     @Override
     public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
-        throw JdbcUtils.unsupported("Timestamp is not supported");
+        setTimestamp(parameterIndex, x, null);
     }
 
     @Override
@@ -254,17 +254,20 @@ public class JdbcPreparedStatement extends JdbcStatement implements PreparedStat
 
     @Override
     public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
-        throw JdbcUtils.unsupported("Date not supported");
+        checkClosed();
+        setParameter(parameterIndex, TypeConverter.toLocalDate(x, cal));
     }
 
     @Override
     public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
-        throw JdbcUtils.unsupported("Time not supported");
+        checkClosed();
+        setParameter(parameterIndex, TypeConverter.toLocalTime(x, cal));
     }
 
     @Override
     public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
-        throw JdbcUtils.unsupported("Timestamp not supported");
+        checkClosed();
+        setParameter(parameterIndex, TypeConverter.toLocalDateTime(x, cal));
     }
 
     @Override
@@ -15,15 +15,22 @@
  */
 package com.hazelcast.jdbc;
 
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
 import com.hazelcast.sql.SqlResult;
 import com.hazelcast.sql.SqlRow;
 import com.hazelcast.sql.SqlRowMetadata;
+import com.hazelcast.sql.impl.ResultIterator;
+import com.hazelcast.sql.impl.ResultIterator.HasNextResult;
+import com.hazelcast.sql.impl.SqlRowImpl;
 
 import java.io.InputStream;
 import java.io.Reader;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.net.URL;
+import java.nio.channels.WritableByteChannel;
 import java.sql.Array;
 import java.sql.Blob;
 import java.sql.Clob;
@@ -43,6 +50,8 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.hazelcast.jdbc.TypeConverter.convertTo;
 import static com.hazelcast.jdbc.TypeConverter.convertToBigDecimal;
@@ -57,8 +66,9 @@ import static com.hazelcast.jdbc.TypeConverter.convertToShort;
 import static com.hazelcast.jdbc.TypeConverter.convertToString;
 import static com.hazelcast.jdbc.TypeConverter.convertToTime;
 import static com.hazelcast.jdbc.TypeConverter.convertToTimestamp;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
-public class JdbcResultSet implements ResultSet {
+public class JdbcResultSet implements HazelcastResultSet {
 
     static final JdbcResultSet EMPTY = new EmptyJdbcResultSet();
 
@@ -90,12 +100,21 @@ public class JdbcResultSet implements ResultSet {
     private final int maxRows;
     /** Number of the returned rows or -1 after all rows were returned. */
     private int rowsReturned;
+    /** The execution which returned the rows, null for rows generated by the driver. */
+    private final StatementExecution execution;
+    /** The mapper last used by {@link #mapTo}. */
+    private RowMapper<?> rowMapper;
 
 
     JdbcResultSet(SqlResult sqlResult, JdbcStatement statement) throws SQLException {
+        this(sqlResult, statement, null);
+    }
+
+    JdbcResultSet(SqlResult sqlResult, JdbcStatement statement, StatementExecution execution) throws SQLException {
         this.sqlResult = sqlResult;
         iterator = sqlResult.iterator();
         this.statement = statement;
+        this.execution = execution;
         maxRows = statement.getMaxRows();
     }
 
@@ -103,21 +122,154 @@ public class JdbcResultSet implements ResultSet {
         this.sqlResult = sqlResult;
         iterator = sqlResult.iterator();
         this.statement = null;
+        this.execution = null;
         maxRows = 0;
     }
 
     @Override
     public boolean next() throws SQLException {
         checkClosed();
-        if (iterator.hasNext() && isNextRowAvailable()) {
+        if (hasNextRow() && isNextRowAvailable()) {
             currentRow = iterator.next();
             rowsReturned++;
+            if (execution != null) {
+                execution.rowFetched();
+            }
             return true;
         }
         rowsReturned = -1;
         return false;
     }
 
+    @Override
+    public int nextBatch(ColumnBatch batch) throws SQLException {
+        checkClosed();
+        batch.start(sqlResult.getRowMetadata());
+        while (batch.size() < batch.getCapacity() && (batch.size() == 0 || isRowFetched())
+                && hasNextRow() && isNextRowAvailable()) {
+            currentRow = iterator.next();
+            rowsReturned++;
+            if (execution != null) {
+                execution.rowFetched();
+            }
+            batch.add(currentRow);
+        }
+        if (batch.size() == 0) {
+            rowsReturned = -1;
+        }
+        return batch.size();
+    }
+
+    /**
+     * Writes the remaining rows to the channel in the given format.
+     *
+     * @return the number of written rows
+     */
+    long export(ExportFormat format, WritableByteChannel channel) throws SQLException {
+        checkClosed();
+        RowExporter exporter = new RowExporter(format, sqlResult.getRowMetadata(), channel);
+        boolean finished = false;
+        try {
+            exporter.start();
+            while (next()) {
+                exporter.add(currentRow);
+            }
+            exporter.finish();
+            finished = true;
+            return exporter.getRowCount();
+        } finally {
+            if (!finished) {
+                exporter.abort();
+            }
+        }
+    }
+
+    @Override
+    public Stream<SqlRow> stream() throws SQLException {
+        checkClosed();
+        return StreamSupport.stream(new RowSpliterator(this), false).onClose(() -> {
+            try {
+                close();
+            } catch (SQLException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T mapTo(Class<T> type) throws SQLException {
+        checkClosed();
+        if (currentRow == null) {
+            throw new SQLException("The result set isn't positioned on a row");
+        }
+        RowMapper<?> mapper = rowMapper;
+        if (mapper == null || mapper.getType() != type) {
+            mapper = RowMapper.of(type, sqlResult.getRowMetadata());
+            rowMapper = mapper;
+        }
+        return (T) mapper.map(currentRow);
+    }
+
+    @Override
+    public SerializedObject getSerializedObject(int columnIndex) throws SQLException {
+        checkColumn(columnIndex);
+        if (currentRow == null) {
+            throw new SQLException("The result set isn't positioned on a row");
+        }
+        // the values of the rows received from the cluster are deserialized only when read
+        Object value = currentRow instanceof SqlRowImpl
+                ? ((SqlRowImpl) currentRow).getObjectRaw(columnIndex - 1)
+                : currentRow.getObject(columnIndex - 1);
+        wasNull = value == null;
+        if (value == null) {
+            return null;
+        }
+        InternalSerializationService serializationService = serializationService();
+        Data data = value instanceof Data ? (Data) value : serializationService.toData(value);
+        return new SerializedObject(data, serializationService);
+    }
+
+    /**
+     * Returns the serialization service of the client, or a default one for
+     * the rows not received from a cluster.
+     */
+    private InternalSerializationService serializationService() {
+        InternalSerializationService serializationService = statement == null
+                ? null
+                : statement.getSerializationService();
+        return serializationService != null ? serializationService : DefaultSerialization.SERVICE;
+    }
+
+    SqlRow getCurrentRow() {
+        return currentRow;
+    }
+
+    /**
+     * Returns whether the next row is available without waiting for a page.
+     */
+    @SuppressWarnings("unchecked")
+    boolean isRowFetched() {
+        return !(iterator instanceof ResultIterator)
+                || ((ResultIterator<SqlRow>) iterator).hasNext(0, NANOSECONDS) != HasNextResult.TIMEOUT;
+    }
+
+    /**
+     * Checks for the next row. If the current page is exhausted, the time
+     * spent waiting for the next one is reported to the execution.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean hasNextRow() {
+        if (execution == null || !(iterator instanceof ResultIterator)
+                || ((ResultIterator<SqlRow>) iterator).hasNext(0, NANOSECONDS) != HasNextResult.TIMEOUT) {
+            return iterator.hasNext();
+        }
+        execution.pageFetchStarted();
+        boolean hasNext = iterator.hasNext();
+        execution.pageFetched();
+        return hasNext;
+    }
+
     private boolean isNextRowAvailable() {
         return (maxRows == 0 || rowsReturned < maxRows) && rowsReturned != -1;
     }
@@ -129,6 +281,9 @@ public class JdbcResultSet implements ResultSet {
                 return;
             }
             closing = true;
+            if (execution != null) {
+                execution.closed();
+            }
             sqlResult.close();
             statement.tryCloseOnCompletion();
             closed = true;
@@ -789,32 +944,32 @@ public class JdbcResultSet implements ResultSet {
 
     @Override
     public Date getDate(int columnIndex, Calendar cal) throws SQLException {
-        throw JdbcUtils.unsupported("Date is not supported");
+        return convertToDate(get(columnIndex), sqlResult.getRowMetadata().getColumn(columnIndex - 1).getType(), cal);
     }
 
     @Override
     public Date getDate(String columnLabel, Calendar cal) throws SQLException {
-        throw JdbcUtils.unsupported("Date is not supported");
+        return getDate(findColumn(columnLabel) + 1, cal);
     }
 
     @Override
     public Time getTime(int columnIndex, Calendar cal) throws SQLException {
-        throw JdbcUtils.unsupported("Time is not supported");
+        return convertToTime(get(columnIndex), sqlResult.getRowMetadata().getColumn(columnIndex - 1).getType(), cal);
     }
 
     @Override
     public Time getTime(String columnLabel, Calendar cal) throws SQLException {
-        throw JdbcUtils.unsupported("Time is not supported");
+        return getTime(findColumn(columnLabel) + 1, cal);
     }
 
     @Override
     public Timestamp getTimestamp(int columnIndex, Calendar cal) throws SQLException {
-        throw JdbcUtils.unsupported("Timestamp is not supported");
+        return convertToTimestamp(get(columnIndex), sqlResult.getRowMetadata().getColumn(columnIndex - 1).getType(), cal);
     }
 
     @Override
     public Timestamp getTimestamp(String columnLabel, Calendar cal) throws SQLException {
-        throw JdbcUtils.unsupported("Timestamp is not supported");
+        return getTimestamp(findColumn(columnLabel) + 1, cal);
     }
 
     @Override
@@ -1135,11 +1290,15 @@ public class JdbcResultSet implements ResultSet {
     }
 
     private <T> T get(int columnIndex) throws SQLException {
+        checkColumn(columnIndex);
+        return getByIndex(columnIndex - 1);
+    }
+
+    private void checkColumn(int columnIndex) throws SQLException {
         checkClosed();
         if (sqlResult.getRowMetadata().getColumnCount() < columnIndex) {
             throw new SQLException("ResultSet does not contain column with index " + columnIndex);
         }
-        return getByIndex(columnIndex - 1);
     }
 
     private <T> T getByIndex(int columnIndex) {
@@ -1183,4 +1342,16 @@ public class JdbcResultSet implements ResultSet {
             throw JdbcUtils.unsupported("ResultSet.getMetaData not supported in this result");
         }
     }
+
+    /**
+     * Holder of the serialization service of the rows not received from a
+     * cluster, created on first use.
+     */
+    private static final class DefaultSerialization {
+
+        private static final InternalSerializationService SERVICE = new DefaultSerializationServiceBuilder().build();
+
+        private DefaultSerialization() {
+        }
+    }
 }
@@ -15,23 +15,31 @@
  */
 package com.hazelcast.jdbc;
 
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.spi.impl.SerializationServiceSupport;
 import com.hazelcast.sql.HazelcastSqlException;
 import com.hazelcast.sql.SqlExpectedResultType;
 import com.hazelcast.sql.SqlResult;
 import com.hazelcast.sql.SqlStatement;
 
+import java.nio.channels.WritableByteChannel;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLWarning;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 
-public class JdbcStatement implements Statement {
+public class JdbcStatement implements HazelcastStatement {
 
     /**
      * Current result as an update count.
@@ -42,6 +50,9 @@ public class JdbcStatement implements Statement {
     /** Current result as a result set */
     ResultSet resultSet;
 
+    /** The result sets of the last partitioned query, null if none */
+    private List<ResultSet> partResultSets;
+
     /** Query timeout in seconds. */
     private int queryTimeout;
 
@@ -63,6 +74,15 @@ public class JdbcStatement implements Statement {
     /** Result set max rows */
     private int maxRows;
 
+    /** Whether the results are cached, null to cache them if the connection is read-only. */
+    private Boolean resultCacheEnabled;
+
+    /** Whether the results are kept until the queried map changes. */
+    private boolean liveQuery;
+
+    /** The workload class of the statement, null to use the one of the connection. */
+    private String workloadClass;
+
     private final HazelcastSqlClient client;
     private final Connection connection;
     private final String schema;
@@ -71,6 +91,9 @@ public class JdbcStatement implements Statement {
         this.client = client;
         this.connection = connection;
         schema = connection.getSchema();
+        if (client != null) {
+            JdbcMetrics.getInstance().statementOpened();
+        }
     }
 
     @Override
@@ -96,6 +119,9 @@ public class JdbcStatement implements Statement {
         if (!isClosed()) {
             closeResultSet();
             closed = true;
+            if (client != null) {
+                JdbcMetrics.getInstance().statementClosed();
+            }
         }
     }
 
@@ -269,6 +295,17 @@ public class JdbcStatement implements Statement {
         throw unsupportedBatch();
     }
 
+    /**
+     * Returns the serialization service of the client, {@code null} if the
+     * statement has no client.
+     */
+    InternalSerializationService getSerializationService() {
+        HazelcastInstance instance = client == null ? null : client.getClient();
+        return instance instanceof SerializationServiceSupport
+                ? (InternalSerializationService) ((SerializationServiceSupport) instance).getSerializationService()
+                : null;
+    }
+
     @Override
     public Connection getConnection() throws SQLException {
         checkClosed();
@@ -398,7 +435,138 @@ public class JdbcStatement implements Statement {
 
     void doExecute(String sql, List<Object> parameters, SqlExpectedResultType expectedResult) throws SQLException {
         checkClosed();
+        // releases the admission permit and the tracking of the previous result
+        closePreviousResults();
+        if (ClientTables.isClientTableStatement(sql)) {
+            executeClientTable(sql, expectedResult);
+            return;
+        }
+
+        SqlStatement query = sqlStatement(sql, parameters, expectedResult);
+        StatementExecution execution = new StatementExecution(sql, schema, parameters, client.getSlowQueryLog());
+        try {
+            SqlResult sqlResult = admitted(query, parameters, execution.getType());
+            if (sqlResult.isRowSet()) {
+                execution.executed(true, -1);
+                resultSet = new JdbcResultSet(sqlResult, this, execution);
+                updateCount = -1;
+            } else {
+                updateCount = sqlResult.updateCount();
+                execution.executed(false, updateCount);
+            }
+        } catch (HazelcastSqlException e) {
+            execution.failed();
+            throw new SQLException(e.getMessage(), e);
+        } catch (SQLException | RuntimeException e) {
+            execution.failed();
+            throw e;
+        }
+    }
+
+    @Override
+    public void setResultCacheEnabled(boolean enabled) throws SQLException {
+        checkClosed();
+        resultCacheEnabled = enabled;
+    }
+
+    @Override
+    public boolean isResultCacheEnabled() throws SQLException {
+        checkClosed();
+        if (client == null || client.getResultCache() == null) {
+            return false;
+        }
+        return resultCacheEnabled != null ? resultCacheEnabled : connection.isReadOnly();
+    }
+
+    @Override
+    public void setLiveQuery(boolean liveQuery) throws SQLException {
+        checkClosed();
+        if (liveQuery && client == null) {
+            throw JdbcUtils.unsupported("Live queries are not supported by this statement");
+        }
+        this.liveQuery = liveQuery;
+    }
+
+    @Override
+    public boolean isLiveQuery() throws SQLException {
+        checkClosed();
+        return liveQuery;
+    }
+
+    /**
+     * Executes the statement once admitted by the admission control, if
+     * enabled. The permit is held until the result set is closed.
+     */
+    private SqlResult admitted(SqlStatement query, List<Object> parameters, SqlStatementType type) throws SQLException {
+        Runnable release = admit();
+        SqlResult result;
+        try {
+            result = execute(query, parameters, type);
+        } catch (SQLException | RuntimeException e) {
+            release.run();
+            throw e;
+        }
+        if (!result.isRowSet()) {
+            release.run();
+            return result;
+        }
+        return new TrackedSqlResult(result, release);
+    }
+
+    /**
+     * Waits for a permit of the admission control, if enabled, and returns
+     * the action releasing it, which has no effect after the first run.
+     */
+    private Runnable admit() throws SQLException {
+        AdmissionControl admissionControl = client.getAdmissionControl();
+        if (admissionControl == null) {
+            return () -> { };
+        }
+        AdmissionControl.Permit permit = client.getAdmissionPermit();
+        admissionControl.acquire(permit, admissionControl.workloadClass(getWorkloadClass()));
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                admissionControl.release(permit);
+            }
+        };
+    }
+
+    private SqlResult execute(SqlStatement query, List<Object> parameters, SqlStatementType type) throws SQLException {
+        if (type != SqlStatementType.QUERY) {
+            try {
+                return client.execute(query);
+            } finally {
+                // also after failures, a DML statement may have partially completed
+                ResultCache.invalidate(client.getJdbcUrl(), query.getSql(), type);
+                if (type == SqlStatementType.DDL) {
+                    client.mappingsChanged();
+                }
+            }
+        }
+        if (liveQuery) {
+            return client.getLiveQueries().execute(client, query, schema, parameters);
+        }
+        QueryCoalescer coalescer = client.getQueryCoalescer();
+        boolean cacheEnabled = isResultCacheEnabled();
+        if (!cacheEnabled && coalescer == null) {
+            return ReadHedging.executeRead(client, query);
+        }
+        ResultCache.Key key = new ResultCache.Key(query.getSql(), schema, parameters);
+        if (!cacheEnabled) {
+            return coalescer.execute(client, query, key);
+        }
+        ResultCache cache = client.getResultCache();
+        SqlResult cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = cache.generation();
+        SqlResult result = coalescer != null ? coalescer.execute(client, query, key) : ReadHedging.executeRead(client, query);
+        return cache.caching(key, generation, result);
+    }
 
+    private SqlStatement sqlStatement(String sql, List<Object> parameters, SqlExpectedResultType expectedResult) {
         SqlStatement query = new SqlStatement(sql)
                 .setParameters(parameters)
                 .setExpectedResultType(expectedResult)
@@ -409,17 +577,140 @@ public class JdbcStatement implements Statement {
         if (fetchSize != 0) {
             query.setCursorBufferSize(fetchSize);
         }
+        return query;
+    }
+
+    @Override
+    public List<ResultSet> executePartitionedQuery(String sql, String splitColumn, int parts) throws SQLException {
+        List<StatementExecution> executions = new ArrayList<>(parts);
+        List<SqlResult> results = executeParts(sql, splitColumn, parts, executions);
+        List<ResultSet> resultSets = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            resultSets.add(new JdbcResultSet(results.get(i), this, executions.get(i)));
+        }
+        partResultSets = resultSets;
+        return Collections.unmodifiableList(resultSets);
+    }
+
+    @Override
+    public ResultSet executeParallelQuery(String sql, String splitColumn, int parts) throws SQLException {
+        checkClosed();
+        StatementExecution execution = new StatementExecution(sql, schema, Collections.emptyList(),
+                client.getSlowQueryLog());
+        List<SqlResult> results;
         try {
-            SqlResult sqlResult = client.execute(query);
-            if (sqlResult.isRowSet()) {
-                resultSet = new JdbcResultSet(sqlResult, this);
-                updateCount = -1;
-            } else {
-                updateCount = sqlResult.updateCount();
-                closeResultSet();
+            results = executeParts(sql, splitColumn, parts, null);
+        } catch (SQLException | RuntimeException e) {
+            execution.failed();
+            throw e;
+        }
+        execution.executed(true, -1);
+        resultSet = new JdbcResultSet(PartitionedScan.interleave(results), this, execution);
+        return resultSet;
+    }
+
+    /**
+     * Executes the sub-queries of the query as the queries of this statement,
+     * admitted once for all of them: the permit is released when all their
+     * results are closed. If the executions list is given, each sub-query is
+     * tracked by its own execution, added to the list.
+     */
+    private List<SqlResult> executeParts(String sql, String splitColumn, int parts,
+                                         List<StatementExecution> executions) throws SQLException {
+        checkClosed();
+        closePreviousResults();
+        updateCount = -1;
+        List<String> subQueries = PartitionedScan.subQueries(sql, splitColumn, parts);
+        Runnable release = admit();
+        AtomicInteger open = new AtomicInteger(subQueries.size());
+        Runnable partClosed = () -> {
+            if (open.decrementAndGet() == 0) {
+                release.run();
             }
+        };
+        List<Callable<SqlResult>> tasks = new ArrayList<>(parts);
+        for (String subQuery : subQueries) {
+            SqlStatement query = sqlStatement(subQuery, Collections.emptyList(), SqlExpectedResultType.ROWS);
+            StatementExecution execution = executions == null ? null : new StatementExecution(subQuery, schema,
+                    Collections.emptyList(), client.getSlowQueryLog());
+            if (executions != null) {
+                executions.add(execution);
+            }
+            tasks.add(() -> executePart(query, execution, partClosed));
+        }
+        try {
+            return PartitionedScan.execute(tasks);
         } catch (HazelcastSqlException e) {
+            release.run();
             throw new SQLException(e.getMessage(), e);
+        } catch (SQLException | RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+
+    private SqlResult executePart(SqlStatement query, StatementExecution execution, Runnable partClosed)
+            throws SQLException {
+        SqlResult result;
+        try {
+            result = execute(query, Collections.emptyList(), SqlStatementType.QUERY);
+        } catch (SQLException | RuntimeException e) {
+            if (execution != null) {
+                execution.failed();
+            }
+            throw e;
+        }
+        if (execution == null) {
+            return new TrackedSqlResult(result, partClosed);
+        }
+        execution.executed(true, -1);
+        // reports the execution also if the result is closed after another sub-query failed
+        return new TrackedSqlResult(result, () -> {
+            execution.closed();
+            partClosed.run();
+        });
+    }
+
+    @Override
+    public long exportQuery(String sql, ExportFormat format, WritableByteChannel channel) throws SQLException {
+        executeQuery(sql);
+        try {
+            return ((JdbcResultSet) resultSet).export(format, channel);
+        } finally {
+            closeResultSet();
+        }
+    }
+
+    @Override
+    public void setWorkloadClass(String workloadClass) throws SQLException {
+        checkClosed();
+        AdmissionControl admissionControl = client != null ? client.getAdmissionControl() : null;
+        if (workloadClass != null && admissionControl != null) {
+            admissionControl.workloadClass(workloadClass);
+        }
+        this.workloadClass = workloadClass;
+    }
+
+    @Override
+    public String getWorkloadClass() throws SQLException {
+        checkClosed();
+        return workloadClass != null ? workloadClass : connection.getClientInfo(AdmissionControl.CLASS_PROPERTY);
+    }
+
+    private void executeClientTable(String sql, SqlExpectedResultType expectedResult) throws SQLException {
+        SqlResult sqlResult = ClientTables.execute(sql, StatementStats.getInstance());
+        boolean rowSet = sqlResult.isRowSet();
+        if (rowSet && expectedResult == SqlExpectedResultType.UPDATE_COUNT) {
+            throw new SQLException("The statement doesn't produce update count");
+        }
+        if (!rowSet && expectedResult == SqlExpectedResultType.ROWS) {
+            throw new SQLException("The statement doesn't produce rows");
+        }
+        if (rowSet) {
+            resultSet = new JdbcResultSet(sqlResult, this);
+            updateCount = -1;
+        } else {
+            updateCount = sqlResult.updateCount();
         }
     }
 
@@ -437,10 +728,30 @@ public class JdbcStatement implements Statement {
         return JdbcUtils.unsupported("Auto-generated keys are not supported.");
     }
 
+    /**
+     * Closes the results of the previous execution, without closing the
+     * statement if it's closed on completion, since it's executed again.
+     */
+    private void closePreviousResults() throws SQLException {
+        boolean onCompletion = closeOnCompletion;
+        closeOnCompletion = false;
+        try {
+            closeResultSet();
+        } finally {
+            closeOnCompletion = onCompletion;
+        }
+    }
+
     private void closeResultSet() throws SQLException {
         if (resultSet != null) {
             resultSet.close();
             resultSet = null;
         }
+        if (partResultSets != null) {
+            for (ResultSet partResultSet : partResultSets) {
+                partResultSet.close();
+            }
+            partResultSets = null;
+        }
     }
 }
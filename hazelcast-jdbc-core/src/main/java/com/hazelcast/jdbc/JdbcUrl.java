@@ -18,7 +18,9 @@ package com.hazelcast.jdbc;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -31,21 +33,31 @@ final class JdbcUrl {
     private static final Pattern JDBC_URL_PATTERN = Pattern.compile(PREFIX + "//"
             + "(?<authority>\\S+?)/?"
             + "(\\?(?<parameters>\\S*))?");
+    private static final Pattern EMBEDDED_URL_PATTERN = Pattern.compile(PREFIX + "embedded"
+            + "(/(?<authority>[^/?\\s]*)/?)?"
+            + "(\\?(?<parameters>\\S*))?");
 
-    private final List<String> authorities;
+    private final List<List<String>> clusterAuthorities;
     private final String rawUrl;
     private final Properties properties = new Properties();
     private final String rawAuthority;
+    private final boolean embedded;
 
     JdbcUrl(String url, Properties properties) {
-        Matcher matcher = JDBC_URL_PATTERN.matcher(url);
-        if (!matcher.matches()) {
-            throw new IllegalArgumentException("The URL doesn't match the structure - "
-                    + "jdbc:hazelcast://host:port[,host2:port...]/[?prop1=value1&...]");
+        Matcher matcher = EMBEDDED_URL_PATTERN.matcher(url);
+        embedded = matcher.matches();
+        if (!embedded) {
+            matcher = JDBC_URL_PATTERN.matcher(url);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("The URL doesn't match the structure - "
+                        + "jdbc:hazelcast://host:port[,host2:port...]/[?prop1=value1&...] or "
+                        + "jdbc:hazelcast:embedded[/instanceName][?prop1=value1&...]");
+            }
         }
 
-        this.rawAuthority = decodeUrl(matcher.group("authority"));
-        this.authorities = Arrays.asList(rawAuthority.split(","));
+        String authority = matcher.group("authority");
+        this.rawAuthority = authority == null ? "" : decodeUrl(authority);
+        this.clusterAuthorities = parseClusterAuthorities(rawAuthority, embedded);
         this.rawUrl = url;
 
         if (properties != null) {
@@ -64,8 +76,20 @@ final class JdbcUrl {
         }
     }
 
+    /**
+     * Returns the addresses of the first cluster.
+     */
     public List<String> getAuthorities() {
-        return authorities;
+        return clusterAuthorities.get(0);
+    }
+
+    /**
+     * Returns the addresses of each cluster, in the order of the URL. The
+     * clusters are separated by {@code ;} in the authority, e.g. {@code
+     * jdbc:hazelcast://a1:5701,a2:5701;b1:5701/}.
+     */
+    public List<List<String>> getClusterAuthorities() {
+        return clusterAuthorities;
     }
 
     public String getProperty(String key) {
@@ -84,6 +108,30 @@ final class JdbcUrl {
         return rawAuthority;
     }
 
+    /**
+     * Returns whether the URL has the {@code jdbc:hazelcast:embedded} form,
+     * that is it refers to a member running in this JVM. For such URLs the
+     * authority is the optional name of the member.
+     */
+    public boolean isEmbedded() {
+        return embedded;
+    }
+
+    private static List<List<String>> parseClusterAuthorities(String rawAuthority, boolean embedded) {
+        if (rawAuthority.isEmpty()) {
+            return Collections.singletonList(Collections.emptyList());
+        }
+        if (embedded) {
+            // the authority of an embedded URL is the instance name
+            return Collections.singletonList(Collections.singletonList(rawAuthority));
+        }
+        List<List<String>> clusters = new ArrayList<>();
+        for (String cluster : rawAuthority.split(";")) {
+            clusters.add(Arrays.asList(cluster.split(",")));
+        }
+        return Collections.unmodifiableList(clusters);
+    }
+
     static boolean acceptsUrl(String url) {
         return url.startsWith(PREFIX);
     }
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The Flight Recorder event types of the driver. Only used through {@link
+ * JfrEvents} after it checked that the {@code jdk.jfr} API is available.
+ */
+final class JfrEventTypes {
+
+    private static final String CATEGORY_HAZELCAST = "Hazelcast";
+    private static final String CATEGORY_JDBC = "JDBC";
+
+    private JfrEventTypes() {
+    }
+
+    static Object beginExecute() {
+        return begin(new ExecuteEvent());
+    }
+
+    static Object beginPageFetch() {
+        return begin(new PageFetchEvent());
+    }
+
+    static Object beginResultSet() {
+        return begin(new ResultSetEvent());
+    }
+
+    static Object beginConnect() {
+        return begin(new ConnectEvent());
+    }
+
+    static Object beginClientStart() {
+        return begin(new ClientStartEvent());
+    }
+
+    static void commitExecute(Object e, StatementExecution execution, boolean success, long updateCount) {
+        ExecuteEvent event = (ExecuteEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.fingerprint = SqlFingerprint.of(execution.getSql());
+            event.schema = execution.getSchema();
+            event.statementType = execution.getType().name();
+            event.success = success;
+            event.updateCount = updateCount;
+            event.commit();
+        }
+    }
+
+    static void commitPageFetch(Object e, StatementExecution execution, long page, long rows) {
+        PageFetchEvent event = (PageFetchEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.fingerprint = SqlFingerprint.of(execution.getSql());
+            event.page = page;
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+    static void commitResultSet(Object e, StatementExecution execution, long rows, long pages) {
+        ResultSetEvent event = (ResultSetEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.fingerprint = SqlFingerprint.of(execution.getSql());
+            event.schema = execution.getSchema();
+            event.rows = rows;
+            event.pages = pages;
+            event.commit();
+        }
+    }
+
+    static void commitConnect(Object e, String url, boolean success) {
+        ConnectEvent event = (ConnectEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            // the parameters may contain credentials
+            int parametersStart = url.indexOf('?');
+            event.url = parametersStart < 0 ? url : url.substring(0, parametersStart);
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    static void commitClientStart(Object e, String clusterName, boolean asyncStart, boolean success) {
+        ClientStartEvent event = (ClientStartEvent) e;
+        event.end();
+        if (event.shouldCommit()) {
+            event.clusterName = clusterName;
+            event.asyncStart = asyncStart;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    private static Object begin(Event event) {
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Name("com.hazelcast.jdbc.StatementExecute")
+    @Label("JDBC Statement Execute")
+    @Category({CATEGORY_HAZELCAST, CATEGORY_JDBC})
+    @Description("Execution of a statement until the update count or the first page of rows is received")
+    static final class ExecuteEvent extends Event {
+        @Label("SQL Fingerprint")
+        String fingerprint;
+        @Label("Schema")
+        String schema;
+        @Label("Statement Type")
+        String statementType;
+        @Label("Success")
+        boolean success;
+        @Label("Update Count")
+        long updateCount;
+    }
+
+    @Name("com.hazelcast.jdbc.PageFetch")
+    @Label("JDBC Page Fetch")
+    @Category({CATEGORY_HAZELCAST, CATEGORY_JDBC})
+    @Description("Wait for a page of rows after the first one")
+    static final class PageFetchEvent extends Event {
+        @Label("SQL Fingerprint")
+        String fingerprint;
+        @Label("Page")
+        long page;
+        @Label("Rows Before")
+        long rows;
+    }
+
+    @Name("com.hazelcast.jdbc.ResultSet")
+    @Label("JDBC Result Set")
+    @Category({CATEGORY_HAZELCAST, CATEGORY_JDBC})
+    @Description("Result set from the end of the execution until it's closed")
+    @StackTrace(false)
+    static final class ResultSetEvent extends Event {
+        @Label("SQL Fingerprint")
+        String fingerprint;
+        @Label("Schema")
+        String schema;
+        @Label("Rows")
+        long rows;
+        @Label("Pages Fetched")
+        long pages;
+    }
+
+    @Name("com.hazelcast.jdbc.Connect")
+    @Label("JDBC Connect")
+    @Category({CATEGORY_HAZELCAST, CATEGORY_JDBC})
+    @Description("Opening of a connection by the driver")
+    static final class ConnectEvent extends Event {
+        @Label("URL")
+        String url;
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("com.hazelcast.jdbc.ClientStart")
+    @Label("JDBC Client Start")
+    @Category({CATEGORY_HAZELCAST, CATEGORY_JDBC})
+    @Description("Start of a Hazelcast client until it's connected to the cluster")
+    @StackTrace(false)
+    static final class ClientStartEvent extends Event {
+        @Label("Cluster Name")
+        String clusterName;
+        @Label("Async Start")
+        boolean asyncStart;
+        @Label("Success")
+        boolean success;
+    }
+}
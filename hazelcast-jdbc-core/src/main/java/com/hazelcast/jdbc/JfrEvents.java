@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+/**
+ * Emits the driver events to Java Flight Recorder. The {@code begin} methods
+ * return {@code null} if the JVM has no Flight Recorder or the event isn't
+ * enabled in the running recordings, and the {@code commit} methods ignore
+ * {@code null} events, so disabled events cost an allocation and a flag
+ * check. The event attributes, such as the SQL fingerprint, are computed
+ * only for the events which are recorded.
+ * <p>
+ * This class doesn't reference the {@code jdk.jfr} API itself so that it can
+ * be loaded on JVMs without it, see {@link JfrEventTypes}.
+ */
+final class JfrEvents {
+
+    static final boolean AVAILABLE = isAvailable();
+
+    private JfrEvents() {
+    }
+
+    static Object beginExecute() {
+        return AVAILABLE ? JfrEventTypes.beginExecute() : null;
+    }
+
+    static void commitExecute(Object event, StatementExecution execution, boolean success, long updateCount) {
+        if (event != null) {
+            JfrEventTypes.commitExecute(event, execution, success, updateCount);
+        }
+    }
+
+    static Object beginPageFetch() {
+        return AVAILABLE ? JfrEventTypes.beginPageFetch() : null;
+    }
+
+    static void commitPageFetch(Object event, StatementExecution execution, long page, long rows) {
+        if (event != null) {
+            JfrEventTypes.commitPageFetch(event, execution, page, rows);
+        }
+    }
+
+    static Object beginResultSet() {
+        return AVAILABLE ? JfrEventTypes.beginResultSet() : null;
+    }
+
+    static void commitResultSet(Object event, StatementExecution execution, long rows, long pages) {
+        if (event != null) {
+            JfrEventTypes.commitResultSet(event, execution, rows, pages);
+        }
+    }
+
+    static Object beginConnect() {
+        return AVAILABLE ? JfrEventTypes.beginConnect() : null;
+    }
+
+    static void commitConnect(Object event, String url, boolean success) {
+        if (event != null) {
+            JfrEventTypes.commitConnect(event, url, success);
+        }
+    }
+
+    static Object beginClientStart() {
+        return AVAILABLE ? JfrEventTypes.beginClientStart() : null;
+    }
+
+    static void commitClientStart(Object event, String clusterName, boolean asyncStart, boolean success) {
+        if (event != null) {
+            JfrEventTypes.commitClientStart(event, clusterName, asyncStart, success);
+        }
+    }
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, JfrEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
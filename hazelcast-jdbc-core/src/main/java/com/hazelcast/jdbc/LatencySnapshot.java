@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+/**
+ * Point-in-time view of a latency histogram kept by {@link JdbcMetrics}. All
+ * durations are in milliseconds, percentiles are accurate within a factor of
+ * two.
+ */
+public final class LatencySnapshot {
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+    private static final double P50 = 0.5;
+    private static final double P99 = 0.99;
+
+    private final long count;
+    private final double totalMillis;
+    private final double p50Millis;
+    private final double p99Millis;
+    private final double maxMillis;
+
+    LatencySnapshot(LatencyHistogram histogram) {
+        count = histogram.getCount();
+        totalMillis = histogram.getTotalNanos() / NANOS_PER_MILLI;
+        p50Millis = histogram.percentileNanos(P50) / NANOS_PER_MILLI;
+        p99Millis = histogram.percentileNanos(P99) / NANOS_PER_MILLI;
+        maxMillis = histogram.getMaxNanos() / NANOS_PER_MILLI;
+    }
+
+    /** Returns the number of recorded durations. */
+    public long getCount() {
+        return count;
+    }
+
+    /** Returns the sum of the recorded durations. */
+    public double getTotalMillis() {
+        return totalMillis;
+    }
+
+    /** Returns the mean duration, 0 if nothing was recorded. */
+    public double getMeanMillis() {
+        return count == 0 ? 0 : totalMillis / count;
+    }
+
+    /** Returns the estimated median duration. */
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    /** Returns the estimated 99th percentile of the durations. */
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    /** Returns the longest recorded duration. */
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencySnapshot{count=" + count + ", totalMillis=" + totalMillis + ", p50Millis=" + p50Millis
+                + ", p99Millis=" + p99Millis + ", maxMillis=" + maxMillis + '}';
+    }
+}
@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.LifecycleEvent;
+import com.hazelcast.core.LifecycleListener;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.map.MapEvent;
+import com.hazelcast.map.listener.EntryAddedListener;
+import com.hazelcast.map.listener.EntryEvictedListener;
+import com.hazelcast.map.listener.EntryExpiredListener;
+import com.hazelcast.map.listener.EntryRemovedListener;
+import com.hazelcast.map.listener.EntryUpdatedListener;
+import com.hazelcast.map.listener.MapClearedListener;
+import com.hazelcast.map.listener.MapEvictedListener;
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlRow;
+import com.hazelcast.sql.SqlStatement;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Results of queries reading a single IMap mapping, kept in the client and
+ * reused until the map changes. The client listens to the changes of each
+ * map read by live queries, a change discards all the results of the map,
+ * those of the other maps being kept, and the next execution of each query
+ * of the map runs it again. The network traffic hence depends on the rate of
+ * changes times the number of distinct queries of the map, rather than on
+ * the rate of executions; a map changing between every two executions gains
+ * nothing.
+ * <p>
+ * The results are eventually consistent: a change is seen after its event is
+ * received. When the client disconnects, all results are discarded because
+ * the events may be lost. Maps which weren't read for the idle timeout stop
+ * being watched.
+ * <p>
+ * The live queries are shared by the connections to the same cluster with
+ * the same principal and limits, so that each map has a single listener. A
+ * map is watched through the client of the connection which read it first,
+ * and watched again through another one when that connection is closed.
+ */
+final class LiveQueries {
+
+    /** The URL property with the maximum estimated size in bytes of the results kept for one map. */
+    static final String MAX_BYTES_PROPERTY = "liveQueryMaxBytes";
+
+    /** The URL property with the time in milliseconds after which an unused map stops being watched. */
+    static final String IDLE_TIMEOUT_PROPERTY = "liveQueryIdleTimeoutMillis";
+
+    static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+    static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60_000;
+
+    /** The maximum number of watched maps, queries of further maps are executed normally. */
+    static final int MAX_MAPS = 64;
+
+    private static final ILogger LOGGER = Logger.getLogger(LiveQueries.class);
+
+    private static final String IDENTIFIER = "(?:\"[^\"]+\"|[\\w$]+)";
+    private static final Pattern SINGLE_MAPPING_QUERY = Pattern.compile(
+            "SELECT\\s.+?\\sFROM\\s+(" + IDENTIFIER + "(?:\\s*\\.\\s*" + IDENTIFIER + "){0,2})"
+                    + "(?:\\s+(?:AS\\s+)?(?!WHERE\\b|ORDER\\b|GROUP\\b|LIMIT\\b|OFFSET\\b|FETCH\\b)[\\w$]+)?"
+                    + "(?:\\s+(?:WHERE|ORDER|GROUP|LIMIT|OFFSET|FETCH)\\b.*)?",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern UNSUPPORTED_CLAUSE = Pattern.compile(
+            "\\b(?:JOIN|UNION|EXCEPT|INTERSECT)\\b|\\bFROM\\b.*\\bFROM\\b", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final String IMAP_MAPPING_TYPE = "IMap";
+    private static final String NOT_AN_IMAP = "";
+
+    /** The shared live queries by cluster, principal and limits, guarded by itself. */
+    private static final Map<String, LiveQueries> SHARED = new HashMap<>();
+
+    /** The key in the shared live queries, null if not shared. */
+    private final String key;
+    private final long maxBytes;
+    private final long idleTimeoutMillis;
+
+    /** The clients using the live queries, guarded by {@link #SHARED}. */
+    private final List<HazelcastSqlClient> clients = new ArrayList<>();
+    private ScheduledFuture<?> idleCheck;
+
+    /**
+     * The names of the IMaps of the mappings, {@link #NOT_AN_IMAP} for other
+     * mappings. Cleared when the mappings may have changed.
+     */
+    private final ConcurrentMap<String, String> mapNames = new ConcurrentHashMap<>();
+    private final Map<String, MapWatch> watches = new ConcurrentHashMap<>();
+
+    private LiveQueries(String key, long maxBytes, long idleTimeoutMillis) {
+        this.key = key;
+        this.maxBytes = maxBytes;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Returns the live queries shared by the connections with the same
+     * cluster, principal and limits, or live queries of the client's own if
+     * the principal is {@code null}. They're used by the client until it
+     * releases them.
+     *
+     * @param principal the key returned by {@link ResultCache#principalKey}
+     */
+    static LiveQueries acquire(HazelcastSqlClient client, JdbcUrl url, String principal) {
+        long maxBytes = HazelcastConfigFactory.parseLong(url, MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES);
+        long idleTimeoutMillis = HazelcastConfigFactory.parseLong(url, IDLE_TIMEOUT_PROPERTY, DEFAULT_IDLE_TIMEOUT_MILLIS);
+        String key = principal == null ? null
+                : ResultCache.clusterKey(url) + '|' + principal + '|' + maxBytes + '|' + idleTimeoutMillis;
+        synchronized (SHARED) {
+            LiveQueries liveQueries = key == null ? null : SHARED.get(key);
+            if (liveQueries == null) {
+                liveQueries = new LiveQueries(key, maxBytes, idleTimeoutMillis);
+                liveQueries.idleCheck = HazelcastSqlClient.scheduleIdleCheck(liveQueries::removeIdle,
+                        Math.max(idleTimeoutMillis / 2, 1));
+                if (key != null) {
+                    SHARED.put(key, liveQueries);
+                }
+            }
+            liveQueries.clients.add(client);
+            return liveQueries;
+        }
+    }
+
+    /**
+     * Stops watching the maps watched through the client, and all maps if
+     * it's the last client using the live queries.
+     */
+    void release(HazelcastSqlClient client) {
+        boolean last;
+        synchronized (SHARED) {
+            if (!clients.remove(client)) {
+                return;
+            }
+            last = clients.isEmpty();
+            if (last) {
+                idleCheck.cancel(false);
+                if (key != null) {
+                    SHARED.remove(key);
+                }
+            }
+        }
+        for (MapWatch watch : watches.values()) {
+            if (last || watch.client == client) {
+                remove(watch);
+            }
+        }
+    }
+
+    /**
+     * Returns the kept result of the query, or executes it. Queries which
+     * don't read a single IMap mapping are always executed.
+     */
+    SqlResult execute(HazelcastSqlClient client, SqlStatement query, String schema, List<Object> parameters)
+            throws SQLException {
+        String mapName = mapName(client, query.getSql(), schema);
+        MapWatch watch = mapName == null ? null : watch(client, mapName);
+        if (watch == null) {
+            return ReadHedging.executeRead(client, query);
+        }
+        watch.lastUsedNanos = System.nanoTime();
+        ResultCache.Key key = new ResultCache.Key(query.getSql(), schema, parameters);
+        SqlResult result = watch.results.get(key);
+        if (result != null) {
+            return result;
+        }
+        long generation = watch.results.generation();
+        return watch.results.caching(key, generation, ReadHedging.executeRead(client, query));
+    }
+
+    /**
+     * Stops watching the maps which weren't used for the idle timeout.
+     */
+    void removeIdle() {
+        long idleSince = System.nanoTime() - MILLISECONDS.toNanos(idleTimeoutMillis);
+        for (MapWatch watch : watches.values()) {
+            if (watch.lastUsedNanos - idleSince <= 0 || !watch.instance.getLifecycleService().isRunning()) {
+                remove(watch);
+            }
+        }
+    }
+
+    int size() {
+        return watches.size();
+    }
+
+    /**
+     * Forgets the resolved mappings, called after a DDL statement which may
+     * have changed them.
+     */
+    void mappingsChanged() {
+        mapNames.clear();
+    }
+
+    /**
+     * Returns the name of the IMap read by the query, or {@code null} if it
+     * doesn't read a single IMap mapping.
+     */
+    String mapName(HazelcastSqlClient client, String sql, String schema) throws SQLException {
+        String fingerprint = SqlFingerprint.of(sql);
+        Matcher matcher = SINGLE_MAPPING_QUERY.matcher(fingerprint);
+        if (!matcher.matches() || UNSUPPORTED_CLAUSE.matcher(fingerprint).find()) {
+            return null;
+        }
+        List<String> names = splitIdentifier(matcher.group(1));
+        String tableName = names.get(names.size() - 1);
+        String schemaName = names.size() > 1 ? names.get(names.size() - 2) : schema != null ? schema : "public";
+        String mapName = mapNames.get(schemaName + '.' + tableName);
+        if (mapName == null) {
+            mapName = resolveMapName(client, schemaName, tableName);
+            mapNames.put(schemaName + '.' + tableName, mapName);
+        }
+        return mapName.equals(NOT_AN_IMAP) ? null : mapName;
+    }
+
+    private static String resolveMapName(HazelcastSqlClient client, String schemaName, String tableName)
+            throws SQLException {
+        SqlStatement statement = new SqlStatement("SELECT mapping_external_name, mapping_type "
+                + "FROM information_schema.mappings WHERE table_schema = ? AND table_name = ?")
+                .addParameter(schemaName)
+                .addParameter(tableName);
+        try (SqlResult result = client.execute(statement)) {
+            Iterator<SqlRow> iterator = result.iterator();
+            if (!iterator.hasNext()) {
+                return NOT_AN_IMAP;
+            }
+            SqlRow row = iterator.next();
+            return IMAP_MAPPING_TYPE.equalsIgnoreCase(row.getObject(1)) ? row.getObject(0) : NOT_AN_IMAP;
+        }
+    }
+
+    private synchronized MapWatch watch(HazelcastSqlClient client, String mapName) {
+        MapWatch watch = watches.get(mapName);
+        if (watch != null && watch.instance.getLifecycleService().isRunning()) {
+            return watch;
+        }
+        if (watch != null) {
+            remove(watch);
+        }
+        if (watches.size() >= MAX_MAPS) {
+            return null;
+        }
+        watch = new MapWatch(mapName, client, client.getClient(), new ResultCache(maxBytes, Long.MAX_VALUE));
+        try {
+            watch.start();
+        } catch (RuntimeException e) {
+            // e.g. the mapping was changed by another client, resolved again by the next query
+            LOGGER.fine("Failed to watch map " + mapName + ", executing its queries normally", e);
+            mapNames.clear();
+            watch.stop();
+            return null;
+        }
+        watches.put(mapName, watch);
+        return watch;
+    }
+
+    private void remove(MapWatch watch) {
+        if (watches.remove(watch.mapName, watch)) {
+            watch.stop();
+        }
+    }
+
+    private static List<String> splitIdentifier(String identifier) {
+        List<String> names = new ArrayList<>();
+        for (String name : identifier.split("\\s*\\.\\s*(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)")) {
+            names.add(name.startsWith("\"") ? name.substring(1, name.length() - 1) : name);
+        }
+        return names;
+    }
+
+    /**
+     * Listens to the changes of one map and discards its results when it
+     * changes.
+     */
+    private static final class MapWatch implements EntryAddedListener<Object, Object>,
+            EntryUpdatedListener<Object, Object>, EntryRemovedListener<Object, Object>,
+            EntryEvictedListener<Object, Object>, EntryExpiredListener<Object, Object>,
+            MapClearedListener, MapEvictedListener, LifecycleListener {
+
+        private final String mapName;
+        private final HazelcastSqlClient client;
+        private final HazelcastInstance instance;
+        private final ResultCache results;
+        private volatile long lastUsedNanos = System.nanoTime();
+        private UUID entryListenerId;
+        private UUID lifecycleListenerId;
+
+        MapWatch(String mapName, HazelcastSqlClient client, HazelcastInstance instance, ResultCache results) {
+            this.mapName = mapName;
+            this.client = client;
+            this.instance = instance;
+            this.results = results;
+        }
+
+        void start() {
+            lifecycleListenerId = instance.getLifecycleService().addLifecycleListener(this);
+            entryListenerId = instance.getMap(mapName).addEntryListener(this, false);
+        }
+
+        void stop() {
+            results.invalidate(null);
+            if (!instance.getLifecycleService().isRunning()) {
+                return;
+            }
+            try {
+                if (lifecycleListenerId != null) {
+                    instance.getLifecycleService().removeLifecycleListener(lifecycleListenerId);
+                }
+                if (entryListenerId != null) {
+                    instance.getMap(mapName).removeEntryListener(entryListenerId);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.fine("Failed to remove the listener of map " + mapName, e);
+            }
+        }
+
+        @Override
+        public void entryAdded(EntryEvent<Object, Object> event) {
+            results.invalidate(null);
+        }
+
+        @Override
+        public void entryUpdated(EntryEvent<Object, Object> event) {
+            results.invalidate(null);
+        }
+
+        @Override
+        public void entryRemoved(EntryEvent<Object, Object> event) {
+            results.invalidate(null);
+        }
+
+        @Override
+        public void entryEvicted(EntryEvent<Object, Object> event) {
+            results.invalidate(null);
+        }
+
+        @Override
+        public void entryExpired(EntryEvent<Object, Object> event) {
+            results.invalidate(null);
+        }
+
+        @Override
+        public void mapCleared(MapEvent event) {
+            results.invalidate(null);
+        }
+
+        @Override
+        public void mapEvicted(MapEvent event) {
+            results.invalidate(null);
+        }
+
+        @Override
+        public void stateChanged(LifecycleEvent event) {
+            // the events may be lost while disconnected and until the listener is registered again
+            if (event.getState() == LifecycleEvent.LifecycleState.CLIENT_DISCONNECTED
+                    || event.getState() == LifecycleEvent.LifecycleState.CLIENT_CONNECTED) {
+                results.invalidate(null);
+            }
+        }
+    }
+}
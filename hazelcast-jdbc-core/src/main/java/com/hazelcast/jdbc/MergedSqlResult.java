@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.jdbc.QueryOrder.SortKey;
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlRow;
+import com.hazelcast.sql.SqlRowMetadata;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The results of a statement executed by several shards. The rows of a query
+ * are merged as they're fetched: in the order of the {@code ORDER BY} clause
+ * of the query by a k-way merge, otherwise shard by shard. The update count
+ * of other statements is the sum of the update counts of the shards.
+ * <p>
+ * The results of the sub-queries of a partitioned scan are instead read
+ * concurrently, each one by its own thread, and interleaved.
+ */
+final class MergedSqlResult implements SqlResult {
+
+    /** Maximum number of rows read ahead by the threads of interleaved results. */
+    static final int INTERLEAVE_BUFFER_ROWS = 1024;
+
+    private static final Object END = new Object();
+    private static final long PUT_TIMEOUT_MILLIS = 100;
+
+    private final List<SqlResult> results;
+    private final Comparator<SqlRow> order;
+    private final long limit;
+
+    /** The executor of the threads reading the interleaved results, null if not interleaved. */
+    private final ExecutorService executor;
+    private final List<Future<?>> readers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Whether each interleaved result is claimed, by its reader or by {@link
+     * #close}. A result is closed by the thread claiming it, so that it isn't
+     * closed by another thread while fetching a page.
+     */
+    private final AtomicBoolean[] claimed;
+    private volatile boolean closed;
+
+    private MergedSqlResult(List<SqlResult> results, Comparator<SqlRow> order, long limit, ExecutorService executor) {
+        this.results = results;
+        this.order = order;
+        this.limit = limit;
+        this.executor = executor;
+        claimed = new AtomicBoolean[executor != null ? results.size() : 0];
+        for (int i = 0; i < claimed.length; i++) {
+            claimed[i] = new AtomicBoolean();
+        }
+    }
+
+    /**
+     * Returns the rows of the given results in the order they're fetched, each
+     * result being read by a thread of the executor.
+     */
+    static MergedSqlResult interleave(List<SqlResult> results, ExecutorService executor) {
+        return new MergedSqlResult(results, null, -1, executor);
+    }
+
+    /**
+     * Merges the given results, closing them if they can't be merged in the
+     * given order.
+     */
+    static MergedSqlResult merge(List<SqlResult> results, QueryOrder order) throws SQLException {
+        try {
+            Comparator<SqlRow> comparator = null;
+            if (results.get(0).isRowSet()) {
+                SqlRowMetadata metadata = results.get(0).getRowMetadata();
+                for (SortKey key : order.getKeys()) {
+                    Comparator<SqlRow> keyComparator = comparator(column(metadata, key), key);
+                    comparator = comparator == null ? keyComparator : comparator.thenComparing(keyComparator);
+                }
+            }
+            return new MergedSqlResult(results, comparator, order.getLimit(), null);
+        } catch (SQLException | RuntimeException e) {
+            closeAll(results);
+            throw e;
+        }
+    }
+
+    private static int column(SqlRowMetadata metadata, SortKey key) throws SQLException {
+        if (key.getColumn() == null) {
+            if (key.getPosition() > metadata.getColumnCount()) {
+                throw new SQLException("ORDER BY position " + key.getPosition() + " isn't a selected column");
+            }
+            return key.getPosition() - 1;
+        }
+        int column = metadata.findColumn(key.getColumn());
+        for (int i = 0; column == SqlRowMetadata.COLUMN_NOT_FOUND && !key.isQuoted() && i < metadata.getColumnCount(); i++) {
+            if (metadata.getColumn(i).getName().equalsIgnoreCase(key.getColumn())) {
+                column = i;
+            }
+        }
+        if (column == SqlRowMetadata.COLUMN_NOT_FOUND) {
+            throw new SQLException("The rows of a query merged across shards can be ordered only by selected columns, '"
+                    + key.getColumn() + "' isn't selected");
+        }
+        return column;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<SqlRow> comparator(int column, SortKey key) {
+        // like Hazelcast, nulls are less than the other values
+        Comparator<Comparable> values = Comparator.nullsFirst(Comparator.<Comparable>naturalOrder());
+        return Comparator.comparing(row -> (Comparable) row.getObject(column), key.isDescending() ? values.reversed() : values);
+    }
+
+    @Override
+    public SqlRowMetadata getRowMetadata() {
+        return results.get(0).getRowMetadata();
+    }
+
+    @Override
+    public Iterator<SqlRow> iterator() {
+        return executor != null ? new InterleavingIterator() : new MergeIterator();
+    }
+
+    @Override
+    public long updateCount() {
+        if (isRowSet()) {
+            return -1;
+        }
+        long sum = 0;
+        for (SqlResult result : results) {
+            sum += result.updateCount();
+        }
+        return sum;
+    }
+
+    @Override
+    public boolean isRowSet() {
+        return results.get(0).isRowSet();
+    }
+
+    @Override
+    public void close() {
+        if (executor == null) {
+            closeAll(results);
+            return;
+        }
+        closed = true;
+        List<SqlResult> unclaimed = new ArrayList<>();
+        for (int i = 0; i < claimed.length; i++) {
+            if (claimed[i].compareAndSet(false, true)) {
+                unclaimed.add(results.get(i));
+            }
+        }
+        // the readers close their results when they stop
+        for (Future<?> reader : readers) {
+            reader.cancel(true);
+        }
+        closeAll(unclaimed);
+    }
+
+    static void closeAll(List<SqlResult> results) {
+        RuntimeException failure = null;
+        for (SqlResult result : results) {
+            try {
+                result.close();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns the rows of the shards, taking the least head row of all shards
+     * each time if ordered.
+     */
+    private final class MergeIterator implements Iterator<SqlRow> {
+
+        private final PriorityQueue<Head> heads;
+        private long returned;
+
+        MergeIterator() {
+            Comparator<Head> headOrder = Comparator.comparingInt(head -> head.shard);
+            heads = new PriorityQueue<>(results.size(), order == null
+                    ? headOrder
+                    : Comparator.<Head, SqlRow>comparing(head -> head.row, order).thenComparing(headOrder));
+            // without an order the shards are read one after another
+            for (int i = 0; i < (order == null ? 1 : results.size()); i++) {
+                advance(new Head(i, results.get(i).iterator()));
+            }
+        }
+
+        private void advance(Head head) {
+            if (head.rows.hasNext()) {
+                head.row = head.rows.next();
+                heads.add(head);
+            } else if (order == null && head.shard + 1 < results.size()) {
+                advance(new Head(head.shard + 1, results.get(head.shard + 1).iterator()));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty() && (limit < 0 || returned < limit);
+        }
+
+        @Override
+        public SqlRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Head head = heads.poll();
+            SqlRow row = head.row;
+            returned++;
+            if (limit < 0 || returned < limit) {
+                advance(head);
+            }
+            return row;
+        }
+    }
+
+    /**
+     * Returns the rows of the results in the order they're read by the
+     * threads of the executor.
+     */
+    private final class InterleavingIterator implements Iterator<SqlRow> {
+
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(INTERLEAVE_BUFFER_ROWS);
+        private int remaining = results.size();
+        private SqlRow next;
+        /** The failure to start the readers, thrown instead of the rows. */
+        private RuntimeException rejected;
+
+        InterleavingIterator() {
+            try {
+                for (int i = 0; i < results.size(); i++) {
+                    int index = i;
+                    readers.add(executor.submit(() -> {
+                        if (claimed[index].compareAndSet(false, true)) {
+                            try {
+                                read(results.get(index));
+                            } finally {
+                                closeQuietly(results.get(index));
+                            }
+                        }
+                    }));
+                }
+            } catch (RejectedExecutionException e) {
+                rejected = new IllegalStateException("No thread is available to read the rows", e);
+            }
+        }
+
+        private void read(SqlResult result) {
+            Object last = END;
+            try {
+                for (SqlRow row : result) {
+                    if (!put(row)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // the result is closed
+                return;
+            } catch (RuntimeException e) {
+                last = e;
+            }
+            try {
+                put(last);
+            } catch (InterruptedException ignored) {
+                // the result is closed
+            }
+        }
+
+        private void closeQuietly(SqlResult result) {
+            try {
+                result.close();
+            } catch (RuntimeException ignored) {
+                // the rows were already read, or the failure was reported
+            }
+        }
+
+        /**
+         * Waits until the queue has room for the item, returns {@code false}
+         * if the result is closed meanwhile.
+         */
+        private boolean put(Object item) throws InterruptedException {
+            while (!closed) {
+                if (queue.offer(item, PUT_TIMEOUT_MILLIS, MILLISECONDS)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (rejected != null) {
+                remaining = 0;
+                throw rejected;
+            }
+            while (next == null && remaining > 0) {
+                Object item;
+                try {
+                    item = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for rows", e);
+                }
+                if (item == END) {
+                    remaining--;
+                } else if (item instanceof RuntimeException) {
+                    remaining = 0;
+                    throw (RuntimeException) item;
+                } else {
+                    next = (SqlRow) item;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public SqlRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SqlRow row = next;
+            next = null;
+            return row;
+        }
+    }
+
+    private static final class Head {
+
+        private final int shard;
+        private final Iterator<SqlRow> rows;
+        private SqlRow row;
+
+        Head(int shard, Iterator<SqlRow> rows) {
+            this.shard = shard;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.sql.SqlResult;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits a query into sub-queries reading disjoint parts of its rows, by the
+ * remainder of the division of an integer column by the number of parts.
+ * The rows with a null value in the column belong to the first part. The
+ * sub-queries are executed concurrently, each one by the member chosen by the
+ * client for a query, so that the rows are fetched through several
+ * coordinators and client threads. As the filter is applied to the rows of
+ * the query, each sub-query executes the whole query.
+ * <p>
+ * The sub-queries are executed and read by a bounded pool of threads shared
+ * by all connections: a query fails when no thread is available, instead of
+ * waiting for the threads of the other queries.
+ */
+final class PartitionedScan {
+
+    /** The maximum number of parts of a query. */
+    static final int MAX_PARTS = 64;
+
+    /** The maximum number of threads executing and reading the parts of all queries. */
+    static final int MAX_THREADS = 256;
+
+    private PartitionedScan() {
+    }
+
+    /**
+     * Returns the sub-queries of the given query, one for each part.
+     */
+    static List<String> subQueries(String sql, String splitColumn, int parts) throws SQLException {
+        if (parts < 1 || parts > MAX_PARTS) {
+            throw new SQLException("The number of parts must be between 1 and " + MAX_PARTS + ": " + parts);
+        }
+        if (splitColumn == null || splitColumn.isEmpty()) {
+            throw new SQLException("The split column must be set");
+        }
+        String column = '"' + splitColumn.replace("\"", "\"\"") + '"';
+        String remainder = column + " % " + parts;
+        List<String> queries = new ArrayList<>(parts);
+        for (int part = 0; part < parts; part++) {
+            // the remainder of a negative value is negative
+            String predicate = part == 0
+                    ? remainder + " = 0 OR " + column + " IS NULL"
+                    : remainder + " = " + part + " OR " + remainder + " = -" + part;
+            queries.add("SELECT * FROM (" + sql + ") WHERE " + predicate);
+        }
+        return queries;
+    }
+
+    /**
+     * Executes the tasks executing the sub-queries concurrently, returns their
+     * results or closes them and throws the first failure.
+     */
+    static List<SqlResult> execute(List<Callable<SqlResult>> tasks) throws SQLException {
+        List<Future<SqlResult>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (Callable<SqlResult> task : tasks) {
+                futures.add(Scan.EXECUTOR.submit(task));
+            }
+        } catch (RejectedExecutionException e) {
+            SQLException failure = new SQLException("All the " + MAX_THREADS
+                    + " threads of the partitioned queries are busy", e);
+            try {
+                MergedSqlResult.closeAll(ShardRouter.results(futures));
+            } catch (SQLException | RuntimeException ignored) {
+                // the results of the failed sub-queries are already closed
+            }
+            throw failure;
+        }
+        return ShardRouter.results(futures);
+    }
+
+    /**
+     * Returns the rows of the results as they're fetched, each result being
+     * read by its own thread.
+     */
+    static SqlResult interleave(List<SqlResult> results) {
+        return MergedSqlResult.interleave(results, Scan.EXECUTOR);
+    }
+
+    /**
+     * Holder of the threads executing and reading the sub-queries, created on
+     * first use.
+     */
+    private static final class Scan {
+
+        private static final ExecutorService EXECUTOR = createExecutor();
+
+        private Scan() {
+        }
+
+        private static ExecutorService createExecutor() {
+            return new ThreadPoolExecutor(0, MAX_THREADS, 1, TimeUnit.MINUTES, new SynchronousQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "hz-jdbc-scan");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
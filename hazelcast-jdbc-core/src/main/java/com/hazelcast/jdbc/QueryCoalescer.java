@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlRow;
+import com.hazelcast.sql.SqlRowMetadata;
+import com.hazelcast.sql.SqlStatement;
+import com.hazelcast.sql.impl.AbstractSqlResult;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Coalesces identical queries executed concurrently by the connections to
+ * the same cluster with the same principal. The first caller executes the
+ * query and reads its rows as they're fetched, keeping a copy of them, and
+ * the callers arriving while it's in progress wait until it has read all the
+ * rows and get their own cursor over the copy instead of executing the query
+ * again. The callers arriving after it completed execute the query again, so
+ * no stale rows are returned.
+ * <p>
+ * If the rows are larger than the limit, the first caller stops copying them
+ * and the waiting callers execute the query themselves. So do the waiting
+ * callers when the first one closes its result before the last row, or
+ * doesn't read all the rows within their query timeout, or within the
+ * maximum wait if it's shorter.
+ */
+final class QueryCoalescer {
+
+    /** The URL property enabling the coalescing, {@code false} by default. */
+    static final String ENABLED_PROPERTY = "coalesceQueries";
+
+    /** The URL property with the maximum estimated size in bytes of the shared rows of one query. */
+    static final String MAX_BYTES_PROPERTY = "coalesceMaxBytes";
+
+    /** The URL property with the maximum time in milliseconds to wait for an identical query. */
+    static final String MAX_WAIT_PROPERTY = "coalesceMaxWaitMillis";
+
+    static final long DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+    static final long DEFAULT_MAX_WAIT_MILLIS = 10_000;
+
+    private static final ConcurrentMap<String, QueryCoalescer> COALESCERS = new ConcurrentHashMap<>();
+
+    private final long maxBytes;
+    private final long maxWaitMillis;
+    private final ConcurrentMap<ResultCache.Key, Flight> flights = new ConcurrentHashMap<>();
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+
+    QueryCoalescer(long maxBytes, long maxWaitMillis) {
+        this.maxBytes = maxBytes;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * Returns the coalescer shared by the connections with the same cluster,
+     * principal and limits, or {@code null} if coalescing isn't enabled by
+     * the URL or the principal is {@code null}.
+     *
+     * @param principal the key returned by {@link ResultCache#principalKey}
+     */
+    static QueryCoalescer create(JdbcUrl url, String principal) {
+        if (!HazelcastConfigFactory.parseBoolean(url, ENABLED_PROPERTY, false) || principal == null) {
+            return null;
+        }
+        long maxBytes = HazelcastConfigFactory.parseLong(url, MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES);
+        long maxWaitMillis = HazelcastConfigFactory.parseLong(url, MAX_WAIT_PROPERTY, DEFAULT_MAX_WAIT_MILLIS);
+        String name = ResultCache.clusterKey(url) + '|' + principal + '|' + maxBytes + '|' + maxWaitMillis;
+        return COALESCERS.computeIfAbsent(name, key -> new QueryCoalescer(maxBytes, maxWaitMillis));
+    }
+
+    /**
+     * Executes the query, or waits for the identical query in progress and
+     * returns its rows.
+     */
+    SqlResult execute(HazelcastSqlClient client, SqlStatement query, ResultCache.Key key) throws SQLException {
+        Flight flight = new Flight();
+        Flight leader = flights.putIfAbsent(key, flight);
+        if (leader != null) {
+            long timeoutMillis = query.getTimeoutMillis();
+            SqlResult shared = leader.await(timeoutMillis > 0 ? Math.min(timeoutMillis, maxWaitMillis) : maxWaitMillis);
+            return shared != null ? shared : ReadHedging.executeRead(client, query);
+        }
+        SqlResult result;
+        try {
+            result = ReadHedging.executeRead(client, query);
+        } catch (SQLException | RuntimeException e) {
+            complete(key, flight, null, null);
+            throw e;
+        }
+        return lead(result, key, flight);
+    }
+
+    int inFlight() {
+        return flights.size();
+    }
+
+    private SqlResult lead(SqlResult result, ResultCache.Key key, Flight flight) {
+        SqlResult target = TrackedSqlResult.untracked(result);
+        if (!result.isRowSet() || target instanceof AbstractSqlResult && ((AbstractSqlResult) target).isInfiniteRows()) {
+            complete(key, flight, null, null);
+            return result;
+        }
+        return new LeadingSqlResult(result, key, flight);
+    }
+
+    private void complete(ResultCache.Key key, Flight flight, SqlRowMetadata metadata, List<SqlRow> rows) {
+        // removed first so that the callers arriving from now on execute the query again
+        flights.remove(key, flight);
+        flight.complete(metadata, rows);
+    }
+
+    /**
+     * An execution in progress, completed with the rows or with {@code null}
+     * if they can't be shared.
+     */
+    private static final class Flight {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile SqlRowMetadata metadata;
+        private volatile List<SqlRow> rows;
+
+        synchronized void complete(SqlRowMetadata metadata, List<SqlRow> rows) {
+            if (done.getCount() > 0) {
+                this.metadata = metadata;
+                this.rows = rows;
+                done.countDown();
+            }
+        }
+
+        /**
+         * Returns the shared rows, or {@code null} if they can't be shared or
+         * the execution doesn't complete in time.
+         */
+        SqlResult await(long timeoutMillis) throws SQLException {
+            try {
+                if (!done.await(timeoutMillis, MILLISECONDS)) {
+                    return null;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for an identical query", e);
+            }
+            return rows == null ? null : new FixedRowsSqlResult(metadata, rows);
+        }
+    }
+
+    /**
+     * The result of the first caller, returning the rows as they're fetched
+     * and copying them for the waiting callers, until they're larger than
+     * the limit.
+     */
+    private final class LeadingSqlResult implements SqlResult {
+
+        private final SqlResult delegate;
+        private final ResultCache.Key key;
+        private final Flight flight;
+        private final SqlRowMetadata metadata;
+
+        /** The copies of the rows read so far, null if they aren't shared. */
+        private List<SqlRow> rows = new ArrayList<>();
+        private long bytes;
+
+        LeadingSqlResult(SqlResult delegate, ResultCache.Key key, Flight flight) {
+            this.delegate = delegate;
+            this.key = key;
+            this.flight = flight;
+            metadata = delegate.getRowMetadata();
+        }
+
+        @Override
+        public SqlRowMetadata getRowMetadata() {
+            return metadata;
+        }
+
+        @Override
+        public Iterator<SqlRow> iterator() {
+            Iterator<SqlRow> rest = delegate.iterator();
+            return new Iterator<SqlRow>() {
+                @Override
+                public boolean hasNext() {
+                    boolean hasNext;
+                    try {
+                        hasNext = rest.hasNext();
+                    } catch (RuntimeException e) {
+                        stopSharing();
+                        throw e;
+                    }
+                    if (!hasNext && rows != null) {
+                        complete(key, flight, metadata, Collections.unmodifiableList(rows));
+                        rows = null;
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public SqlRow next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    SqlRow row = rest.next();
+                    share(row);
+                    return row;
+                }
+            };
+        }
+
+        private void share(SqlRow row) {
+            if (rows == null) {
+                return;
+            }
+            Object[] values = ResultCache.copyValues(row, metadata.getColumnCount());
+            bytes += values == null ? 0 : ResultCache.estimateBytes(values);
+            if (values == null || bytes > maxBytes) {
+                // too large to share, the waiting callers execute the query themselves
+                stopSharing();
+                return;
+            }
+            rows.add(FixedRowsSqlResult.row(metadata, serializationService, values));
+        }
+
+        private void stopSharing() {
+            rows = null;
+            complete(key, flight, null, null);
+        }
+
+        @Override
+        public long updateCount() {
+            return -1;
+        }
+
+        @Override
+        public boolean isRowSet() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // no effect if all the rows were read
+            complete(key, flight, null, null);
+            delegate.close();
+        }
+    }
+}
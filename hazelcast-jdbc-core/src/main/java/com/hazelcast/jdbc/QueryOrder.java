@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The top-level {@code ORDER BY} and {@code LIMIT} clauses of a query, used
+ * to merge the rows of the query executed by several shards. Only selected
+ * columns, referenced by name or by position, can be merged in order, and
+ * the queries aggregating rows can't be merged.
+ */
+final class QueryOrder {
+
+    /** The order of the statements without the clauses. */
+    static final QueryOrder NONE = new QueryOrder(Collections.emptyList(), -1);
+
+    /** The functions aggregating the rows, whose results can't be merged. */
+    private static final Set<String> AGGREGATE_FUNCTIONS = new HashSet<>(Arrays.asList(
+            "COUNT", "SUM", "AVG", "MIN", "MAX", "JSON_ARRAYAGG", "JSON_OBJECTAGG"));
+
+    private final List<SortKey> keys;
+    private final long limit;
+
+    QueryOrder(List<SortKey> keys, long limit) {
+        this.keys = keys;
+        this.limit = limit;
+    }
+
+    /**
+     * Parses the clauses of the given query.
+     *
+     * @throws SQLFeatureNotSupportedException if the rows of the query can't
+     *                                         be merged
+     */
+    static QueryOrder parse(String sql, List<Object> parameters) throws SQLException {
+        List<Token> tokens = tokenize(sql);
+        checkNotAggregated(tokens);
+        int orderBy = -1;
+        int clauseEnd = tokens.size();
+        long limit = -1;
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.depth > 0) {
+                continue;
+            }
+            if (token.isWord("ORDER") && next(tokens, i).isWord("BY")) {
+                orderBy = i + 2;
+                clauseEnd = tokens.size();
+            } else if (token.isWord("LIMIT")) {
+                clauseEnd = Math.min(clauseEnd, i);
+                limit = limit(next(tokens, i), parameters);
+            } else if (token.isWord("OFFSET") || token.isWord("FETCH")) {
+                throw new SQLFeatureNotSupportedException("The rows of a query with " + token.text
+                        + " can't be merged across shards");
+            }
+        }
+        List<SortKey> keys = orderBy < 0 ? Collections.emptyList() : sortKeys(tokens.subList(orderBy, clauseEnd), sql);
+        return new QueryOrder(keys, limit);
+    }
+
+    /**
+     * Checks that the query, including its sub-queries, doesn't aggregate
+     * rows: the results of each shard would be concatenated instead of
+     * aggregated together.
+     */
+    private static void checkNotAggregated(List<Token> tokens) throws SQLException {
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            String clause = null;
+            if (token.isWord("GROUP") && next(tokens, i).isWord("BY")) {
+                clause = "GROUP BY";
+            } else if (token.isWord("HAVING")) {
+                clause = "HAVING";
+            } else if (token.isWord("DISTINCT") && !next(tokens, i).isWord("FROM")) {
+                // IS [NOT] DISTINCT FROM compares values
+                clause = "DISTINCT";
+            } else if (token.kind == Kind.WORD && next(tokens, i).text.equals("(")
+                    && AGGREGATE_FUNCTIONS.contains(token.text.toUpperCase(Locale.ROOT))) {
+                clause = token.text.toUpperCase(Locale.ROOT);
+            }
+            if (clause != null) {
+                throw new SQLFeatureNotSupportedException("The rows of a query with " + clause
+                        + " can't be merged across shards");
+            }
+        }
+    }
+
+    private static Token next(List<Token> tokens, int index) {
+        return index + 1 < tokens.size() ? tokens.get(index + 1) : new Token(Kind.SYMBOL, "", 0, -1);
+    }
+
+    private static long limit(Token token, List<Object> parameters) throws SQLException {
+        Object value;
+        if (token.kind == Kind.PARAMETER) {
+            value = token.parameter < parameters.size() ? parameters.get(token.parameter) : null;
+        } else {
+            value = token.text;
+        }
+        try {
+            return value instanceof Number ? ((Number) value).longValue() : Long.parseLong(String.valueOf(value));
+        } catch (NumberFormatException e) {
+            throw new SQLFeatureNotSupportedException("The LIMIT of a query merged across shards must be a number", e);
+        }
+    }
+
+    private static List<SortKey> sortKeys(List<Token> tokens, String sql) throws SQLException {
+        List<SortKey> keys = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= tokens.size(); i++) {
+            if (i == tokens.size() || tokens.get(i).depth == 0 && tokens.get(i).text.equals(",")) {
+                keys.add(sortKey(tokens.subList(start, i), sql));
+                start = i + 1;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Parses a sort key: a column name or position, optionally followed by
+     * {@code ASC} or {@code DESC}.
+     */
+    private static SortKey sortKey(List<Token> tokens, String sql) throws SQLException {
+        boolean descending = false;
+        List<Token> reference = tokens;
+        Token last = tokens.isEmpty() ? null : tokens.get(tokens.size() - 1);
+        if (last != null && (last.isWord("ASC") || last.isWord("DESC"))) {
+            descending = last.isWord("DESC");
+            reference = tokens.subList(0, tokens.size() - 1);
+        }
+        if (reference.size() == 1 && reference.get(0).kind == Kind.NUMBER) {
+            return new SortKey(null, false, Integer.parseInt(reference.get(0).text), descending);
+        }
+        if (!isName(reference)) {
+            throw new SQLFeatureNotSupportedException("The rows of a query merged across shards can be ordered only by "
+                    + "selected columns, '" + sql + "'");
+        }
+        // a qualified name is matched by its last part
+        Token name = reference.get(reference.size() - 1);
+        return new SortKey(name.text, name.kind == Kind.QUOTED, 0, descending);
+    }
+
+    /**
+     * Returns whether the tokens are a name, possibly qualified.
+     */
+    private static boolean isName(List<Token> tokens) {
+        if (tokens.size() % 2 == 0) {
+            return false;
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            boolean valid = i % 2 == 0 ? token.kind == Kind.WORD || token.kind == Kind.QUOTED : token.text.equals(".");
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Token> tokenize(String sql) {
+        List<Token> tokens = new ArrayList<>();
+        int depth = 0;
+        int parameters = 0;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            int commentEnd = SqlFingerprint.skipComment(sql, i);
+            if (commentEnd > i || Character.isWhitespace(c)) {
+                i = Math.max(commentEnd, i + 1);
+                continue;
+            }
+            Kind kind = kind(c);
+            int end = end(sql, i, kind);
+            if (c == ')') {
+                depth--;
+            }
+            String text = kind == Kind.QUOTED
+                    ? sql.substring(i + 1, Math.max(i + 1, end - 1)).replace("\"\"", "\"")
+                    : sql.substring(i, end);
+            tokens.add(new Token(kind, text, depth, kind == Kind.PARAMETER ? parameters++ : -1));
+            if (c == '(') {
+                depth++;
+            }
+            i = end;
+        }
+        return tokens;
+    }
+
+    private static Kind kind(char c) {
+        if (c == '\'') {
+            return Kind.STRING;
+        } else if (c == '"') {
+            return Kind.QUOTED;
+        } else if (Character.isDigit(c)) {
+            return Kind.NUMBER;
+        } else if (SqlFingerprint.isIdentifierPart(c)) {
+            return Kind.WORD;
+        }
+        return c == '?' ? Kind.PARAMETER : Kind.SYMBOL;
+    }
+
+    /**
+     * Returns the index after the token of the given kind starting at the
+     * given index.
+     */
+    private static int end(String sql, int start, Kind kind) {
+        switch (kind) {
+            case STRING:
+                return SqlFingerprint.skipQuoted(sql, start, '\'');
+            case QUOTED:
+                return SqlFingerprint.skipQuoted(sql, start, '"');
+            case NUMBER:
+                return SqlFingerprint.skipNumber(sql, start);
+            case WORD:
+                int end = start;
+                while (end < sql.length() && SqlFingerprint.isIdentifierPart(sql.charAt(end))) {
+                    end++;
+                }
+                return end;
+            default:
+                return start + 1;
+        }
+    }
+
+    List<SortKey> getKeys() {
+        return keys;
+    }
+
+    /**
+     * Returns the maximum number of rows, -1 if not limited.
+     */
+    long getLimit() {
+        return limit;
+    }
+
+    /**
+     * A column ordering the rows.
+     */
+    static final class SortKey {
+
+        private final String column;
+        private final boolean quoted;
+        private final int position;
+        private final boolean descending;
+
+        SortKey(String column, boolean quoted, int position, boolean descending) {
+            this.column = column;
+            this.quoted = quoted;
+            this.position = position;
+            this.descending = descending;
+        }
+
+        /**
+         * Returns the column name, {@code null} if the column is referenced by
+         * its position.
+         */
+        String getColumn() {
+            return column;
+        }
+
+        /**
+         * Returns whether the column name must match exactly, otherwise it
+         * matches regardless of the case if there's no exact match.
+         */
+        boolean isQuoted() {
+            return quoted;
+        }
+
+        /**
+         * Returns the 1-based position of the column, 0 if referenced by name.
+         */
+        int getPosition() {
+            return position;
+        }
+
+        boolean isDescending() {
+            return descending;
+        }
+    }
+
+    private enum Kind {
+        WORD, QUOTED, NUMBER, STRING, PARAMETER, SYMBOL
+    }
+
+    private static final class Token {
+
+        private final Kind kind;
+        private final String text;
+        private final int depth;
+
+        /** The 0-based index of a parameter marker, -1 for the other tokens. */
+        private final int parameter;
+
+        Token(Kind kind, String text, int depth, int parameter) {
+            this.kind = kind;
+            this.text = text;
+            this.depth = depth;
+            this.parameter = parameter;
+        }
+
+        boolean isWord(String keyword) {
+            return kind == Kind.WORD && text.toUpperCase(Locale.ROOT).equals(keyword);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlStatement;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Hedges the queries against slow coordinators: if the first page of a
+ * query doesn't arrive within the hedge delay, the query is executed once
+ * more and the caller gets whichever execution responds first. The other
+ * result is closed as soon as it responds, which cancels the query on the
+ * cluster.
+ * <p>
+ * Both executions run on a bounded pool of threads, the caller waiting for
+ * the first response. While all the threads are busy, the queries are
+ * executed by the caller's thread and aren't hedged.
+ * <p>
+ * The delay is either fixed, or the given percentile of the recent response
+ * times. The number of hedges is limited by a budget, a fraction of the
+ * executed queries, so that hedging can't double the load of a cluster
+ * which is slow as a whole.
+ */
+final class ReadHedging {
+
+    /** The URL property with the fixed hedge delay, or the minimum delay if the percentile is set. */
+    static final String DELAY_PROPERTY = "hedgeDelayMillis";
+
+    /** The URL property with the percentile of the response times used as the hedge delay, e.g. {@code 0.95}. */
+    static final String PERCENTILE_PROPERTY = "hedgePercentile";
+
+    /** The URL property with the maximum fraction of the queries which can be hedged. */
+    static final String BUDGET_PROPERTY = "hedgeBudget";
+
+    static final double DEFAULT_BUDGET = 0.1;
+
+    /** Number of response times from which the adaptive delay is computed. */
+    static final int WINDOW = 1000;
+
+    /** Maximum number of executions of hedged queries running at the same time, in all connections. */
+    static final int MAX_THREADS = 64;
+
+    /** Maximum number of hedges which can be saved up by the queries which weren't hedged. */
+    private static final double MAX_TOKENS = 10;
+
+    private static final ConcurrentMap<String, ReadHedging> HEDGINGS = new ConcurrentHashMap<>();
+
+    private final long minDelayNanos;
+    private final double percentile;
+    private final double budget;
+    private final LatencyHistogram responseTimes = new LatencyHistogram();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    /** The delay computed from the last window of response times, -1 until a window is complete. */
+    private volatile long adaptiveDelayNanos = -1;
+    private double tokens = MAX_TOKENS;
+
+    ReadHedging(long minDelayMillis, double percentile, double budget) {
+        this.minDelayNanos = MILLISECONDS.toNanos(minDelayMillis);
+        this.percentile = percentile;
+        this.budget = budget;
+    }
+
+    /**
+     * Returns the hedging shared by the connections with the same cluster and
+     * settings, or {@code null} if hedging isn't enabled by the URL.
+     */
+    static ReadHedging create(JdbcUrl url) {
+        if (url.getProperty(DELAY_PROPERTY) == null && url.getProperty(PERCENTILE_PROPERTY) == null) {
+            return null;
+        }
+        long delayMillis = HazelcastConfigFactory.parseLong(url, DELAY_PROPERTY, 0);
+        double percentile = HazelcastConfigFactory.parseFraction(url, PERCENTILE_PROPERTY, 0);
+        double budget = HazelcastConfigFactory.parseFraction(url, BUDGET_PROPERTY, DEFAULT_BUDGET);
+        String name = ResultCache.clusterKey(url) + '|' + delayMillis + '|' + percentile + '|' + budget;
+        return HEDGINGS.computeIfAbsent(name, key -> new ReadHedging(delayMillis, percentile, budget));
+    }
+
+    /**
+     * Executes an idempotent query, hedged if enabled for the client.
+     */
+    static SqlResult executeRead(HazelcastSqlClient client, SqlStatement query) throws SQLException {
+        ReadHedging hedging = client.getReadHedging();
+        return hedging != null ? hedging.execute(client, query) : client.execute(query);
+    }
+
+    /**
+     * Executes an idempotent query, hedging it if it doesn't respond within
+     * the hedge delay.
+     */
+    SqlResult execute(HazelcastSqlClient client, SqlStatement query) throws SQLException {
+        long startNanos = System.nanoTime();
+        long delayNanos = delayNanos();
+        deposit();
+        if (delayNanos < 0) {
+            SqlResult result = client.execute(query);
+            recordResponseTime(System.nanoTime() - startNanos);
+            return result;
+        }
+        Race race = new Race(startNanos);
+        if (!race.start(client, query, false)) {
+            // all the threads are busy
+            SqlResult result = client.execute(query);
+            recordResponseTime(System.nanoTime() - startNanos);
+            return result;
+        }
+        try {
+            try {
+                return race.first.get(delayNanos, NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (!race.first.isDone() && withdraw()) {
+                    if (race.start(client, query, true)) {
+                        hedges.increment();
+                    } else {
+                        refund();
+                    }
+                }
+            }
+            return race.first.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            // the results arriving from now on are closed
+            race.first.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the query to respond", e);
+        }
+    }
+
+    long hedges() {
+        return hedges.sum();
+    }
+
+    long hedgeWins() {
+        return hedgeWins.sum();
+    }
+
+    /**
+     * Returns the current hedge delay, -1 if it isn't known yet.
+     */
+    long delayNanos() {
+        if (percentile == 0) {
+            return minDelayNanos;
+        }
+        long adaptive = adaptiveDelayNanos;
+        return adaptive < 0 ? -1 : Math.max(adaptive, minDelayNanos);
+    }
+
+    private void recordResponseTime(long nanos) {
+        if (percentile == 0) {
+            return;
+        }
+        responseTimes.record(nanos);
+        if (responseTimes.getCount() >= WINDOW) {
+            synchronized (responseTimes) {
+                if (responseTimes.getCount() >= WINDOW) {
+                    adaptiveDelayNanos = responseTimes.percentileNanos(percentile);
+                    responseTimes.reset();
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the budget of one query.
+     */
+    private synchronized void deposit() {
+        tokens = Math.min(tokens + budget, MAX_TOKENS);
+    }
+
+    private synchronized boolean withdraw() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Gives back the budget of a hedge which couldn't be started.
+     */
+    private synchronized void refund() {
+        tokens = Math.min(tokens + 1, MAX_TOKENS);
+    }
+
+    private static SQLException rethrow(Throwable cause) {
+        if (cause instanceof SQLException) {
+            return (SQLException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new SQLException(cause.getMessage(), cause);
+    }
+
+    /**
+     * The executions of one query, completed with the first result, or with
+     * the last failure if all executions fail.
+     */
+    private final class Race {
+
+        private final CompletableFuture<SqlResult> first = new CompletableFuture<>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final long startNanos;
+
+        Race(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Starts an execution, returns {@code false} if all the threads are
+         * busy.
+         */
+        boolean start(HazelcastSqlClient client, SqlStatement query, boolean hedge) {
+            pending.incrementAndGet();
+            try {
+                HedgeThreads.EXECUTOR.execute(() -> run(client, query, hedge));
+                return true;
+            } catch (RejectedExecutionException e) {
+                pending.decrementAndGet();
+                return false;
+            }
+        }
+
+        private void run(HazelcastSqlClient client, SqlStatement query, boolean hedge) {
+            SqlResult result;
+            try {
+                result = client.execute(query);
+            } catch (Throwable e) {
+                if (pending.decrementAndGet() == 0) {
+                    first.completeExceptionally(e);
+                }
+                return;
+            }
+            if (first.complete(result)) {
+                recordResponseTime(System.nanoTime() - startNanos);
+                if (hedge) {
+                    hedgeWins.increment();
+                }
+            } else {
+                result.close();
+            }
+        }
+    }
+
+    /**
+     * Holder of the threads executing the hedged queries, created on first use.
+     */
+    private static final class HedgeThreads {
+
+        private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(0, MAX_THREADS, 1, SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "hz-jdbc-hedge");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private HedgeThreads() {
+        }
+    }
+}
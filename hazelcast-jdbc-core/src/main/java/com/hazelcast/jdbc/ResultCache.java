@@ -0,0 +1,437 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.client.config.ClientSecurityConfig;
+import com.hazelcast.config.security.CredentialsIdentityConfig;
+import com.hazelcast.config.security.TokenIdentityConfig;
+import com.hazelcast.config.security.UsernamePasswordIdentityConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.sql.SqlColumnType;
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlRow;
+import com.hazelcast.sql.SqlRowMetadata;
+import com.hazelcast.security.Credentials;
+import com.hazelcast.security.PasswordCredentials;
+import com.hazelcast.sql.impl.AbstractSqlResult;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Client-side cache of query results, shared by the connections with the same
+ * cluster, principal and cache configuration, so that the rows are served
+ * only to the connections authorised to read them. The cache is an LRU bounded by the
+ * estimated size of the cached rows, the entries expire after a fixed time.
+ * <p>
+ * A result is cached only after all its rows were read. DML statements
+ * executed through the driver invalidate the cached results of the same
+ * cluster whose query has an identifier equal to the name of the updated
+ * mapping, DDL statements invalidate all results of the cluster. The updates
+ * made by other clients are visible only after the entries expire.
+ * <p>
+ * The values of the {@code OBJECT} columns are kept serialized and
+ * deserialized by each reader, so a reader modifying them doesn't affect the
+ * others.
+ */
+final class ResultCache {
+
+    /** The URL property with the maximum size of the cache in bytes, the cache is disabled if not set. */
+    static final String MAX_BYTES_PROPERTY = "resultCacheMaxBytes";
+
+    /** The URL property with the time in milliseconds after which the cached results expire. */
+    static final String TTL_PROPERTY = "resultCacheTtlMillis";
+
+    static final long DEFAULT_TTL_MILLIS = 10_000;
+
+    /** Results larger than this fraction of the cache aren't cached. */
+    static final int MAX_ENTRY_FRACTION = 4;
+
+    private static final ConcurrentMap<String, ResultCache> CACHES = new ConcurrentHashMap<>();
+
+    private static final String IDENTIFIER = "(?:\"[^\"]+\"|[\\w$]+)";
+    private static final Pattern DML_TARGET = Pattern.compile(
+            "(?:INSERT\\s+INTO|SINK\\s+INTO|UPDATE|DELETE\\s+FROM)\\s+(" + IDENTIFIER + "(?:\\s*\\.\\s*" + IDENTIFIER + ")*).*",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final Pattern IDENTIFIER_TOKEN = Pattern.compile("\"([^\"]+)\"|([\\w$]+)");
+
+    private static final int ROW_OVERHEAD_BYTES = 64;
+    private static final int REFERENCE_BYTES = 8;
+    private static final int OBJECT_BYTES = 16;
+    private static final int LARGE_OBJECT_BYTES = 64;
+
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+    private long generation;
+
+    ResultCache(long maxBytes, long ttlMillis) {
+        this.maxBytes = maxBytes;
+        this.ttlNanos = MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    /**
+     * Returns the cache configured by the URL for the connections of the
+     * given principal, or {@code null} if the maximum size isn't set or the
+     * principal is {@code null}.
+     *
+     * @param principal the key returned by {@link #principalKey}
+     */
+    static ResultCache create(JdbcUrl url, String principal) {
+        long maxBytes = HazelcastConfigFactory.parseLong(url, MAX_BYTES_PROPERTY, 0);
+        if (maxBytes <= 0 || principal == null) {
+            return null;
+        }
+        long ttlMillis = HazelcastConfigFactory.parseLong(url, TTL_PROPERTY, DEFAULT_TTL_MILLIS);
+        String name = clusterKey(url) + '|' + principal + '|' + maxBytes + '|' + ttlMillis;
+        return CACHES.computeIfAbsent(name, key -> new ResultCache(maxBytes, ttlMillis));
+    }
+
+    /**
+     * Returns a key identifying the cluster the URL connects to, for sharing
+     * state between the connections to the same cluster.
+     */
+    static String clusterKey(JdbcUrl url) {
+        return url.isEmbedded() + "|" + url.getRawAuthority() + '|' + url.getProperty("clusterName") + '|'
+                + url.getProperty(Driver.INSTANCE_NAME_PROPERTY);
+    }
+
+    /**
+     * Returns a key identifying the principal the clients with the given
+     * configuration authenticate as, or {@code null} if the identity can't be
+     * compared, in which case no rows are shared. The secrets are included
+     * as digests.
+     */
+    static String principalKey(ClientConfig config) {
+        ClientSecurityConfig security = config.getSecurityConfig();
+        UsernamePasswordIdentityConfig usernamePassword = security.getUsernamePasswordIdentityConfig();
+        if (usernamePassword != null) {
+            return passwordKey(usernamePassword.getUsername(), usernamePassword.getPassword());
+        }
+        CredentialsIdentityConfig credentialsIdentity = security.getCredentialsIdentityConfig();
+        if (credentialsIdentity != null) {
+            Credentials credentials = credentialsIdentity.getCredentials();
+            return credentials instanceof PasswordCredentials
+                    ? passwordKey(credentials.getName(), ((PasswordCredentials) credentials).getPassword())
+                    : null;
+        }
+        TokenIdentityConfig token = security.getTokenIdentityConfig();
+        if (token != null) {
+            return "token:" + digest(token.getToken());
+        }
+        return security.hasIdentityConfig() ? null : "anonymous";
+    }
+
+    /**
+     * Returns a key identifying an instance managed by the application, which
+     * has a single principal.
+     */
+    static String principalKey(HazelcastInstance instance) {
+        return "instance:" + instance.getName() + ':' + System.identityHashCode(instance);
+    }
+
+    private static String passwordKey(String name, String password) {
+        return "user:" + name + ':' + digest(String.valueOf(password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String digest(byte[] secret) {
+        try {
+            return new BigInteger(1, MessageDigest.getInstance("SHA-256").digest(secret)).toString(Character.MAX_RADIX);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Invalidates the results affected by a statement executed through the
+     * driver on the cluster of the URL, in the caches of all principals.
+     */
+    static void invalidate(JdbcUrl url, String sql, SqlStatementType type) {
+        if (type == SqlStatementType.QUERY || type == SqlStatementType.OTHER || CACHES.isEmpty()) {
+            return;
+        }
+        String mapping = type == SqlStatementType.DML ? dmlTarget(sql) : null;
+        String prefix = clusterKey(url) + '|';
+        for (Map.Entry<String, ResultCache> cache : CACHES.entrySet()) {
+            if (cache.getKey().startsWith(prefix)) {
+                cache.getValue().invalidate(mapping);
+            }
+        }
+    }
+
+    /**
+     * Returns the name of the mapping updated by the DML statement in lower
+     * case, or {@code null} if it can't be determined.
+     */
+    static String dmlTarget(String sql) {
+        Matcher matcher = DML_TARGET.matcher(SqlFingerprint.of(sql));
+        if (!matcher.matches()) {
+            return null;
+        }
+        String name = matcher.group(1);
+        int lastDot = name.lastIndexOf('.');
+        name = name.substring(lastDot + 1).trim();
+        if (name.startsWith("\"")) {
+            name = name.substring(1, name.length() - 1);
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the identifiers and keywords of the query in lower case, the
+     * quoted identifiers without the quotes, which include the names of the
+     * mappings it reads.
+     */
+    static Set<String> identifiers(String sql) {
+        Set<String> identifiers = new HashSet<>();
+        Matcher matcher = IDENTIFIER_TOKEN.matcher(SqlFingerprint.of(sql));
+        while (matcher.find()) {
+            String identifier = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+            identifiers.add(identifier.toLowerCase(Locale.ROOT));
+        }
+        return identifiers;
+    }
+
+    /**
+     * Returns the cached result, or {@code null} if not cached or expired.
+     */
+    synchronized SqlResult get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.createdNanos >= ttlNanos) {
+            remove(key);
+            return null;
+        }
+        // new rows over copies of the values, so that each reader deserializes the objects again
+        List<SqlRow> rows = new ArrayList<>(entry.rows.size());
+        for (Object[] values : entry.rows) {
+            rows.add(FixedRowsSqlResult.row(entry.metadata, serializationService, values.clone()));
+        }
+        return new FixedRowsSqlResult(entry.metadata, rows);
+    }
+
+    /**
+     * Returns the current generation, to be passed to {@link #caching} for a
+     * statement which is about to be executed.
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Returns a result which caches the rows of the given result once they
+     * were all read, unless the cache was invalidated since the {@code
+     * generation} was obtained.
+     */
+    SqlResult caching(Key key, long generation, SqlResult result) {
+        SqlResult target = TrackedSqlResult.untracked(result);
+        if (target instanceof AbstractSqlResult && ((AbstractSqlResult) target).isInfiniteRows()) {
+            return result;
+        }
+        return new CachingSqlResult(result, this, key, generation);
+    }
+
+    long maxEntryBytes() {
+        return maxBytes / MAX_ENTRY_FRACTION;
+    }
+
+    /**
+     * Returns the values of a row to be cached, with the values of the
+     * {@code OBJECT} columns serialized, or {@code null} if some value can't
+     * be serialized.
+     */
+    Object[] cachedValues(SqlRowMetadata metadata, Object[] values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null && metadata.getColumn(i).getType() == SqlColumnType.OBJECT) {
+                    values[i] = serializationService.toData(values[i]);
+                }
+            }
+        } catch (HazelcastSerializationException e) {
+            return null;
+        }
+        return values;
+    }
+
+    synchronized void put(Key key, long expectedGeneration, SqlRowMetadata metadata, List<Object[]> rows, long bytes) {
+        if (expectedGeneration != generation || bytes > maxEntryBytes()) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry(metadata, rows, bytes, identifiers(key.sql)));
+        usedBytes += bytes;
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext()) {
+            usedBytes -= iterator.next().getValue().bytes;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes the results of the queries with an identifier equal to the
+     * mapping name in lower case, or all results if the mapping is {@code
+     * null}.
+     */
+    synchronized void invalidate(String mapping) {
+        generation++;
+        if (mapping == null) {
+            entries.clear();
+            usedBytes = 0;
+            return;
+        }
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> entry = iterator.next();
+            if (entry.getValue().identifiers.contains(mapping)) {
+                usedBytes -= entry.getValue().bytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            usedBytes -= removed.bytes;
+        }
+    }
+
+    /**
+     * Returns the deserialized values of the row, or {@code null} if some
+     * value can't be deserialized.
+     */
+    static Object[] copyValues(SqlRow row, int columnCount) {
+        Object[] values = new Object[columnCount];
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                values[i] = row.getObject(i);
+            }
+        } catch (RuntimeException e) {
+            // the application gets the error when reading the value
+            return null;
+        }
+        return values;
+    }
+
+    /**
+     * Returns the estimated memory used by a cached row with the given values.
+     */
+    static long estimateBytes(Object[] values) {
+        long bytes = ROW_OVERHEAD_BYTES + (long) values.length * REFERENCE_BYTES;
+        for (Object value : values) {
+            bytes += estimateBytes(value);
+        }
+        return bytes;
+    }
+
+    private static long estimateBytes(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return OBJECT_BYTES * 2 + 2L * ((String) value).length();
+        }
+        if (value instanceof byte[]) {
+            return OBJECT_BYTES + ((byte[]) value).length;
+        }
+        if (value instanceof Number && !(value instanceof BigDecimal)) {
+            return OBJECT_BYTES + REFERENCE_BYTES;
+        }
+        return LARGE_OBJECT_BYTES;
+    }
+
+    /**
+     * The key of a cached result: the statement, its parameters and the
+     * schema it was executed in.
+     */
+    static final class Key {
+
+        private final String sql;
+        private final String schema;
+        private final List<Object> parameters;
+
+        Key(String sql, String schema, List<Object> parameters) {
+            this.sql = sql;
+            this.schema = schema;
+            this.parameters = new ArrayList<>(parameters);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return sql.equals(key.sql) && Objects.equals(schema, key.schema) && parameters.equals(key.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, schema, parameters);
+        }
+    }
+
+    private static final class Entry {
+
+        private final SqlRowMetadata metadata;
+        private final List<Object[]> rows;
+        private final long bytes;
+        private final Set<String> identifiers;
+        private final long createdNanos = System.nanoTime();
+
+        Entry(SqlRowMetadata metadata, List<Object[]> rows, long bytes, Set<String> identifiers) {
+            this.metadata = metadata;
+            this.rows = rows;
+            this.bytes = bytes;
+            this.identifiers = identifiers;
+        }
+    }
+}
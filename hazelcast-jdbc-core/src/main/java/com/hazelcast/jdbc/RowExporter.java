@@ -0,0 +1,434 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.sql.SqlColumnType;
+import com.hazelcast.sql.SqlRow;
+import com.hazelcast.sql.SqlRowMetadata;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Encodes the rows of a query into pooled direct buffers in one of the
+ * {@link ExportFormat}s. The integers and the strings are encoded without
+ * intermediate objects. A full buffer is written to the channel by another
+ * thread while the next one is filled, so that the fetching and the encoding
+ * of the rows overlap with the writes.
+ */
+final class RowExporter {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int POOL_SIZE = 16;
+    private static final BlockingQueue<ByteBuffer> POOL = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /** The longest encoding of a char, and of a long in decimal. */
+    private static final int MAX_CHAR_BYTES = 6;
+    private static final int MAX_LONG_DIGITS = 20;
+
+    private static final int RADIX = 10;
+    private static final int CONTROL_LIMIT = 0x20;
+    private static final int ONE_BYTE_LIMIT = 0x80;
+    private static final int TWO_BYTES_LIMIT = 0x800;
+    private static final int CONTINUATION = 0x80;
+    private static final int CONTINUATION_MASK = 0x3F;
+    private static final int TWO_BYTES_PREFIX = 0xC0;
+    private static final int THREE_BYTES_PREFIX = 0xE0;
+    private static final int FOUR_BYTES_PREFIX = 0xF0;
+    private static final int SHIFT_1 = 6;
+    private static final int SHIFT_2 = 12;
+    private static final int SHIFT_3 = 18;
+    private static final int HEX_SHIFT = 4;
+    private static final int HEX_MASK = 0xF;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final byte[] TRUE = bytes("true");
+    private static final byte[] FALSE = bytes("false");
+    private static final byte[] NULL = bytes("null");
+    private static final byte[] CRLF = bytes("\r\n");
+
+    private final ExportFormat format;
+    private final WritableByteChannel channel;
+    private final SqlColumnType[] types;
+
+    /** The encoded column names, {@code "name":} for JSON. */
+    private final byte[][] names;
+
+    private final byte[] digits = new byte[MAX_LONG_DIGITS];
+    private ByteBuffer buffer = acquire();
+    private Future<?> pending;
+    private long rowCount;
+
+    RowExporter(ExportFormat format, SqlRowMetadata metadata, WritableByteChannel channel) {
+        this.format = format;
+        this.channel = channel;
+        types = new SqlColumnType[metadata.getColumnCount()];
+        names = new byte[types.length][];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = metadata.getColumn(i).getType();
+            names[i] = encodedName(metadata.getColumn(i).getName(), format);
+        }
+    }
+
+    private static byte[] encodedName(String name, ExportFormat format) {
+        StringBuilder builder = new StringBuilder();
+        if (format == ExportFormat.JSON_LINES) {
+            builder.append('"');
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c == '"' || c == '\\') {
+                    builder.append('\\').append(c);
+                } else if (c < CONTROL_LIMIT) {
+                    builder.append(String.format("\\u%04x", (int) c));
+                } else {
+                    builder.append(c);
+                }
+            }
+            builder.append("\":");
+        } else if (needsQuotes(name)) {
+            builder.append('"').append(name.replace("\"", "\"\"")).append('"');
+        } else {
+            builder.append(name);
+        }
+        return bytes(builder.toString());
+    }
+
+    /**
+     * Writes the header row, if the format has one.
+     */
+    void start() throws SQLException {
+        if (format == ExportFormat.CSV) {
+            for (int i = 0; i < names.length; i++) {
+                if (i > 0) {
+                    put((byte) ',');
+                }
+                put(names[i]);
+            }
+            put(CRLF);
+        }
+    }
+
+    void add(SqlRow row) throws SQLException {
+        boolean json = format == ExportFormat.JSON_LINES;
+        if (json) {
+            put((byte) '{');
+        }
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) {
+                put((byte) ',');
+            }
+            if (json) {
+                put(names[i]);
+            }
+            Object value = row.getObject(i);
+            if (value != null) {
+                writeValue(types[i], value);
+            } else if (json) {
+                put(NULL);
+            }
+        }
+        if (json) {
+            put((byte) '}');
+            put((byte) '\n');
+        } else {
+            put(CRLF);
+        }
+        rowCount++;
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Writes the remaining rows and waits until they're written.
+     */
+    void finish() throws SQLException {
+        flush();
+        await();
+        release(buffer);
+        buffer = null;
+    }
+
+    /**
+     * Waits for the write in progress, if any, ignoring its failure.
+     */
+    void abort() {
+        try {
+            await();
+        } catch (SQLException ignored) {
+            // the export already failed
+        }
+        if (buffer != null) {
+            release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void writeValue(SqlColumnType type, Object value) throws SQLException {
+        switch (type) {
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+                writeLong(((Number) value).longValue());
+                break;
+            case BOOLEAN:
+                put((Boolean) value ? TRUE : FALSE);
+                break;
+            case REAL:
+            case DOUBLE:
+                writeDouble(((Number) value).doubleValue());
+                break;
+            case DECIMAL:
+                writeAscii(((BigDecimal) value).toPlainString());
+                break;
+            case JSON:
+                writeJson(value.toString());
+                break;
+            default:
+                writeString(value.toString());
+                break;
+        }
+    }
+
+    private void writeJson(String value) throws SQLException {
+        if (format == ExportFormat.JSON_LINES) {
+            // already a JSON value
+            writeUtf8(value, false);
+        } else {
+            writeString(value);
+        }
+    }
+
+    private void writeDouble(double value) throws SQLException {
+        if (Double.isFinite(value) || format == ExportFormat.CSV) {
+            writeAscii(Double.toString(value));
+        } else {
+            // NaN and the infinities aren't JSON numbers
+            writeString(Double.toString(value));
+        }
+    }
+
+    private void writeLong(long value) throws SQLException {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        ensure(MAX_LONG_DIGITS);
+        long remaining = Math.abs(value);
+        int start = digits.length;
+        do {
+            digits[--start] = (byte) ('0' + remaining % RADIX);
+            remaining /= RADIX;
+        } while (remaining != 0);
+        if (value < 0) {
+            digits[--start] = '-';
+        }
+        buffer.put(digits, start, digits.length - start);
+    }
+
+    private void writeAscii(String value) throws SQLException {
+        for (int i = 0; i < value.length(); i++) {
+            put((byte) value.charAt(i));
+        }
+    }
+
+    /**
+     * Writes a string, quoted and escaped as needed by the format.
+     */
+    private void writeString(String value) throws SQLException {
+        if (format == ExportFormat.JSON_LINES) {
+            put((byte) '"');
+            writeUtf8(value, true);
+            put((byte) '"');
+        } else if (needsQuotes(value)) {
+            put((byte) '"');
+            writeUtf8(value, true);
+            put((byte) '"');
+        } else {
+            writeUtf8(value, false);
+        }
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeUtf8(String value, boolean escape) throws SQLException {
+        for (int i = 0; i < value.length(); i++) {
+            ensure(MAX_CHAR_BYTES);
+            char c = value.charAt(i);
+            if (c < ONE_BYTE_LIMIT) {
+                if (escape) {
+                    writeEscaped(c);
+                } else {
+                    buffer.put((byte) c);
+                }
+            } else if (c < TWO_BYTES_LIMIT) {
+                buffer.put((byte) (TWO_BYTES_PREFIX | c >> SHIFT_1));
+                buffer.put((byte) (CONTINUATION | c & CONTINUATION_MASK));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (FOUR_BYTES_PREFIX | codePoint >> SHIFT_3));
+                buffer.put((byte) (CONTINUATION | codePoint >> SHIFT_2 & CONTINUATION_MASK));
+                buffer.put((byte) (CONTINUATION | codePoint >> SHIFT_1 & CONTINUATION_MASK));
+                buffer.put((byte) (CONTINUATION | codePoint & CONTINUATION_MASK));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate, replaced like String.getBytes does
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (THREE_BYTES_PREFIX | c >> SHIFT_2));
+                buffer.put((byte) (CONTINUATION | c >> SHIFT_1 & CONTINUATION_MASK));
+                buffer.put((byte) (CONTINUATION | c & CONTINUATION_MASK));
+            }
+        }
+    }
+
+    /**
+     * Writes an ASCII char of a quoted string, escaped as needed by the format.
+     */
+    private void writeEscaped(char c) {
+        if (format == ExportFormat.CSV) {
+            if (c == '"') {
+                buffer.put((byte) '"');
+            }
+            buffer.put((byte) c);
+        } else if (c == '"' || c == '\\') {
+            buffer.put((byte) '\\').put((byte) c);
+        } else if (c == '\n') {
+            buffer.put((byte) '\\').put((byte) 'n');
+        } else if (c == '\r') {
+            buffer.put((byte) '\\').put((byte) 'r');
+        } else if (c == '\t') {
+            buffer.put((byte) '\\').put((byte) 't');
+        } else if (c < CONTROL_LIMIT) {
+            buffer.put((byte) '\\').put((byte) 'u').put((byte) '0').put((byte) '0')
+                    .put((byte) HEX[c >> HEX_SHIFT]).put((byte) HEX[c & HEX_MASK]);
+        } else {
+            buffer.put((byte) c);
+        }
+    }
+
+    private void put(byte value) throws SQLException {
+        ensure(1);
+        buffer.put(value);
+    }
+
+    private void put(byte[] value) throws SQLException {
+        for (int offset = 0; offset < value.length; ) {
+            ensure(1);
+            int length = Math.min(buffer.remaining(), value.length - offset);
+            buffer.put(value, offset, length);
+            offset += length;
+        }
+    }
+
+    private void ensure(int bytes) throws SQLException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Hands the buffer to the writer thread, once the previous one is written.
+     */
+    private void flush() throws SQLException {
+        await();
+        ByteBuffer full = buffer;
+        full.flip();
+        buffer = acquire();
+        pending = Writers.EXECUTOR.submit(() -> {
+            try {
+                while (full.hasRemaining()) {
+                    channel.write(full);
+                }
+            } finally {
+                release(full);
+            }
+            return null;
+        });
+    }
+
+    private void await() throws SQLException {
+        if (pending == null) {
+            return;
+        }
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            pending.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while writing the exported rows", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof IOException ? e.getCause() : e;
+            throw new SQLException("Failed to write the exported rows: " + cause.getMessage(), cause);
+        } finally {
+            pending = null;
+        }
+    }
+
+    private static ByteBuffer acquire() {
+        ByteBuffer buffer = POOL.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    private static void release(ByteBuffer buffer) {
+        buffer.clear();
+        POOL.offer(buffer);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(UTF_8);
+    }
+
+    /**
+     * Holder of the threads writing the exported rows, created on first use.
+     */
+    private static final class Writers {
+
+        private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 1, TimeUnit.MINUTES,
+                new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "hz-jdbc-export-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        private Writers() {
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.sql.SqlRow;
+import com.hazelcast.sql.SqlRowMetadata;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the rows of a result to instances of a class, see {@link
+ * HazelcastResultSet#mapTo}. The columns are bound once per class and row
+ * metadata to the parameters of a constructor, or to the setters and fields
+ * of an instance created by the no-argument constructor, invoked through
+ * method handles, with a converter for each column.
+ */
+final class RowMapper<T> {
+
+    /** Maximum number of row metadata with a mapper cached for a class. */
+    static final int MAX_SHAPES = 64;
+
+    private static final ClassValue<Map<SqlRowMetadata, RowMapper<?>>> MAPPERS =
+            new ClassValue<Map<SqlRowMetadata, RowMapper<?>>>() {
+                @Override
+                protected Map<SqlRowMetadata, RowMapper<?>> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class, Object[].class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<T> type;
+
+    /** The constructor, taking its arguments as an array. */
+    private final MethodHandle constructor;
+    private final int[] argumentColumns;
+    private final Converter[] argumentConverters;
+
+    private final int[] propertyColumns;
+    private final MethodHandle[] setters;
+    private final Converter[] propertyConverters;
+
+    private RowMapper(Class<T> type, MethodHandle constructor, List<Binding> arguments, List<Binding> properties) {
+        this.type = type;
+        this.constructor = constructor.asSpreader(Object[].class, arguments.size()).asType(CONSTRUCTOR_TYPE);
+        argumentColumns = new int[arguments.size()];
+        argumentConverters = new Converter[arguments.size()];
+        for (int i = 0; i < arguments.size(); i++) {
+            argumentColumns[i] = arguments.get(i).column;
+            argumentConverters[i] = arguments.get(i).converter;
+        }
+        propertyColumns = new int[properties.size()];
+        setters = new MethodHandle[properties.size()];
+        propertyConverters = new Converter[properties.size()];
+        for (int i = 0; i < properties.size(); i++) {
+            propertyColumns[i] = properties.get(i).column;
+            setters[i] = properties.get(i).setter.asType(SETTER_TYPE);
+            propertyConverters[i] = properties.get(i).converter;
+        }
+    }
+
+    /**
+     * Returns the mapper of the rows with the given metadata to the given
+     * class, binding the columns on first use.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> RowMapper<T> of(Class<T> type, SqlRowMetadata metadata) throws SQLException {
+        Map<SqlRowMetadata, RowMapper<?>> mappers = MAPPERS.get(type);
+        RowMapper<?> mapper = mappers.get(metadata);
+        if (mapper == null) {
+            mapper = bind(type, metadata);
+            if (mappers.size() < MAX_SHAPES) {
+                mappers.putIfAbsent(metadata, mapper);
+            }
+        }
+        return (RowMapper<T>) mapper;
+    }
+
+    Class<T> getType() {
+        return type;
+    }
+
+    T map(SqlRow row) throws SQLException {
+        Object[] arguments = new Object[argumentColumns.length];
+        for (int i = 0; i < arguments.length; i++) {
+            arguments[i] = argumentConverters[i].convert(row.getObject(argumentColumns[i]));
+        }
+        try {
+            Object instance = (Object) constructor.invokeExact(arguments);
+            for (int i = 0; i < setters.length; i++) {
+                setters[i].invokeExact(instance, propertyConverters[i].convert(row.getObject(propertyColumns[i])));
+            }
+            return type.cast(instance);
+        } catch (SQLException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new SQLException("Failed to map the row to " + type.getName() + ": " + e, e);
+        }
+    }
+
+    private static <T> RowMapper<T> bind(Class<T> type, SqlRowMetadata metadata) throws SQLException {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = metadata.getColumnCount() - 1; i >= 0; i--) {
+            columns.put(normalize(metadata.getColumn(i).getName()), i);
+        }
+        try {
+            Constructor<?> noArgs = null;
+            Constructor<?> best = null;
+            List<Binding> bestArguments = null;
+            for (Constructor<?> candidate : type.getConstructors()) {
+                if (candidate.getParameterCount() == 0) {
+                    noArgs = candidate;
+                    continue;
+                }
+                List<Binding> arguments = arguments(candidate, columns);
+                if (arguments != null && (best == null || arguments.size() > bestArguments.size())) {
+                    best = candidate;
+                    bestArguments = arguments;
+                }
+            }
+            if (best != null) {
+                return new RowMapper<>(type, unreflect(best), bestArguments, new ArrayList<>());
+            }
+            if (noArgs == null) {
+                throw new SQLException("Class " + type.getName() + " has neither a public constructor with parameters "
+                        + "named after the columns nor a public no-argument constructor");
+            }
+            List<Binding> properties = properties(type, columns);
+            if (properties.isEmpty()) {
+                throw new SQLException("No column matches a setter or a field of " + type.getName());
+            }
+            return new RowMapper<>(type, unreflect(noArgs), new ArrayList<>(), properties);
+        } catch (IllegalAccessException e) {
+            throw new SQLException("Can't access the members of " + type.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the bindings of the parameters of the constructor, or {@code
+     * null} if the parameter names aren't known or don't match the columns.
+     */
+    private static List<Binding> arguments(Constructor<?> constructor, Map<String, Integer> columns) {
+        List<Binding> arguments = new ArrayList<>();
+        for (Parameter parameter : constructor.getParameters()) {
+            Integer column = parameter.isNamePresent() ? columns.get(normalize(parameter.getName())) : null;
+            if (column == null) {
+                return null;
+            }
+            arguments.add(new Binding(column, null, converter(parameter.getType())));
+        }
+        return arguments;
+    }
+
+    private static List<Binding> properties(Class<?> type, Map<String, Integer> columns) throws IllegalAccessException {
+        Map<Integer, Binding> properties = new HashMap<>();
+        for (Field field : type.getFields()) {
+            Integer column = columns.get(normalize(field.getName()));
+            if (column != null && !Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+                properties.put(column, new Binding(column, lookup(field).unreflectSetter(field), converter(field.getType())));
+            }
+        }
+        // the setters take precedence over the fields
+        for (Method method : type.getMethods()) {
+            String name = method.getName();
+            Integer column = name.startsWith("set") ? columns.get(normalize(name.substring("set".length()))) : null;
+            if (column != null && method.getParameterCount() == 1 && !Modifier.isStatic(method.getModifiers())) {
+                properties.put(column, new Binding(column, lookup(method).unreflect(method),
+                        converter(method.getParameterTypes()[0])));
+            }
+        }
+        return new ArrayList<>(properties.values());
+    }
+
+    private static MethodHandle unreflect(Constructor<?> constructor) throws IllegalAccessException {
+        return lookup(constructor).unreflectConstructor(constructor);
+    }
+
+    /**
+     * Returns the lookup of the driver, after making the member accessible if
+     * possible, since the public members of a class which isn't public, like
+     * a nested record, aren't accessible otherwise.
+     */
+    private static MethodHandles.Lookup lookup(AccessibleObject member) {
+        try {
+            member.setAccessible(true);
+        } catch (RuntimeException ignored) {
+            // not open to the driver, accessible only if the class is public
+        }
+        return MethodHandles.lookup();
+    }
+
+    /**
+     * Returns the name of a column or a member without case and underscores,
+     * so that {@code order_id} matches {@code orderId}.
+     */
+    private static String normalize(String name) {
+        return name.replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the converter of the values to the given type. A null value is
+     * converted to the default value of a primitive type.
+     */
+    private static Converter converter(Class<?> target) {
+        Class<?> boxed = MethodType.methodType(target).wrap().returnType();
+        if (boxed == Object.class) {
+            return value -> value;
+        }
+        Object nullValue = target.isPrimitive() ? Array.get(Array.newInstance(target, 1), 0) : null;
+        return value -> {
+            if (value == null) {
+                return nullValue;
+            }
+            return boxed.isInstance(value) ? value : TypeConverter.convertTo(value, boxed);
+        };
+    }
+
+    /**
+     * Converts the value of a column to the type of its parameter or property.
+     */
+    @FunctionalInterface
+    private interface Converter {
+        Object convert(Object value) throws SQLException;
+    }
+
+    private static final class Binding {
+
+        private final int column;
+        private final MethodHandle setter;
+        private final Converter converter;
+
+        Binding(int column, MethodHandle setter, Converter converter) {
+            this.column = column;
+            this.setter = setter;
+            this.converter = converter;
+        }
+    }
+}
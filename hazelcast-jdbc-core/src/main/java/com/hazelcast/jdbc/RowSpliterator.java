@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.sql.SqlRow;
+
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * The spliterator of {@link HazelcastResultSet#stream}. A split takes the
+ * rows already fetched from the cluster, at least one, in batches growing by
+ * {@value #BATCH_UNIT} rows, so that they're processed by other threads while
+ * the cursor fetches the next page. Like the result set, the spliterator is
+ * read by one thread at a time, the splits being read concurrently.
+ */
+final class RowSpliterator implements Spliterator<SqlRow> {
+
+    static final int BATCH_UNIT = 1024;
+    static final int MAX_BATCH = 33_554_432;
+
+    private static final int CHARACTERISTICS = ORDERED | NONNULL;
+
+    private final JdbcResultSet resultSet;
+    private int batch;
+
+    RowSpliterator(JdbcResultSet resultSet) {
+        this.resultSet = resultSet;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super SqlRow> action) {
+        SqlRow row = nextRow();
+        if (row == null) {
+            return false;
+        }
+        action.accept(row);
+        return true;
+    }
+
+    @Override
+    public Spliterator<SqlRow> trySplit() {
+        Object[] rows = new Object[Math.min(batch + BATCH_UNIT, MAX_BATCH)];
+        int count = 0;
+        while (count < rows.length && (count == 0 || resultSet.isRowFetched())) {
+            SqlRow row = nextRow();
+            if (row == null) {
+                break;
+            }
+            rows[count++] = row;
+        }
+        if (count == 0) {
+            return null;
+        }
+        batch = count;
+        return Spliterators.spliterator(rows, 0, count, CHARACTERISTICS);
+    }
+
+    @Override
+    public long estimateSize() {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return CHARACTERISTICS;
+    }
+
+    private SqlRow nextRow() {
+        try {
+            return resultSet.next() ? resultSet.getCurrentRow() : null;
+        } catch (SQLException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+}
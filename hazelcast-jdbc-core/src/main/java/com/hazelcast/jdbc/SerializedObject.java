@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.AbstractGenericRecord;
+import com.hazelcast.internal.serialization.impl.InternalGenericRecord;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * The serialized form of a value of a column, returned by {@link
+ * HazelcastResultSet#getSerializedObject}. The value is deserialized only
+ * when it's read, and a single field of a value serialized with Compact or
+ * Portable can be read without deserializing the whole value.
+ */
+public final class SerializedObject {
+
+    private final Data data;
+    private final InternalSerializationService serializationService;
+    private Object object;
+    private InternalGenericRecord record;
+
+    SerializedObject(Data data, InternalSerializationService serializationService) {
+        this.data = data;
+        this.serializationService = serializationService;
+    }
+
+    /**
+     * Returns the serialized value in the Hazelcast binary format, which can
+     * be deserialized by any client or member configured with the
+     * serializers of the value.
+     */
+    public byte[] toByteArray() {
+        return data.toByteArray();
+    }
+
+    /**
+     * Returns whether the value is serialized with Compact.
+     */
+    public boolean isCompact() {
+        return data.isCompact();
+    }
+
+    /**
+     * Returns whether the value is serialized with Portable.
+     */
+    public boolean isPortable() {
+        return data.isPortable();
+    }
+
+    /**
+     * Returns the deserialized value, deserializing it on the first call.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getObject() throws SQLException {
+        if (object == null) {
+            try {
+                object = serializationService.toObject(data);
+            } catch (RuntimeException e) {
+                throw new SQLException("Failed to deserialize the value: " + e.getMessage(), e);
+            }
+        }
+        return (T) object;
+    }
+
+    /**
+     * Returns the value of a top-level field of a value serialized with
+     * Compact or Portable, without deserializing the other fields. A nested
+     * Compact or Portable value is returned as a {@code GenericRecord}.
+     */
+    public <T> T getField(String name) throws SQLException {
+        if (!data.isCompact() && !data.isPortable()) {
+            throw new SQLException("The value isn't serialized with Compact or Portable");
+        }
+        if (record == null) {
+            try {
+                record = serializationService.readAsInternalGenericRecord(data);
+            } catch (IOException | RuntimeException e) {
+                throw new SQLException("Failed to read the value: " + e.getMessage(), e);
+            }
+        }
+        if (!record.hasField(name)) {
+            throw new SQLException("The value has no field '" + name + "'");
+        }
+        return ((AbstractGenericRecord) record).readAny(name);
+    }
+
+    @Override
+    public String toString() {
+        return "SerializedObject{type=" + data.getType() + ", size=" + data.totalSize() + '}';
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.nio.serialization.HazelcastSerializationException;
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlStatement;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes the statements of a connection to one of several independent
+ * clusters, the shards, listed in the URL separated by {@code ;}. The shard
+ * of a statement is chosen by a {@link ShardingFunction}, by default from the
+ * hash of the serialized value of the parameter set by the {@code
+ * shardKeyParameter} property.
+ * The statements without a shard are executed by all shards in parallel, and
+ * their results are merged.
+ */
+final class ShardRouter implements StatementRouter {
+
+    /** The URL property with the class name of the {@link ShardingFunction}. */
+    static final String SHARDING_FUNCTION_PROPERTY = "shardingFunction";
+
+    /** The URL property with the 1-based index of the parameter with the shard key. */
+    static final String SHARD_KEY_PARAMETER_PROPERTY = "shardKeyParameter";
+
+    private final List<HazelcastSqlClient> shards;
+    private volatile boolean shutdown;
+    private final ShardingFunction function;
+
+    ShardRouter(JdbcUrl url, ClientConfig config) {
+        function = function(url);
+        List<List<String>> clusterAuthorities = url.getClusterAuthorities();
+        List<String> names = ClusterRouter.clusterNames(url, config, clusterAuthorities.size());
+        List<HazelcastSqlClient> list = new ArrayList<>(clusterAuthorities.size());
+        try {
+            for (int i = 0; i < clusterAuthorities.size(); i++) {
+                List<String> addresses = clusterAuthorities.get(i);
+                list.add(new HazelcastSqlClient(ClusterRouter.clusterUrl(addresses, url),
+                        ClusterRouter.clusterConfig(names.get(i), addresses, config)));
+            }
+        } catch (RuntimeException e) {
+            list.forEach(HazelcastSqlClient::shutdown);
+            throw e;
+        }
+        shards = Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Returns whether the URL configures a sharded connection.
+     */
+    static boolean isSharded(JdbcUrl url) {
+        return url.getProperty(SHARDING_FUNCTION_PROPERTY) != null || url.getProperty(SHARD_KEY_PARAMETER_PROPERTY) != null;
+    }
+
+    private static ShardingFunction function(JdbcUrl url) {
+        String className = url.getProperty(SHARDING_FUNCTION_PROPERTY);
+        if (className == null) {
+            long parameter = HazelcastConfigFactory.parseLong(url, SHARD_KEY_PARAMETER_PROPERTY, 0);
+            if (parameter < 1 || parameter > Integer.MAX_VALUE) {
+                throw new RuntimeException(String.format("'%s' must be a parameter index starting at 1, '%s'",
+                        SHARD_KEY_PARAMETER_PROPERTY, parameter));
+            }
+            return new KeyParameterFunction((int) parameter - 1);
+        }
+        try {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            Class<?> functionClass = Class.forName(className, true,
+                    classLoader != null ? classLoader : ShardRouter.class.getClassLoader());
+            return (ShardingFunction) functionClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new RuntimeException(String.format("'%s' not a sharding function, '%s'",
+                    SHARDING_FUNCTION_PROPERTY, className), e);
+        }
+    }
+
+    @Override
+    public SqlResult execute(SqlStatement statement) throws SQLException {
+        int shard = function.shard(statement.getSql(), statement.getParameters(), shards.size());
+        if (shard == ShardingFunction.ALL_SHARDS) {
+            return executeAll(statement);
+        }
+        if (shard < 0 || shard >= shards.size()) {
+            throw new SQLException("The sharding function returned the shard " + shard + ", the connection has "
+                    + shards.size() + " shards");
+        }
+        return shards.get(shard).execute(statement);
+    }
+
+    private SqlResult executeAll(SqlStatement statement) throws SQLException {
+        // parsed first, so that a query which can't be merged isn't executed
+        QueryOrder order = SqlStatementType.of(statement.getSql()) == SqlStatementType.QUERY
+                ? QueryOrder.parse(statement.getSql(), statement.getParameters())
+                : QueryOrder.NONE;
+        List<Callable<SqlResult>> tasks = new ArrayList<>(shards.size());
+        for (HazelcastSqlClient shard : shards) {
+            tasks.add(() -> shard.execute(statement));
+        }
+        List<Future<SqlResult>> futures;
+        try {
+            futures = Scatter.EXECUTOR.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while executing the statement on the shards", e);
+        }
+        return MergedSqlResult.merge(results(futures), order);
+    }
+
+    /**
+     * Returns the results of all shards, or closes them and throws the first
+     * failure.
+     */
+    static List<SqlResult> results(List<Future<SqlResult>> futures) throws SQLException {
+        List<SqlResult> results = new ArrayList<>(futures.size());
+        Throwable failure = null;
+        for (Future<SqlResult> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            } catch (InterruptedException e) {
+                // not reached, the tasks are completed
+                Thread.currentThread().interrupt();
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure == null) {
+            return results;
+        }
+        MergedSqlResult.closeAll(results);
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        throw failure instanceof SQLException ? (SQLException) failure : new SQLException(failure.getMessage(), failure);
+    }
+
+    /**
+     * Returns the instance of the first shard.
+     */
+    @Override
+    public HazelcastInstance getClient() {
+        return shards.get(0).getClient();
+    }
+
+    @Override
+    public boolean isRunning() {
+        if (shutdown) {
+            return false;
+        }
+        // a hibernated shard is running
+        for (HazelcastSqlClient shard : shards) {
+            if (!shard.isRunning()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        shards.forEach(HazelcastSqlClient::shutdown);
+    }
+
+    List<HazelcastSqlClient> shards() {
+        return shards;
+    }
+
+    /**
+     * The default sharding function, choosing the shard from the hash of the
+     * serialized value of a parameter, the same in all JVMs and for equal
+     * arrays. The {@code TINYINT}, {@code SMALLINT} and {@code INTEGER} keys
+     * are hashed as {@code BIGINT}, so that a key set by {@code setInt} and
+     * {@code setLong} has the same shard, but a key of another type, e.g. a
+     * {@code DECIMAL} or a {@code VARCHAR}, has its own hash. The queries and
+     * the DDL statements with fewer parameters are executed by all shards,
+     * the DML statements fail.
+     */
+    static final class KeyParameterFunction implements ShardingFunction {
+
+        private final int parameter;
+        private final InternalSerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+
+        KeyParameterFunction(int parameter) {
+            this.parameter = parameter;
+        }
+
+        @Override
+        public int shard(String sql, List<Object> parameters, int shardCount) throws SQLException {
+            if (parameters.size() <= parameter) {
+                if (SqlStatementType.of(sql) == SqlStatementType.DML) {
+                    throw new SQLException("The shard key parameter " + (parameter + 1) + " isn't set, a DML "
+                            + "statement can't be executed by all shards");
+                }
+                return ALL_SHARDS;
+            }
+            Object key = parameters.get(parameter);
+            if (key == null) {
+                throw new SQLException("The shard key parameter " + (parameter + 1) + " is null");
+            }
+            if (key instanceof Byte || key instanceof Short || key instanceof Integer) {
+                key = ((Number) key).longValue();
+            }
+            Data data;
+            try {
+                data = serializationService.toData(key);
+            } catch (HazelcastSerializationException e) {
+                throw new SQLException("The shard key parameter " + (parameter + 1) + " can't be serialized: "
+                        + e.getMessage(), e);
+            }
+            return Math.floorMod(data.getPartitionHash(), shardCount);
+        }
+    }
+
+    /**
+     * Holder of the threads executing the statements on all shards, created
+     * on first use.
+     */
+    private static final class Scatter {
+
+        private static final ExecutorService EXECUTOR = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 1, TimeUnit.MINUTES,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "hz-jdbc-shard");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        private Scatter() {
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Chooses the shard executing a statement of a sharded connection. The
+ * implementation is set by the {@code shardingFunction} URL property, it must
+ * have a public no-argument constructor and must be thread-safe.
+ */
+public interface ShardingFunction {
+
+    /** The shard of the statements executed by all shards. */
+    int ALL_SHARDS = -1;
+
+    /**
+     * Returns the index of the shard executing the statement, in the order of
+     * the URL, or {@link #ALL_SHARDS}. The rows of a query executed by all
+     * shards are merged by the driver.
+     *
+     * @param sql        the SQL text of the statement
+     * @param parameters the parameters of the statement
+     * @param shardCount the number of shards
+     * @throws SQLException if the statement can't be routed
+     */
+    int shard(String sql, List<Object> parameters, int shardCount) throws SQLException;
+}
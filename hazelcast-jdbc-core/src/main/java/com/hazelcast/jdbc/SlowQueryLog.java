@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.logging.Logger;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Logs the statements whose execution took longer than a threshold. The
+ * time is measured in the driver: the execution until the first page of rows
+ * plus the waits for the following pages, the time the application spends
+ * processing the rows isn't included.
+ * <p>
+ * The entries are written by a background thread, if it can't keep up the
+ * entries are dropped rather than blocking the statements.
+ */
+final class SlowQueryLog {
+
+    /** The URL property with the threshold in milliseconds, the log is disabled if not set. */
+    static final String THRESHOLD_PROPERTY = "slowQueryThresholdMillis";
+
+    /** The URL property with the fraction of the executions which are checked, 1 by default. */
+    static final String SAMPLE_RATE_PROPERTY = "slowQuerySampleRate";
+
+    /** The URL property with the {@link ParameterCapture} mode, {@code none} by default. */
+    static final String PARAMETERS_PROPERTY = "slowQueryParameters";
+
+    static final int QUEUE_CAPACITY = 1024;
+    static final int MAX_PARAMETER_LENGTH = 100;
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final ParameterCapture parameterCapture;
+    private final ILogger logger;
+
+    SlowQueryLog(long thresholdMillis, double sampleRate, ParameterCapture parameterCapture, ILogger logger) {
+        this.thresholdNanos = MILLISECONDS.toNanos(thresholdMillis);
+        this.sampleRate = sampleRate;
+        this.parameterCapture = parameterCapture;
+        this.logger = logger;
+    }
+
+    /**
+     * Returns the log configured by the URL, or {@code null} if the threshold
+     * isn't set.
+     */
+    static SlowQueryLog create(JdbcUrl url) {
+        if (url.getProperty(THRESHOLD_PROPERTY) == null) {
+            return null;
+        }
+        long threshold = HazelcastConfigFactory.parseLong(url, THRESHOLD_PROPERTY, 0);
+        double sampleRate = HazelcastConfigFactory.parseFraction(url, SAMPLE_RATE_PROPERTY, 1);
+        String parameters = url.getProperty(PARAMETERS_PROPERTY);
+        ParameterCapture capture = ParameterCapture.NONE;
+        try {
+            if (parameters != null) {
+                capture = ParameterCapture.valueOf(parameters.toUpperCase(Locale.ROOT));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException(String.format("'%s' must be one of none, redacted or values, '%s'",
+                    PARAMETERS_PROPERTY, parameters), e);
+        }
+        return new SlowQueryLog(threshold, sampleRate, capture, Logger.getLogger(SlowQueryLog.class));
+    }
+
+    /**
+     * Returns whether the next execution should be checked.
+     */
+    boolean sample() {
+        return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    boolean capturesParameters() {
+        return parameterCapture != ParameterCapture.NONE;
+    }
+
+    boolean isSlow(long driverNanos) {
+        return driverNanos >= thresholdNanos;
+    }
+
+    /**
+     * Queues the entry to be logged, drops it if the queue is full.
+     */
+    void log(Entry entry) {
+        if (!Writer.QUEUE.offer(entry)) {
+            Writer.DROPPED.incrementAndGet();
+        }
+    }
+
+    /**
+     * How the parameters of the slow statements are logged.
+     */
+    enum ParameterCapture {
+        /** The parameters aren't logged. */
+        NONE,
+        /** Only the types of the parameters are logged. */
+        REDACTED,
+        /** The values of the parameters are logged, long values are truncated. */
+        VALUES
+    }
+
+    /**
+     * A slow statement execution, formatted on the writer thread.
+     */
+    static final class Entry {
+
+        private final SlowQueryLog log;
+        private final String sql;
+        private final String schema;
+        private final List<Object> parameters;
+        private final boolean success;
+        private final long driverNanos;
+        private final long executeNanos;
+        private final long firstRowNanos;
+        private final long rows;
+        private final long pages;
+
+        Entry(SlowQueryLog log, String sql, String schema, List<Object> parameters, boolean success,
+              long driverNanos, long executeNanos, long firstRowNanos, long rows, long pages) {
+            this.log = log;
+            this.sql = sql;
+            this.schema = schema;
+            this.parameters = parameters;
+            this.success = success;
+            this.driverNanos = driverNanos;
+            this.executeNanos = executeNanos;
+            this.firstRowNanos = firstRowNanos;
+            this.rows = rows;
+            this.pages = pages;
+        }
+
+        String format() {
+            StringBuilder message = new StringBuilder("Slow statement: ")
+                    .append(millis(driverNanos)).append(" ms (execute ").append(millis(executeNanos)).append(" ms");
+            if (firstRowNanos >= 0) {
+                message.append(", first row ").append(millis(firstRowNanos)).append(" ms");
+            }
+            message.append("), rows ").append(rows).append(", pages ").append(pages);
+            if (!success) {
+                message.append(", failed");
+            }
+            if (schema != null) {
+                message.append(", schema ").append(schema);
+            }
+            if (parameters != null) {
+                message.append(", parameters ");
+                appendParameters(message);
+            }
+            return message.append(": ").append(SqlFingerprint.of(sql)).toString();
+        }
+
+        private void appendParameters(StringBuilder message) {
+            message.append('[');
+            for (int i = 0; i < parameters.size(); i++) {
+                if (i > 0) {
+                    message.append(", ");
+                }
+                Object value = parameters.get(i);
+                if (value == null) {
+                    message.append("NULL");
+                } else if (log.parameterCapture == ParameterCapture.REDACTED) {
+                    message.append('<').append(value.getClass().getSimpleName()).append('>');
+                } else {
+                    String text = String.valueOf(value);
+                    message.append(text.length() > MAX_PARAMETER_LENGTH
+                            ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text);
+                }
+            }
+            message.append(']');
+        }
+
+        private static String millis(long nanos) {
+            return String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_MILLI);
+        }
+    }
+
+    /**
+     * Holder of the thread writing the entries, created on first use.
+     */
+    static final class Writer {
+
+        private static final BlockingQueue<Entry> QUEUE = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private static final AtomicLong DROPPED = new AtomicLong();
+
+        static {
+            Thread thread = new Thread(Writer::run, "hz-jdbc-slow-query-log");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private Writer() {
+        }
+
+        private static void run() {
+            try {
+                while (true) {
+                    Entry entry = QUEUE.take();
+                    ILogger logger = entry.log.logger;
+                    long dropped = DROPPED.getAndSet(0);
+                    if (dropped > 0) {
+                        logger.warning(dropped + " slow statements not logged, the log can't keep up");
+                    }
+                    try {
+                        logger.warning(entry.format());
+                    } catch (RuntimeException e) {
+                        logger.fine("Failed to log a slow statement", e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Normalizes SQL text so that statements differing only in literal values,
+ * comments and whitespace share the same fingerprint. String and numeric
+ * literals are replaced with {@code ?}, comments are removed and whitespace
+ * runs are collapsed to a single space.
+ */
+final class SqlFingerprint {
+
+    static final int MAX_CACHED = 1024;
+
+    private static final ConcurrentMap<String, String> CACHE = new ConcurrentHashMap<>();
+
+    private SqlFingerprint() {
+    }
+
+    /**
+     * Returns the fingerprint of the statement. The fingerprints of recently
+     * used statements are cached.
+     */
+    static String of(String sql) {
+        String fingerprint = CACHE.get(sql);
+        if (fingerprint == null) {
+            fingerprint = normalize(sql);
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            CACHE.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    static String normalize(String sql) {
+        StringBuilder result = new StringBuilder(sql.length());
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            int commentEnd = skipComment(sql, i);
+            if (commentEnd > i || Character.isWhitespace(c)) {
+                i = Math.max(commentEnd, i + 1);
+                appendSpace(result);
+            } else if (c == '\'') {
+                i = skipQuoted(sql, i, '\'');
+                result.append('?');
+            } else if (c == '"') {
+                int end = skipQuoted(sql, i, '"');
+                result.append(sql, i, end);
+                i = end;
+            } else if (Character.isDigit(c)) {
+                i = skipNumber(sql, i);
+                result.append('?');
+            } else if (isIdentifierPart(c)) {
+                int end = i;
+                while (end < sql.length() && isIdentifierPart(sql.charAt(end))) {
+                    end++;
+                }
+                result.append(sql, i, end);
+                i = end;
+            } else {
+                result.append(c);
+                i++;
+            }
+        }
+        int length = result.length();
+        if (length > 0 && result.charAt(length - 1) == ' ') {
+            result.setLength(length - 1);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns the index after the comment starting at the given index, or the
+     * index itself if there's no comment.
+     */
+    static int skipComment(String sql, int start) {
+        if (sql.startsWith("--", start)) {
+            int lineEnd = sql.indexOf('\n', start);
+            return lineEnd < 0 ? sql.length() : lineEnd + 1;
+        }
+        if (sql.startsWith("/*", start)) {
+            int commentEnd = sql.indexOf("*/", start + 2);
+            return commentEnd < 0 ? sql.length() : commentEnd + 2;
+        }
+        return start;
+    }
+
+    private static void appendSpace(StringBuilder result) {
+        int length = result.length();
+        if (length > 0 && result.charAt(length - 1) != ' ') {
+            result.append(' ');
+        }
+    }
+
+    /**
+     * Returns the index after the quoted text starting at the given index. A
+     * doubled quote character is an escaped quote.
+     */
+    static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the index after the numeric literal starting at the given index,
+     * including the fraction and the exponent.
+     */
+    static int skipNumber(String sql, int start) {
+        int i = start;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            boolean exponentSign = (c == '+' || c == '-') && (sql.charAt(i - 1) == 'e' || sql.charAt(i - 1) == 'E');
+            if (!Character.isLetterOrDigit(c) && c != '.' && !exponentSign) {
+                break;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The kind of an SQL statement, derived from its leading keyword. Used to
+ * split the driver metrics.
+ */
+public enum SqlStatementType {
+
+    /** {@code SELECT}, {@code WITH}, {@code VALUES} and {@code SHOW} statements. */
+    QUERY,
+
+    /** {@code INSERT}, {@code SINK}, {@code UPDATE} and {@code DELETE} statements. */
+    DML,
+
+    /** {@code CREATE}, {@code DROP} and {@code ALTER} statements. */
+    DDL,
+
+    /** Any other statement, for example {@code EXPLAIN}. */
+    OTHER;
+
+    private static final Map<String, SqlStatementType> KEYWORDS = new HashMap<>();
+
+    static {
+        for (String keyword : new String[]{"SELECT", "WITH", "VALUES", "SHOW"}) {
+            KEYWORDS.put(keyword, QUERY);
+        }
+        for (String keyword : new String[]{"INSERT", "SINK", "UPDATE", "DELETE"}) {
+            KEYWORDS.put(keyword, DML);
+        }
+        for (String keyword : new String[]{"CREATE", "DROP", "ALTER"}) {
+            KEYWORDS.put(keyword, DDL);
+        }
+    }
+
+    /**
+     * Returns the type of the given statement. Leading whitespace, comments
+     * and parentheses are skipped.
+     */
+    static SqlStatementType of(String sql) {
+        int start = skipToKeyword(sql);
+        int end = start;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        SqlStatementType type = KEYWORDS.get(sql.substring(start, end).toUpperCase(Locale.ROOT));
+        return type != null ? type : OTHER;
+    }
+
+    private static int skipToKeyword(String sql) {
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c) || c == '(') {
+                i++;
+            } else if (sql.startsWith("--", i)) {
+                int lineEnd = sql.indexOf('\n', i);
+                i = lineEnd < 0 ? sql.length() : lineEnd + 1;
+            } else if (sql.startsWith("/*", i)) {
+                int commentEnd = sql.indexOf("*/", i + 2);
+                i = commentEnd < 0 ? sql.length() : commentEnd + 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import java.util.List;
+
+/**
+ * Tracks a single execution of a statement and the result set it returned,
+ * and reports it to the {@link JdbcMetrics}, as {@link JfrEvents Flight
+ * Recorder events}, to the {@link StatementStats} and to the {@link
+ * SlowQueryLog}. Not thread-safe, it's used by the thread executing the
+ * statement and reading its result set.
+ */
+final class StatementExecution {
+
+    private static final JdbcMetrics METRICS = JdbcMetrics.getInstance();
+    private static final StatementStats STATS = StatementStats.getInstance();
+
+    private final String sql;
+    private final String schema;
+    private final SqlStatementType type;
+    private final long startNanos = System.nanoTime();
+    private Object jfrEvent = JfrEvents.beginExecute();
+
+    /** The log checking this execution, null if disabled or not sampled. */
+    private final SlowQueryLog slowQueryLog;
+    /** The parameters to log, null if not captured. */
+    private final List<Object> parameters;
+
+    private boolean executed;
+    private boolean rowSet;
+    private boolean closed;
+    private long executeNanos;
+    private long firstRowNanos = -1;
+    private long rows;
+    private long pages;
+    private long pageFetchStartNanos;
+    private long pageFetchNanos;
+    private Object pageFetchJfrEvent;
+
+    StatementExecution(String sql, String schema, List<Object> parameters, SlowQueryLog slowQueryLog) {
+        this.sql = sql;
+        this.schema = schema;
+        this.type = SqlStatementType.of(sql);
+        this.slowQueryLog = slowQueryLog != null && slowQueryLog.sample() ? slowQueryLog : null;
+        this.parameters = this.slowQueryLog != null && this.slowQueryLog.capturesParameters() ? parameters : null;
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    String getSchema() {
+        return schema;
+    }
+
+    SqlStatementType getType() {
+        return type;
+    }
+
+    /**
+     * Called when the execution succeeded, for queries when the first page of
+     * rows is available.
+     */
+    void executed(boolean isRowSet, long updateCount) {
+        if (executed) {
+            return;
+        }
+        executed = true;
+        rowSet = isRowSet;
+        executeNanos = System.nanoTime() - startNanos;
+        METRICS.executed(type, executeNanos, true, isRowSet);
+        JfrEvents.commitExecute(jfrEvent, this, true, updateCount);
+        jfrEvent = isRowSet ? JfrEvents.beginResultSet() : null;
+        if (!isRowSet) {
+            rows = Math.max(updateCount, 0);
+            completed(true);
+        }
+    }
+
+    /**
+     * Called when the execution failed. Has no effect after {@link #executed}.
+     */
+    void failed() {
+        if (executed) {
+            return;
+        }
+        executed = true;
+        executeNanos = System.nanoTime() - startNanos;
+        METRICS.executed(type, executeNanos, false, false);
+        JfrEvents.commitExecute(jfrEvent, this, false, -1);
+        jfrEvent = null;
+        completed(false);
+    }
+
+    void rowFetched() {
+        if (rows == 0 && slowQueryLog != null) {
+            firstRowNanos = System.nanoTime() - startNanos;
+        }
+        rows++;
+    }
+
+    /**
+     * Called before waiting for the next page of rows.
+     */
+    void pageFetchStarted() {
+        pageFetchStartNanos = System.nanoTime();
+        pageFetchJfrEvent = JfrEvents.beginPageFetch();
+    }
+
+    void pageFetched() {
+        pages++;
+        long waitNanos = System.nanoTime() - pageFetchStartNanos;
+        pageFetchNanos += waitNanos;
+        METRICS.pageFetched(waitNanos);
+        JfrEvents.commitPageFetch(pageFetchJfrEvent, this, pages, rows);
+        pageFetchJfrEvent = null;
+    }
+
+    /**
+     * Called when the result set returned by the execution is closed.
+     */
+    void closed() {
+        if (!rowSet || closed) {
+            return;
+        }
+        closed = true;
+        METRICS.resultSetClosed(type, rows, pages);
+        JfrEvents.commitResultSet(jfrEvent, this, rows, pages);
+        jfrEvent = null;
+        completed(true);
+    }
+
+    private void completed(boolean success) {
+        long driverNanos = executeNanos + pageFetchNanos;
+        STATS.record(sql, type, driverNanos, success, rows);
+        if (slowQueryLog != null && slowQueryLog.isSlow(driverNanos)) {
+            slowQueryLog.log(new SlowQueryLog.Entry(slowQueryLog, sql, schema, parameters, success,
+                    driverNanos, executeNanos, firstRowNanos, rows, pages));
+        }
+    }
+}
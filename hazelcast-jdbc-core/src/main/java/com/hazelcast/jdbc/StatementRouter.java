@@ -0,0 +1,40 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlStatement;
+
+import java.sql.SQLException;
+
+/**
+ * Executes the statements of a connection using the clients of several
+ * clusters listed in its URL.
+ */
+interface StatementRouter {
+
+    SqlResult execute(SqlStatement statement) throws SQLException;
+
+    /**
+     * Returns the instance used for the metadata of the connection.
+     */
+    HazelcastInstance getClient();
+
+    boolean isRunning();
+
+    void shutdown();
+}
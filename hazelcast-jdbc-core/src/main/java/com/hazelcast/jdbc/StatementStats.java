@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Driver-wide statistics of the statement executions aggregated by {@link
+ * SqlFingerprint}. The number of fingerprints is bounded, once the limit is
+ * reached the executions of new fingerprints are aggregated under {@value
+ * #OTHER_FINGERPRINT}. Updates don't take locks.
+ * <p>
+ * The statistics can be queried with {@code SELECT * FROM
+ * jdbc_client.statement_stats}, see {@link ClientTables}.
+ */
+final class StatementStats {
+
+    static final int MAX_ENTRIES = 5000;
+    static final String OTHER_FINGERPRINT = "<other>";
+
+    private static final StatementStats INSTANCE = new StatementStats(MAX_ENTRIES);
+
+    private final int maxEntries;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Entry other = new Entry(OTHER_FINGERPRINT, SqlStatementType.OTHER);
+
+    StatementStats(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    static StatementStats getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records a completed execution.
+     *
+     * @param nanos the time spent in the driver
+     * @param rows  the rows returned or updated, negative if unknown
+     */
+    void record(String sql, SqlStatementType type, long nanos, boolean success, long rows) {
+        String fingerprint = SqlFingerprint.of(sql);
+        Entry entry = entries.get(fingerprint);
+        if (entry == null) {
+            if (entries.size() >= maxEntries) {
+                entry = other;
+            } else {
+                entry = entries.computeIfAbsent(fingerprint, key -> new Entry(key, type));
+            }
+        }
+        entry.record(nanos, success, rows);
+    }
+
+    /**
+     * Returns the entries with at least one execution.
+     */
+    List<Entry> entries() {
+        List<Entry> result = new ArrayList<>(entries.size() + 1);
+        result.addAll(entries.values());
+        if (other.latency.getCount() > 0) {
+            result.add(other);
+        }
+        return result;
+    }
+
+    /**
+     * Removes all entries, returns the number of removed ones.
+     */
+    int reset() {
+        int count = entries.size();
+        entries.clear();
+        if (other.latency.getCount() > 0) {
+            count++;
+        }
+        other.reset();
+        return count;
+    }
+
+    /**
+     * The statistics of one fingerprint.
+     */
+    static final class Entry {
+
+        private final String fingerprint;
+        private final SqlStatementType type;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        Entry(String fingerprint, SqlStatementType type) {
+            this.fingerprint = fingerprint;
+            this.type = type;
+        }
+
+        String getFingerprint() {
+            return fingerprint;
+        }
+
+        SqlStatementType getType() {
+            return type;
+        }
+
+        long getErrors() {
+            return errors.sum();
+        }
+
+        long getRows() {
+            return rows.sum();
+        }
+
+        LatencySnapshot getLatency() {
+            return new LatencySnapshot(latency);
+        }
+
+        private void record(long nanos, boolean success, long rowCount) {
+            latency.record(nanos);
+            if (!success) {
+                errors.increment();
+            }
+            if (rowCount > 0) {
+                rows.add(rowCount);
+            }
+        }
+
+        private void reset() {
+            latency.reset();
+            errors.reset();
+            rows.reset();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlRow;
+import com.hazelcast.sql.SqlRowMetadata;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delegating {@link SqlResult} which runs a callback when it's closed for the
+ * first time. Used to track the results which are still open.
+ */
+class TrackedSqlResult implements SqlResult {
+
+    private final SqlResult delegate;
+    private final Runnable onClose;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    TrackedSqlResult(SqlResult delegate, Runnable onClose) {
+        this.delegate = delegate;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public SqlRowMetadata getRowMetadata() {
+        return delegate.getRowMetadata();
+    }
+
+    @Override
+    public Iterator<SqlRow> iterator() {
+        return delegate.iterator();
+    }
+
+    @Override
+    public long updateCount() {
+        return delegate.updateCount();
+    }
+
+    @Override
+    public boolean isRowSet() {
+        return delegate.isRowSet();
+    }
+
+    @Override
+    public void close() {
+        try {
+            delegate.close();
+        } finally {
+            if (closed.compareAndSet(false, true)) {
+                onClose.run();
+            }
+        }
+    }
+
+    SqlResult getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Returns the result wrapped by the given one, or the result itself if
+     * it isn't tracked.
+     */
+    static SqlResult untracked(SqlResult result) {
+        SqlResult target = result;
+        while (target instanceof TrackedSqlResult) {
+            target = ((TrackedSqlResult) target).delegate;
+        }
+        return target;
+    }
+}
@@ -25,13 +25,30 @@ import java.sql.SQLException;
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Calendar;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 
 final class TypeConverter {
 
     private static final Map<Integer, QueryDataType> SQL_TYPES_TO_QUERY_DATA_TYPE = new HashMap<>();
-    private static final Map<SqlColumnType, QueryDataType> SQL_COLUMN_TYPE_TO_QUERY_DATA_TYPE_MAP = new HashMap<>();
+    private static final Map<SqlColumnType, QueryDataType> SQL_COLUMN_TYPE_TO_QUERY_DATA_TYPE_MAP =
+            new EnumMap<>(SqlColumnType.class);
+
+    /** The conversions to the target classes of {@link #convertTo(Object, Class)}, resolved on first use. */
+    private static final ClassValue<Conversion> CONVERSIONS = new ClassValue<Conversion>() {
+        @Override
+        protected Conversion computeValue(Class<?> type) {
+            return conversion(type);
+        }
+    };
 
     static {
         initTypesMapping();
@@ -83,21 +100,36 @@ final class TypeConverter {
         if (object == null) {
             return null;
         }
+        try {
+            return (T) CONVERSIONS.get(clazz).convert(object);
+        } catch (SQLException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the conversion to the given class, which returns the values
+     * already of the class as they are.
+     */
+    private static Conversion conversion(Class<?> clazz) {
         QueryDataType queryDataType = QueryDataTypeUtils.resolveTypeForClass(clazz);
-        if (clazz == java.sql.Timestamp.class) {
-            return (T) convertToTimestamp(object, queryDataType);
+        if (clazz == Timestamp.class) {
+            return value -> convertToTimestamp(value, queryDataType);
         }
-        if (clazz == java.sql.Time.class) {
-            return (T) convertToTime(object, queryDataType);
+        if (clazz == Time.class) {
+            return value -> convertToTime(value, queryDataType);
         }
-        if (clazz == java.sql.Date.class) {
-            return (T) convertToDate(object, queryDataType);
+        if (clazz == Date.class) {
+            return value -> convertToDate(value, queryDataType);
         }
-        try {
-            return (T) queryDataType.convert(object);
-        } catch (Exception e) {
-            throw new SQLException(e.getMessage(), e);
+        if (clazz == Instant.class) {
+            return value -> value instanceof OffsetDateTime
+                    ? ((OffsetDateTime) value).toInstant()
+                    : queryDataType.convert(value);
         }
+        return value -> clazz.isInstance(value) ? value : queryDataType.convert(value);
     }
 
     @SuppressWarnings("unchecked")
@@ -228,6 +260,12 @@ final class TypeConverter {
         if (object == null) {
             return null;
         }
+        if (object instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) object);
+        }
+        if (object instanceof OffsetDateTime) {
+            return Timestamp.from(((OffsetDateTime) object).toInstant());
+        }
         try {
             return Timestamp.from(queryDataType.getConverter().asTimestampWithTimezone(object).toInstant());
         } catch (Exception e) {
@@ -243,6 +281,9 @@ final class TypeConverter {
         if (object == null) {
             return null;
         }
+        if (object instanceof LocalTime) {
+            return Time.valueOf((LocalTime) object);
+        }
         try {
             return Time.valueOf(queryDataType.getConverter().asTime(object));
         } catch (Exception e) {
@@ -258,10 +299,119 @@ final class TypeConverter {
         if (object == null) {
             return null;
         }
+        if (object instanceof LocalDate) {
+            return Date.valueOf((LocalDate) object);
+        }
         try {
             return Date.valueOf(queryDataType.getConverter().asDate(object));
         } catch (Exception e) {
             throw new SQLException(e.getMessage(), e);
         }
     }
+
+    /**
+     * Converts the value to a timestamp, a value without a time zone being
+     * in the time zone of the calendar, or the default one if it's null.
+     */
+    static Timestamp convertToTimestamp(Object object, SqlColumnType columnType, Calendar calendar)
+            throws SQLException {
+        if (calendar == null || object == null || object instanceof OffsetDateTime) {
+            return convertToTimestamp(object, columnType);
+        }
+        try {
+            LocalDateTime timestamp = SQL_COLUMN_TYPE_TO_QUERY_DATA_TYPE_MAP.get(columnType).getConverter()
+                    .asTimestamp(object);
+            return Timestamp.from(timestamp.atZone(zone(calendar)).toInstant());
+        } catch (Exception e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Converts the value to a time at the epoch day in the time zone of the
+     * calendar, or the default one if it's null.
+     */
+    static Time convertToTime(Object object, SqlColumnType columnType, Calendar calendar) throws SQLException {
+        if (calendar == null || object == null) {
+            return convertToTime(object, columnType);
+        }
+        try {
+            LocalTime time = SQL_COLUMN_TYPE_TO_QUERY_DATA_TYPE_MAP.get(columnType).getConverter().asTime(object);
+            return new Time(time.atDate(LocalDate.ofEpochDay(0)).atZone(zone(calendar)).toInstant().toEpochMilli());
+        } catch (Exception e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Converts the value to a date at the start of the day in the time zone
+     * of the calendar, or the default one if it's null.
+     */
+    static Date convertToDate(Object object, SqlColumnType columnType, Calendar calendar) throws SQLException {
+        if (calendar == null || object == null) {
+            return convertToDate(object, columnType);
+        }
+        try {
+            LocalDate date = SQL_COLUMN_TYPE_TO_QUERY_DATA_TYPE_MAP.get(columnType).getConverter().asDate(object);
+            return new Date(date.atStartOfDay(zone(calendar)).toInstant().toEpochMilli());
+        } catch (Exception e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the local date-time of the timestamp in the time zone of the
+     * calendar, or the default one if it's null.
+     */
+    static LocalDateTime toLocalDateTime(Timestamp timestamp, Calendar calendar) {
+        if (timestamp == null) {
+            return null;
+        }
+        return calendar == null
+                ? timestamp.toLocalDateTime()
+                : LocalDateTime.ofInstant(timestamp.toInstant(), zone(calendar));
+    }
+
+    /**
+     * Returns the local time of the time in the time zone of the calendar, or
+     * the default one if it's null.
+     */
+    static LocalTime toLocalTime(Time time, Calendar calendar) {
+        if (time == null) {
+            return null;
+        }
+        return calendar == null
+                ? time.toLocalTime()
+                : Instant.ofEpochMilli(time.getTime()).atZone(zone(calendar)).toLocalTime();
+    }
+
+    /**
+     * Returns the local date of the date in the time zone of the calendar, or
+     * the default one if it's null.
+     */
+    static LocalDate toLocalDate(Date date, Calendar calendar) {
+        if (date == null) {
+            return null;
+        }
+        return calendar == null
+                ? date.toLocalDate()
+                : Instant.ofEpochMilli(date.getTime()).atZone(zone(calendar)).toLocalDate();
+    }
+
+    /**
+     * Returns the time zone of the calendar. The rules of the zone are cached
+     * by the zone provider, they aren't loaded for each value.
+     */
+    private static ZoneId zone(Calendar calendar) {
+        return calendar.getTimeZone().toZoneId();
+    }
+
+    /**
+     * Converts a non-null value to the target class of {@link
+     * #convertTo(Object, Class)}.
+     */
+    @FunctionalInterface
+    private interface Conversion {
+        Object convert(Object value) throws Exception;
+    }
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.jdbc.AdmissionControl.WorkloadClass;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AdmissionControlTest {
+
+    private static final String QUERY = "SELECT * FROM TABLE(generate_series(1, 3))";
+
+    @BeforeAll
+    public static void beforeClass() {
+        Config config = new Config();
+        config.getJetConfig().setEnabled(true);
+        Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void when_classLimitReached_then_statementWaits() throws Exception {
+        Map<String, WorkloadClass> classes = new HashMap<>();
+        classes.put("reporting", new WorkloadClass("reporting", 1, 10_000, 0));
+        AdmissionControl control = new AdmissionControl(0, classes);
+        WorkloadClass reporting = control.workloadClass("reporting");
+        WorkloadClass other = control.workloadClass(null);
+
+        control.acquire(reporting);
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> acquire(control, reporting));
+        awaitWaiting(control, 1);
+        // other classes aren't limited
+        control.acquire(other);
+        assertThat(control.active()).isEqualTo(2);
+
+        control.release(reporting);
+        waiting.get(10, SECONDS);
+        assertThat(control.active()).isEqualTo(2);
+        assertThat(control.waiting()).isZero();
+    }
+
+    @Test
+    public void when_limitReached_then_higherPriorityAdmittedFirst() throws Exception {
+        Map<String, WorkloadClass> classes = new HashMap<>();
+        classes.put("oltp", new WorkloadClass("oltp", 0, 10_000, 10));
+        classes.put("reporting", new WorkloadClass("reporting", 0, 10_000, 0));
+        AdmissionControl control = new AdmissionControl(1, classes);
+        WorkloadClass oltp = control.workloadClass("oltp");
+        WorkloadClass reporting = control.workloadClass("reporting");
+        List<String> admitted = new CopyOnWriteArrayList<>();
+
+        control.acquire(reporting);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> {
+            acquire(control, reporting);
+            admitted.add("reporting");
+        });
+        awaitWaiting(control, 1);
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> {
+            acquire(control, oltp);
+            admitted.add("oltp");
+        });
+        awaitWaiting(control, 2);
+
+        control.release(reporting);
+        second.get(10, SECONDS);
+        assertThat(first).isNotDone();
+        control.release(oltp);
+        first.get(10, SECONDS);
+        assertThat(admitted).containsExactly("oltp", "reporting");
+    }
+
+    @Test
+    public void when_notAdmittedInTime_then_timeoutException() throws SQLException {
+        Map<String, WorkloadClass> classes = new HashMap<>();
+        classes.put("reporting", new WorkloadClass("reporting", 1, 50, 0));
+        AdmissionControl control = new AdmissionControl(0, classes);
+        WorkloadClass reporting = control.workloadClass("reporting");
+
+        control.acquire(reporting);
+        assertThatThrownBy(() -> control.acquire(reporting))
+                .isInstanceOf(SQLTimeoutException.class)
+                .hasMessage("The statement wasn't admitted within 50 ms in the workload class 'reporting'");
+        assertThat(control.waiting()).isZero();
+        assertThatThrownBy(() -> control.workloadClass("unknown")).hasMessage("Unknown workload class: unknown");
+    }
+
+    @Test
+    public void when_urlProperties_then_classesConfigured() throws SQLException {
+        assertThat(AdmissionControl.create(new JdbcUrl("jdbc:hazelcast://localhost:5701/", null))).isNull();
+
+        AdmissionControl control = AdmissionControl.create(new JdbcUrl("jdbc:hazelcast://localhost:5701/"
+                + "?maxConcurrentStatements=8&workload.oltp.priority=10&workload.reporting.maxConcurrent=2", null));
+        assertThat(control.workloadClass("oltp").getName()).isEqualTo("oltp");
+        assertThat(control.workloadClass("reporting").getName()).isEqualTo("reporting");
+        assertThat(control.workloadClass(null).getName()).isEqualTo(AdmissionControl.DEFAULT_CLASS);
+
+        JdbcUrl invalid = new JdbcUrl("jdbc:hazelcast://localhost:5701/?workload.oltp.limit=1", null);
+        assertThatThrownBy(() -> AdmissionControl.create(invalid))
+                .hasMessage("Unknown workload class property 'workload.oltp.limit'");
+    }
+
+    @Test
+    public void when_connectionWorkloadClass_then_statementsLimited() throws SQLException {
+        String url = "jdbc:hazelcast://localhost:5701/?workload.reporting.maxConcurrent=1"
+                + "&workload.reporting.queueTimeoutMillis=100&workload.oltp.priority=1";
+        try (Connection connection = DriverManager.getConnection(url);
+             Connection other = DriverManager.getConnection(url);
+             Statement first = connection.createStatement();
+             Statement second = other.createStatement()) {
+            assertThatThrownBy(() -> connection.setClientInfo(AdmissionControl.CLASS_PROPERTY, "unknown"))
+                    .isInstanceOf(SQLClientInfoException.class);
+            connection.setClientInfo(AdmissionControl.CLASS_PROPERTY, "reporting");
+            other.setClientInfo(AdmissionControl.CLASS_PROPERTY, "reporting");
+            assertThat(connection.getClientInfo(AdmissionControl.CLASS_PROPERTY)).isEqualTo("reporting");
+
+            ResultSet open = first.executeQuery(QUERY);
+            assertThatThrownBy(() -> second.executeQuery(QUERY)).isInstanceOf(SQLTimeoutException.class);
+
+            HazelcastStatement oltp = second.unwrap(HazelcastStatement.class);
+            oltp.setWorkloadClass("oltp");
+            try (ResultSet resultSet = second.executeQuery(QUERY)) {
+                assertThat(resultSet.next()).isTrue();
+            }
+
+            open.close();
+            oltp.setWorkloadClass(null);
+            assertThat(oltp.getWorkloadClass()).isEqualTo("reporting");
+            try (ResultSet resultSet = second.executeQuery(QUERY)) {
+                assertThat(resultSet.next()).isTrue();
+            }
+        }
+    }
+
+    @Test
+    public void when_statementExecutedAgainWithOpenResultSet_then_permitReleased() throws SQLException {
+        String url = "jdbc:hazelcast://localhost:5701/?maxConcurrentStatements=1&workload.default.queueTimeoutMillis=100";
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.closeOnCompletion();
+            for (int i = 0; i < 3; i++) {
+                ResultSet resultSet = statement.executeQuery(QUERY);
+                assertThat(resultSet.next()).isTrue();
+            }
+            assertThat(statement.isClosed()).isFalse();
+        }
+    }
+
+    @Test
+    public void when_nestedStatementOfSameConnection_then_permitShared() throws SQLException {
+        String url = "jdbc:hazelcast://localhost:5701/?maxConcurrentStatements=1&workload.default.queueTimeoutMillis=100";
+        HazelcastSqlClient client = new HazelcastSqlClient(new JdbcUrl(url, null));
+        try (Connection connection = new JdbcConnection(client);
+             Connection other = DriverManager.getConnection(url);
+             Statement outer = connection.createStatement();
+             Statement inner = connection.createStatement();
+             Statement otherStatement = other.createStatement()) {
+            AdmissionControl control = client.getAdmissionControl();
+            try (ResultSet rows = outer.executeQuery(QUERY)) {
+                while (rows.next()) {
+                    try (ResultSet nested = inner.executeQuery(QUERY)) {
+                        assertThat(nested.next()).isTrue();
+                    }
+                }
+                assertThat(control.active()).isOne();
+                assertThatThrownBy(() -> otherStatement.executeQuery(QUERY)).isInstanceOf(SQLTimeoutException.class);
+            }
+            assertThat(control.active()).isZero();
+            try (ResultSet resultSet = otherStatement.executeQuery(QUERY)) {
+                assertThat(resultSet.next()).isTrue();
+            }
+        }
+    }
+
+    private static void acquire(AdmissionControl control, WorkloadClass workloadClass) {
+        try {
+            control.acquire(workloadClass);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void awaitWaiting(AdmissionControl control, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (control.waiting() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(control.waiting()).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BulkLoaderTest {
+
+    private static final String URL = "jdbc:hazelcast://localhost:5701/?copyBatchSize=2&copyParallelism=2";
+
+    @BeforeAll
+    public static void beforeClass() {
+        Config config = new Config();
+        config.getJetConfig().setEnabled(true);
+        Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            for (String name : new String[]{"trades", "trades_copy"}) {
+                statement.execute("CREATE OR REPLACE MAPPING " + name + " (__key BIGINT, name VARCHAR, price DECIMAL, "
+                        + "traded DATE, active BOOLEAN) TYPE IMap OPTIONS ('keyFormat'='bigint', "
+                        + "'valueFormat'='compact', 'valueCompactTypeName'='trade')");
+                statement.execute("DELETE FROM " + name);
+            }
+        }
+    }
+
+    @Test
+    public void when_csv_then_rowsLoadedInBatches() throws SQLException {
+        String csv = "__key,name,price,traded,active\r\n"
+                + "1,\"ACME, Inc.\",10.50,2023-01-02,true\r\n"
+                + "2,\"multi\r\nline\",,2023-01-03,false\r\n"
+                + "3,plain,0.1,,\r\n"
+                + "4,four,4,2023-01-05,TRUE\r\n"
+                + "5,five,5,2023-01-06,false\r\n";
+        List<Long> progress = new CopyOnWriteArrayList<>();
+        try (Connection connection = DriverManager.getConnection(URL)) {
+            long count = connection.unwrap(HazelcastConnection.class)
+                    .copyFrom("trades", ExportFormat.CSV, channel(csv), progress::add);
+            assertThat(count).isEqualTo(5);
+            assertThat(progress).containsExactly(2L, 4L, 5L);
+
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT name, price, traded, active FROM trades ORDER BY __key")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getString(1)).isEqualTo("ACME, Inc.");
+                assertThat(rs.getBigDecimal(2)).isEqualTo(new BigDecimal("10.50"));
+                assertThat(rs.getObject(3)).isEqualTo(LocalDate.of(2023, 1, 2));
+                assertThat(rs.getBoolean(4)).isTrue();
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getString(1)).isEqualTo("multi\r\nline");
+                assertThat(rs.getObject(2)).isNull();
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getObject(3)).isNull();
+                assertThat(rs.getObject(4)).isNull();
+            }
+        }
+    }
+
+    @Test
+    public void when_exportedJsonLines_then_roundTrip() throws SQLException {
+        when_csv_then_rowsLoadedInBatches();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            statement.unwrap(HazelcastStatement.class).exportQuery("SELECT __key, name, price, traded FROM trades",
+                    ExportFormat.JSON_LINES, Channels.newChannel(out));
+            long count = connection.unwrap(HazelcastConnection.class).copyFrom("trades_copy", ExportFormat.JSON_LINES,
+                    channel(new String(out.toByteArray(), UTF_8)), null);
+            assertThat(count).isEqualTo(5);
+
+            assertThat(rows(statement, "SELECT __key, name, price, traded, CAST(NULL AS BOOLEAN) FROM trades"))
+                    .isEqualTo(rows(statement, "SELECT __key, name, price, traded, active FROM trades_copy"));
+        }
+    }
+
+    @Test
+    public void when_invalidInput_then_sqlException() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL)) {
+            HazelcastConnection hazelcast = connection.unwrap(HazelcastConnection.class);
+            assertThatThrownBy(() -> hazelcast.copyFrom("missing", ExportFormat.CSV, channel("a\r\n"), null))
+                    .hasMessage("Mapping not found: missing");
+            assertThatThrownBy(() -> hazelcast.copyFrom("trades", ExportFormat.CSV, channel("__key,size\r\n"), null))
+                    .hasMessage("Unknown column 'size' in mapping 'trades'");
+            assertThatThrownBy(() -> hazelcast.copyFrom("trades", ExportFormat.CSV, channel("__key,price\r\n1,x\r\n"),
+                    null)).hasMessage("Invalid DECIMAL value of column 'price' at line 2: 'x'");
+            assertThatThrownBy(() -> hazelcast.copyFrom("trades", ExportFormat.CSV, channel("__key,price\r\n1\r\n"),
+                    null)).hasMessage("Record 2 has 1 fields, the header has 2");
+            assertThatThrownBy(() -> hazelcast.copyFrom("trades", ExportFormat.JSON_LINES, channel("[1]\n"), null))
+                    .hasMessage("Line 1 isn't a JSON object");
+        }
+    }
+
+    @Test
+    public void when_csvReader_then_rfc4180Records() throws Exception {
+        CsvReader reader = new CsvReader(new StringReader("a,,\"\"\n\"x\"\"y\",b\r\n"));
+        assertThat(reader.next()).containsExactly("a", null, "");
+        assertThat(reader.next()).containsExactly("x\"y", "b");
+        assertThat(reader.next()).isNull();
+    }
+
+    private static List<List<Object>> rows(Statement statement, String sql) throws SQLException {
+        List<List<Object>> rows = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(sql + " ORDER BY __key")) {
+            while (rs.next()) {
+                List<Object> row = new ArrayList<>();
+                for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+                    row.add(rs.getObject(i));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static ReadableByteChannel channel(String text) {
+        return Channels.newChannel(new ByteArrayInputStream(text.getBytes(UTF_8)));
+    }
+}
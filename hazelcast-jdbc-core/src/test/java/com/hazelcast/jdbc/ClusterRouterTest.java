@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.jdbc.ClusterRouter.Cluster;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ClusterRouterTest {
+
+    private static final String URL = "jdbc:hazelcast://127.0.0.1:5711;127.0.0.1:5712/"
+            + "?clusterNames=zoneA,zoneB&clusterProbeIntervalMillis=0";
+    private static final String UNREACHABLE_URL = "jdbc:hazelcast://127.0.0.1:5719;127.0.0.1:5712/"
+            + "?clusterNames=zoneX,zoneB&clusterProbeIntervalMillis=0";
+
+    private static HazelcastInstance zoneA;
+    private static HazelcastInstance zoneB;
+
+    @BeforeAll
+    public static void beforeClass() {
+        zoneA = newMember("zoneA", 5711);
+        zoneB = newMember("zoneB", 5712);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void when_clusterNearer_then_queriesRoutedToIt() throws SQLException {
+        HazelcastSqlClient client = new HazelcastSqlClient(new JdbcUrl(URL, null));
+        try (Connection connection = new JdbcConnection(client);
+             Statement statement = connection.createStatement()) {
+            ClusterRouter router = (ClusterRouter) client.getRouter();
+            assertThat(router.clusters()).extracting(Cluster::getName).containsExactly("zoneA", "zoneB");
+            // not probed yet, the first cluster in the URL
+            assertThat(zone(statement)).isEqualTo("zoneA");
+
+            router.clusters().get(0).recordRtt(MILLISECONDS.toNanos(10));
+            router.clusters().get(1).recordRtt(MILLISECONDS.toNanos(1));
+            assertThat(zone(statement)).isEqualTo("zoneB");
+
+            // the other statements are executed by the first cluster
+            statement.execute("SINK INTO zone VALUES (2, 'written')");
+            assertThat(zoneA.getMap("zone").get(2)).isEqualTo("written");
+            assertThat(zoneB.getMap("zone").get(2)).isNull();
+        }
+    }
+
+    @Test
+    public void when_probed_then_healthyWithRtt() throws SQLException {
+        HazelcastSqlClient client = new HazelcastSqlClient(new JdbcUrl(URL, null));
+        try {
+            Cluster cluster = ((ClusterRouter) client.getRouter()).clusters().get(1);
+            cluster.probe();
+            assertThat(cluster.isHealthy()).isTrue();
+            assertThat(cluster.getRttNanos()).isPositive();
+        } finally {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    public void when_invalidClusterNames_then_throws() {
+        assertThatThrownBy(() -> DriverManager.getConnection(URL.replace("zoneA,zoneB", "zoneA")))
+                .hasMessageContaining("'clusterNames' must have a name for each of the 2 clusters");
+    }
+
+    @Test
+    public void when_clusterUnreachable_then_queryFailsOver() throws SQLException {
+        HazelcastSqlClient client = new HazelcastSqlClient(new JdbcUrl(UNREACHABLE_URL, null));
+        try (Connection connection = new JdbcConnection(client);
+             Statement statement = connection.createStatement()) {
+            Cluster unreachable = ((ClusterRouter) client.getRouter()).clusters().get(0);
+            assertThat(zone(statement)).isEqualTo("zoneB");
+            assertThat(unreachable.isHealthy()).isFalse();
+
+            // the unhealthy cluster is skipped by the other statements too
+            statement.execute("SINK INTO zone VALUES (3, 'failover')");
+            assertThat(zoneB.getMap("zone").get(3)).isEqualTo("failover");
+        }
+    }
+
+    @Test
+    public void when_clusterUnreachable_then_otherStatementNotRepeated() throws SQLException {
+        HazelcastSqlClient client = new HazelcastSqlClient(new JdbcUrl(UNREACHABLE_URL, null));
+        try (Connection connection = new JdbcConnection(client);
+             Statement statement = connection.createStatement()) {
+            assertThatThrownBy(() -> statement.execute("SINK INTO zone VALUES (4, 'lost')"))
+                    .isInstanceOf(SQLException.class);
+            assertThat(zoneB.getMap("zone").get(4)).isNull();
+            assertThat(((ClusterRouter) client.getRouter()).clusters().get(0).isHealthy()).isFalse();
+        }
+    }
+
+    @Test
+    public void when_statementFails_then_clusterStillHealthy() throws SQLException {
+        HazelcastSqlClient client = new HazelcastSqlClient(new JdbcUrl(URL, null));
+        try (Connection connection = new JdbcConnection(client);
+             Statement statement = connection.createStatement()) {
+            Cluster first = ((ClusterRouter) client.getRouter()).clusters().get(0);
+            assertThatThrownBy(() -> statement.executeQuery("SELECT * FROM missing"))
+                    .isInstanceOf(SQLException.class);
+            assertThatThrownBy(() -> statement.executeQuery("SELEKT 1"))
+                    .isInstanceOf(SQLException.class);
+            assertThat(first.isHealthy()).isTrue();
+            assertThat(zone(statement)).isEqualTo("zoneA");
+        }
+    }
+
+    @Test
+    public void when_sameUrl_then_routerShared() throws SQLException {
+        HazelcastSqlClient first = new HazelcastSqlClient(new JdbcUrl(URL, null));
+        HazelcastSqlClient second = new HazelcastSqlClient(new JdbcUrl(URL, null));
+        ClusterRouter router = (ClusterRouter) first.getRouter();
+        assertThat(second.getRouter()).isSameAs(router);
+
+        first.shutdown();
+        first.shutdown();
+        try (Connection connection = new JdbcConnection(second);
+             Statement statement = connection.createStatement()) {
+            assertThat(zone(statement)).isEqualTo("zoneA");
+        }
+        assertThat(router.isRunning()).isFalse();
+        HazelcastSqlClient third = new HazelcastSqlClient(new JdbcUrl(URL, null));
+        try {
+            assertThat(third.getRouter()).isNotSameAs(router);
+        } finally {
+            third.shutdown();
+        }
+    }
+
+    @Test
+    public void when_shutDown_then_probeDoesNotRestartClient() {
+        HazelcastSqlClient client = new HazelcastSqlClient(new JdbcUrl(UNREACHABLE_URL, null));
+        Cluster unreachable = ((ClusterRouter) client.getRouter()).clusters().get(0);
+        client.shutdown();
+        HazelcastSqlClient clusterClient = unreachable.getClient();
+
+        unreachable.probe();
+        assertThat(unreachable.getClient()).isSameAs(clusterClient);
+        assertThat(clusterClient.isRunning()).isFalse();
+    }
+
+    private static HazelcastInstance newMember(String clusterName, int port) {
+        Config config = new Config();
+        config.setClusterName(clusterName);
+        config.getJetConfig().setEnabled(true);
+        config.getNetworkConfig().setPort(port).setPortAutoIncrement(false);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        member.getSql().execute("CREATE MAPPING zone TYPE IMap OPTIONS ("
+                + "'keyFormat'='int', 'valueFormat'='varchar')");
+        member.getMap("zone").put(1, clusterName);
+        return member;
+    }
+
+    private static String zone(Statement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("SELECT this FROM zone WHERE __key = 1")) {
+            assertThat(resultSet.next()).isTrue();
+            return resultSet.getString(1);
+        }
+    }
+}
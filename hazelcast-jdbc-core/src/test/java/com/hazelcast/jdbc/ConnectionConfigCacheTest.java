@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConnectionConfigCacheTest {
+
+    private static final String URL = "jdbc:hazelcast://localhost:5701/?clusterName=dev";
+
+    private final AtomicReference<String> sourcesStamp = new AtomicReference<>("initial");
+    private final ConnectionConfigCache cache = new ConnectionConfigCache(sourcesStamp::get, 0);
+
+    @Test
+    void when_sameUrlAndProperties_then_configReused() {
+        ConnectionConfigCache.Entry first = cache.resolve(URL, properties("user", "admin"));
+        ConnectionConfigCache.Entry second = cache.resolve(URL, properties("user", "admin"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.getClientConfig()).isSameAs(first.getClientConfig());
+        assertThat(first.getClientConfig().getClusterName()).isEqualTo("dev");
+    }
+
+    @Test
+    void when_differentProperties_then_configNotReused() {
+        ConnectionConfigCache.Entry first = cache.resolve(URL, properties("user", "admin"));
+        ConnectionConfigCache.Entry second = cache.resolve(URL, properties("user", "other"));
+        ConnectionConfigCache.Entry third = cache.resolve(URL, null);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(third).isNotSameAs(first).isNotSameAs(second);
+        assertThat(second.getJdbcUrl().getProperty("user")).isEqualTo("other");
+    }
+
+    @Test
+    void when_configSourcesChanged_then_cacheInvalidated() {
+        ConnectionConfigCache.Entry first = cache.resolve(URL, null);
+
+        sourcesStamp.set("changed");
+
+        assertThat(cache.resolve(URL, null)).isNotSameAs(first);
+    }
+
+    @Test
+    void when_maxEntriesReached_then_cacheCleared() {
+        for (int i = 0; i < ConnectionConfigCache.MAX_ENTRIES + 1; i++) {
+            cache.resolve("jdbc:hazelcast://localhost:" + i + "/", null);
+        }
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void when_invalidUrl_then_throw() {
+        assertThatThrownBy(() -> cache.resolve("jdbc:hazelcast:foo", null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void configSourcesStamp_when_overridePropertySet_then_changed() {
+        String before = ConnectionConfigCache.configSourcesStamp();
+        System.setProperty("hz-client.cluster-name", "other");
+        try {
+            assertThat(ConnectionConfigCache.configSourcesStamp()).isNotEqualTo(before);
+        } finally {
+            System.clearProperty("hz-client.cluster-name");
+        }
+        assertThat(ConnectionConfigCache.configSourcesStamp()).isEqualTo(before);
+    }
+
+    private static Properties properties(String key, String value) {
+        Properties properties = new Properties();
+        properties.setProperty(key, value);
+        return properties;
+    }
+}
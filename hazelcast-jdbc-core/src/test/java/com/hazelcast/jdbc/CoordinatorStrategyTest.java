@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CoordinatorStrategyTest {
+
+    private static final List<String> ADDRESSES = asList("host1:5701", "host2:5701", "host3:5701");
+
+    @BeforeAll
+    public static void beforeClass() {
+        Config config = new Config();
+        config.getJetConfig().setEnabled(true);
+        Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void when_roundRobin_then_addressesRotated() {
+        List<String> first = CoordinatorStrategy.ROUND_ROBIN.order(ADDRESSES);
+        List<String> second = CoordinatorStrategy.ROUND_ROBIN.order(ADDRESSES);
+
+        assertThat(first).containsExactlyInAnyOrderElementsOf(ADDRESSES);
+        assertThat(second.get(0)).isEqualTo(first.get(1));
+        assertThat(second.get(1)).isEqualTo(first.get(2));
+    }
+
+    @Test
+    public void when_leastInFlight_then_idleAddressFirst() {
+        CoordinatorStrategy.started(CoordinatorStrategy.memberKey("host1:5701"));
+        CoordinatorStrategy.started(CoordinatorStrategy.memberKey("host3:5701"));
+        try {
+            assertThat(CoordinatorStrategy.LEAST_IN_FLIGHT.order(ADDRESSES))
+                    .containsExactly("host2:5701", "host3:5701", "host1:5701");
+        } finally {
+            CoordinatorStrategy.finished(CoordinatorStrategy.memberKey("host1:5701"));
+            CoordinatorStrategy.finished(CoordinatorStrategy.memberKey("host3:5701"));
+        }
+    }
+
+    @Test
+    public void when_statementInProgress_then_countedForCoordinator() throws SQLException {
+        String address = "127.0.0.1:5701";
+        // the first address isn't reachable, the client connects to the second one
+        try (Connection connection = DriverManager.getConnection("jdbc:hazelcast://127.0.0.1:5799,localhost:5701/"
+                + "?coordinatorStrategy=roundRobin&smartRouting=false");
+             Statement statement = connection.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery("SELECT * FROM TABLE(generate_series(1, 3))")) {
+                assertThat(resultSet.next()).isTrue();
+                assertThat(CoordinatorStrategy.inFlight(address)).isEqualTo(1);
+            }
+            assertThat(CoordinatorStrategy.inFlight(address)).isZero();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static com.hazelcast.jdbc.JdbcTestSupport.createMapping;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DriverEmbeddedTest {
+
+    private HazelcastInstance member;
+
+    @BeforeEach
+    public void setUp() {
+        member = Hazelcast.newHazelcastInstance(memberConfig("embedded-member"));
+        IMap<Integer, Person> personMap = member.getMap("person");
+        for (int i = 0; i < 3; i++) {
+            personMap.put(i, new Person("Jack" + i, i));
+        }
+        createMapping(member, personMap.getName(), int.class, Person.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void when_embeddedUrl_then_localMemberUsed() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:hazelcast:embedded")) {
+            assertThat(connection.unwrap(JdbcConnection.class).getClientInstance()).isSameAs(member);
+            assertThat(countPersons(connection)).isEqualTo(3);
+        }
+        assertThat(member.getLifecycleService().isRunning()).isTrue();
+    }
+
+    @Test
+    public void when_embeddedUrlWithName_then_namedMemberUsed() throws SQLException {
+        HazelcastInstance otherMember = Hazelcast.newHazelcastInstance(memberConfig("other-member"));
+        try (Connection connection = DriverManager.getConnection("jdbc:hazelcast:embedded/other-member")) {
+            assertThat(connection.unwrap(JdbcConnection.class).getClientInstance()).isSameAs(otherMember);
+        }
+    }
+
+    @Test
+    public void when_multipleMembersAndNoName_then_fail() {
+        Hazelcast.newHazelcastInstance(memberConfig("other-member"));
+        assertThatThrownBy(() -> DriverManager.getConnection("jdbc:hazelcast:embedded"))
+                .isInstanceOf(SQLException.class)
+                .hasMessageStartingWith("Multiple Hazelcast members are running in this JVM");
+    }
+
+    @Test
+    public void when_unknownMemberName_then_fail() {
+        assertThatThrownBy(() -> DriverManager.getConnection("jdbc:hazelcast:embedded/unknown"))
+                .isInstanceOf(SQLException.class)
+                .hasMessage("No running Hazelcast member with name 'unknown'");
+    }
+
+    private static Config memberConfig(String instanceName) {
+        Config config = new Config().setInstanceName(instanceName);
+        config.getJetConfig().setEnabled(true);
+        return config;
+    }
+
+    private static int countPersons(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM person")) {
+            assertThat(resultSet.next()).isTrue();
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -19,7 +19,9 @@ import com.hazelcast.client.HazelcastClient;
 import com.hazelcast.config.Config;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.map.IMap;
+import com.hazelcast.spi.impl.SerializationServiceSupport;
 import com.hazelcast.sql.SqlColumnType;
 import com.hazelcast.sql.impl.type.QueryDataType;
 import org.junit.jupiter.api.AfterAll;
@@ -49,6 +51,8 @@ import java.time.Month;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.TimeZone;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -708,6 +712,107 @@ class DriverTypeConversionTest {
         assertThat(resultSet.getInt(3)).isEqualTo(20);
     }
 
+    @Test
+    void shouldReturnSerializedFormOfObjects() throws SQLException {
+        Person person = new Person("Jill", 30);
+        IMap<Object, Object> types = member.getMap("person");
+        types.put(1, person);
+        createMapping(member, types.getName(), int.class, person.getClass());
+
+        ResultSet resultSet = connection.createStatement().executeQuery("SELECT this, name FROM person");
+        HazelcastResultSet hazelcast = resultSet.unwrap(HazelcastResultSet.class);
+        assertThatThrownBy(() -> hazelcast.getSerializedObject(1))
+                .isInstanceOf(SQLException.class)
+                .hasMessage("The result set isn't positioned on a row");
+        assertThat(resultSet.next()).isTrue();
+        SerializedObject serialized = hazelcast.getSerializedObject(1);
+        assertThat(serialized.toByteArray()).isEqualTo(getSerializationService(member).toData(person).toByteArray());
+        assertThat(serialized.isCompact()).isFalse();
+        assertThat(serialized.<Person>getObject()).isEqualTo(person);
+        assertThatThrownBy(() -> serialized.getField("name"))
+                .isInstanceOf(SQLException.class)
+                .hasMessage("The value isn't serialized with Compact or Portable");
+        assertThat(hazelcast.getSerializedObject(2).<String>getObject()).isEqualTo("Jill");
+
+        resultSet.close();
+        assertThatThrownBy(() -> hazelcast.getSerializedObject(1))
+                .isInstanceOf(SQLException.class)
+                .hasMessage("Result set is closed");
+    }
+
+    @Test
+    void shouldReturnBytesOfObjectColumnsAsStored() throws SQLException {
+        byte[] bytes = {1, 2, 3};
+        IMap<Object, Object> blobs = member.getMap("blobs");
+        blobs.put(1, bytes);
+        createMapping(member, blobs.getName(), int.class, Object.class);
+
+        ResultSet resultSet = connection.createStatement().executeQuery("SELECT this FROM blobs");
+        assertThat(resultSet.next()).isTrue();
+        assertThat(resultSet.getMetaData().getColumnType(1)).isEqualTo(Types.JAVA_OBJECT);
+        assertThat(resultSet.getBytes(1)).isEqualTo(bytes);
+        assertThat(resultSet.getBytes("this")).isEqualTo(bytes);
+        assertThat(resultSet.getObject(1, byte[].class)).isEqualTo(bytes);
+        assertThat(resultSet.unwrap(HazelcastResultSet.class).getSerializedObject(1).<byte[]>getObject())
+                .isEqualTo(bytes);
+    }
+
+    @Test
+    void shouldReadFieldOfCompactObjects() throws SQLException {
+        Statement statement = connection.createStatement();
+        statement.execute("CREATE OR REPLACE MAPPING compact_people (__key INT, name VARCHAR, age INT) TYPE IMap "
+                + "OPTIONS ('keyFormat'='int', 'valueFormat'='compact', 'valueCompactTypeName'='person')");
+        statement.execute("SINK INTO compact_people VALUES (1, 'Joe', 40), (2, NULL, NULL)");
+
+        ResultSet resultSet = statement.executeQuery("SELECT __key, this FROM compact_people ORDER BY __key");
+        HazelcastResultSet hazelcast = resultSet.unwrap(HazelcastResultSet.class);
+        assertThat(resultSet.next()).isTrue();
+        SerializedObject serialized = hazelcast.getSerializedObject(2);
+        assertThat(serialized.isCompact()).isTrue();
+        assertThat(serialized.<String>getField("name")).isEqualTo("Joe");
+        assertThat(serialized.<Integer>getField("age")).isEqualTo(40);
+        assertThatThrownBy(() -> serialized.getField("address"))
+                .isInstanceOf(SQLException.class)
+                .hasMessage("The value has no field 'address'");
+
+        assertThat(resultSet.next()).isTrue();
+        assertThat(hazelcast.getSerializedObject(2).<String>getField("name")).isNull();
+        assertThat(hazelcast.getSerializedObject(2).toByteArray()).isNotEmpty();
+    }
+
+    @Test
+    void shouldConvertTemporalValuesInCalendarTimeZone() throws SQLException {
+        Calendar tokyo = Calendar.getInstance(TimeZone.getTimeZone("Asia/Tokyo"));
+        Timestamp timestamp = Timestamp.from(Instant.parse("2023-05-01T10:15:30.123456789Z"));
+        Date date = new Date(Instant.parse("2023-05-01T15:00:00Z").toEpochMilli());
+        Time time = new Time(Instant.parse("1970-01-01T01:02:03Z").toEpochMilli());
+        OffsetDateTime offsetDateTime = OffsetDateTime.parse("2023-05-01T10:15:30+02:00");
+
+        PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT CAST(? AS TIMESTAMP), CAST(? AS DATE), CAST(? AS TIME), CAST(? AS TIMESTAMP WITH TIME ZONE), "
+                        + "CAST(? AS TIMESTAMP)");
+        preparedStatement.setTimestamp(1, timestamp, tokyo);
+        preparedStatement.setDate(2, date, tokyo);
+        preparedStatement.setTime(3, time, tokyo);
+        preparedStatement.setObject(4, offsetDateTime);
+        preparedStatement.setTimestamp(5, timestamp);
+        ResultSet resultSet = preparedStatement.executeQuery();
+        assertThat(resultSet.next()).isTrue();
+
+        assertThat(resultSet.getObject(1, LocalDateTime.class))
+                .isEqualTo(LocalDateTime.of(2023, 5, 1, 19, 15, 30, 123456789));
+        assertThat(resultSet.getTimestamp(1, tokyo)).isEqualTo(timestamp);
+        assertThat(resultSet.getObject(2, LocalDate.class)).isEqualTo(LocalDate.of(2023, 5, 2));
+        assertThat(resultSet.getDate(2, tokyo)).isEqualTo(date);
+        assertThat(resultSet.getObject(3, LocalTime.class)).isEqualTo(LocalTime.of(10, 2, 3));
+        assertThat(resultSet.getTime(3, tokyo)).isEqualTo(time);
+        assertThat(resultSet.getObject(4, Instant.class)).isEqualTo(offsetDateTime.toInstant());
+        assertThat(resultSet.getTimestamp(4, tokyo)).isEqualTo(Timestamp.from(offsetDateTime.toInstant()));
+        assertThat(resultSet.getTimestamp(5)).isEqualTo(timestamp);
+        assertThat(resultSet.getObject(5, Timestamp.class)).isEqualTo(timestamp);
+        assertThat(resultSet.getTimestamp(5, null)).isEqualTo(timestamp);
+    }
+
     private ResultSet getTemporalPreparedResultSet(Object value, int sqlTargetType) throws SQLException {
         PreparedStatement preparedStatement = connection.prepareStatement("SELECT * FROM types WHERE \"this\" = ?");
         preparedStatement.setObject(1, value, sqlTargetType);
@@ -820,4 +925,8 @@ class DriverTypeConversionTest {
     private interface ThrowingFunction<T, R> {
         R apply(T t) throws SQLException;
     }
+
+    private static SerializationService getSerializationService(HazelcastInstance instance) {
+        return ((SerializationServiceSupport) instance).getSerializationService();
+    }
 }
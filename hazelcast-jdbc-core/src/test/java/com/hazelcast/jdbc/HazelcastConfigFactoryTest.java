@@ -45,6 +45,23 @@ class HazelcastConfigFactoryTest {
                 .setClusterName("my-cluster"));
     }
 
+    @Test
+    void shouldParseCoordinatorStrategy() {
+        ClientConfig clientConfig = configFactory.clientConfig(
+                new JdbcUrl("jdbc:hazelcast://host1:5701,host2:5701/?coordinatorStrategy=roundRobin", null));
+        assertThat(clientConfig.getNetworkConfig().isSmartRouting()).isFalse();
+        assertThat(clientConfig.getProperty("hazelcast.client.shuffle.member.list")).isEqualTo("false");
+
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> configFactory.clientConfig(
+                        new JdbcUrl("jdbc:hazelcast://localhost:5701/?coordinatorStrategy=random&smartRouting=true", null)))
+                .withMessage("'coordinatorStrategy' requires 'smartRouting=false'");
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> configFactory.clientConfig(
+                        new JdbcUrl("jdbc:hazelcast://localhost:5701/?coordinatorStrategy=first", null)))
+                .withMessage("Unknown 'coordinatorStrategy', 'first'");
+    }
+
     @Test
     void shouldParseDiscoveryToken() {
         ClientConfig clientConfig = configFactory
@@ -291,6 +308,33 @@ class HazelcastConfigFactoryTest {
         .isThrownBy(() -> HazelcastConfigFactory.parseBoolean(urlOther, propertyName, true));
     }
 
+    @Test
+    void shouldParseAsyncStart() {
+        ClientConfig clientConfig = configFactory.clientConfig(
+                new JdbcUrl("jdbc:hazelcast://localhost:5701/?asyncStart=true", null));
+        ClientConfig expectedConfig = defaultJdbcClientConfig()
+                .setNetworkConfig(new ClientNetworkConfig().setAddresses(Collections.singletonList("localhost:5701")));
+        expectedConfig.getConnectionStrategyConfig().setAsyncStart(true);
+        assertThat(clientConfig).isEqualTo(expectedConfig);
+    }
+
+    @Test
+    void shouldParseLong() {
+        String baseUrl = "jdbc:hazelcast://localhost:5701/";
+
+        assertThat(HazelcastConfigFactory.parseLong(new JdbcUrl(baseUrl, null), "idleTimeoutMillis", 7)).isEqualTo(7);
+        assertThat(HazelcastConfigFactory.parseLong(new JdbcUrl(baseUrl + "?idleTimeoutMillis=100", null),
+                "idleTimeoutMillis", 7)).isEqualTo(100);
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> HazelcastConfigFactory.parseLong(
+                        new JdbcUrl(baseUrl + "?idleTimeoutMillis=foo", null), "idleTimeoutMillis", 7))
+                .withMessage("'idleTimeoutMillis' not a number, 'foo'");
+        assertThatExceptionOfType(RuntimeException.class)
+                .isThrownBy(() -> HazelcastConfigFactory.parseLong(
+                        new JdbcUrl(baseUrl + "?idleTimeoutMillis=-1", null), "idleTimeoutMillis", 7))
+                .withMessage("'idleTimeoutMillis' must not be negative, '-1'");
+    }
+
     private ClientConfig defaultJdbcClientConfig() {
         ClientConfig config = ClientConfig.load();
         config.getConnectionStrategyConfig().getConnectionRetryConfig()
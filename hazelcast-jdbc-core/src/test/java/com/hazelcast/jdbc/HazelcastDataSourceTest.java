@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+
+import static com.hazelcast.jdbc.JdbcTestSupport.createMapping;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HazelcastDataSourceTest {
+
+    private static HazelcastInstance member;
+    private static HazelcastInstance client;
+
+    @BeforeAll
+    public static void beforeClass() {
+        Config config = new Config();
+        config.getJetConfig().setEnabled(true);
+        member = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, Person> personMap = member.getMap("person");
+        for (int i = 0; i < 3; i++) {
+            personMap.put(i, new Person("Jack" + i, i));
+        }
+        createMapping(member, personMap.getName(), int.class, Person.class);
+
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.setInstanceName("application-client");
+        client = HazelcastClient.newHazelcastClient(clientConfig);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void when_connectionClosed_then_clientKeepsRunning() throws SQLException {
+        HazelcastDataSource dataSource = new HazelcastDataSource(client);
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(countPersons(connection)).isEqualTo(3);
+        }
+
+        assertThat(client.getLifecycleService().isRunning()).isTrue();
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(countPersons(connection)).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void when_memberWrapped_then_queriesExecuted() throws SQLException {
+        try (Connection connection = new HazelcastDataSource(member).getConnection()) {
+            assertThat(countPersons(connection)).isEqualTo(3);
+        }
+        assertThat(member.getLifecycleService().isRunning()).isTrue();
+    }
+
+    @Test
+    public void when_instanceNameInUrl_then_existingClientUsed() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                "jdbc:hazelcast://localhost:5701/?instanceName=application-client")) {
+            assertThat(connection.unwrap(JdbcConnection.class).getClientInstance()).isSameAs(client);
+            assertThat(countPersons(connection)).isEqualTo(3);
+        }
+        assertThat(client.getLifecycleService().isRunning()).isTrue();
+    }
+
+    @Test
+    public void when_unknownInstanceNameInUrl_then_fail() {
+        assertThatThrownBy(() -> DriverManager.getConnection("jdbc:hazelcast://localhost:5701/?instanceName=unknown"))
+                .isInstanceOf(SQLException.class)
+                .hasMessage("No running HazelcastInstance with name 'unknown'");
+    }
+
+    @Test
+    public void when_credentialsGiven_then_notSupported() {
+        assertThatThrownBy(() -> new HazelcastDataSource(client).getConnection("user", "password"))
+                .isInstanceOf(SQLFeatureNotSupportedException.class);
+    }
+
+    private static int countPersons(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM person")) {
+            assertThat(resultSet.next()).isTrue();
+            return resultSet.getInt(1);
+        }
+    }
+}
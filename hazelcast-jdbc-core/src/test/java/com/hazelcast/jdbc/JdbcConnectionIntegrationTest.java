@@ -101,4 +101,43 @@ public class JdbcConnectionIntegrationTest {
         resultSet = statement.executeQuery("SELECT * FROM mappings");
         Assertions.assertEquals("table_catalog", resultSet.getMetaData().getColumnName(1));
     }
+
+    @Test
+    void when_asyncStart_then_firstStatementWaitsForConnection() throws SQLException {
+        HazelcastSqlClient asyncClient = new HazelcastSqlClient(
+                new JdbcUrl("jdbc:hazelcast://localhost:5701/?asyncStart=true", null));
+        try (Connection connection = new JdbcConnection(asyncClient)) {
+            ResultSet resultSet = connection.createStatement().executeQuery("SELECT 1");
+            assertThat(resultSet.next()).isTrue();
+            assertThat(resultSet.getInt(1)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void when_idleTimeoutPassed_then_clientHibernatedAndRestarted() throws Exception {
+        HazelcastSqlClient idleClient = new HazelcastSqlClient(
+                new JdbcUrl("jdbc:hazelcast://localhost:5701/?idleTimeoutMillis=200", null));
+        try (Connection connection = new JdbcConnection(idleClient)) {
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("SELECT 1");
+            // an open result set keeps the client running
+            Thread.sleep(600);
+            assertThat(idleClient.isHibernated()).isFalse();
+            resultSet.close();
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!idleClient.isHibernated() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(idleClient.isHibernated()).isTrue();
+            // a hibernated client is still usable
+            assertThat(idleClient.isRunning()).isTrue();
+
+            resultSet = statement.executeQuery("SELECT 1");
+            assertThat(resultSet.next()).isTrue();
+            assertThat(idleClient.isHibernated()).isFalse();
+        }
+        assertThat(idleClient.isRunning()).isFalse();
+        assertThat(idleClient.isHibernated()).isFalse();
+    }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.hazelcast.jdbc.JdbcTestSupport.createMapping;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JdbcMetricsTest {
+
+    private static final String URL = "jdbc:hazelcast://localhost:5701/";
+    private static final int ROW_COUNT = 10;
+
+    private final JdbcMetrics metrics = JdbcMetrics.getInstance();
+    private final RecordingListener listener = new RecordingListener();
+
+    @BeforeAll
+    public static void beforeClass() {
+        Config config = new Config();
+        config.getJetConfig().setEnabled(true);
+        HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, Person> personMap = member.getMap("person");
+        for (int i = 0; i < ROW_COUNT; i++) {
+            personMap.put(i, new Person("Jack" + i, i));
+        }
+        createMapping(member, personMap.getName(), int.class, Person.class);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        JdbcMetrics.addListener(listener);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        JdbcMetrics.removeListener(listener);
+    }
+
+    @Test
+    public void when_queryExecuted_then_metricsRecorded() throws SQLException {
+        long queries = metrics.getQueryLatency().getCount();
+        long rows = metrics.getRowsFetched();
+        long openResultSets = metrics.getOpenResultSets();
+
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            statement.setFetchSize(2);
+            try (ResultSet resultSet = statement.executeQuery("SELECT * FROM person")) {
+                assertThat(metrics.getOpenResultSets()).isEqualTo(openResultSets + 1);
+                int count = 0;
+                while (resultSet.next()) {
+                    count++;
+                }
+                assertThat(count).isEqualTo(ROW_COUNT);
+            }
+        }
+
+        assertThat(metrics.getQueryLatency().getCount()).isEqualTo(queries + 1);
+        assertThat(metrics.getRowsFetched()).isEqualTo(rows + ROW_COUNT);
+        assertThat(metrics.getOpenResultSets()).isEqualTo(openResultSets);
+        assertThat(listener.events).containsExactly(
+                "connect:true", "execute:QUERY:true", "resultSetClosed:QUERY:" + ROW_COUNT, "connectionClosed");
+        assertThat(listener.pages).isPositive();
+        assertThat(metrics.getPageFetchLatency().getCount()).isPositive();
+    }
+
+    @Test
+    public void when_executionFails_then_errorCounted() throws SQLException {
+        long errors = metrics.getExecutionErrors();
+
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            assertThatThrownBy(() -> statement.executeQuery("SELECT * FROM unknown"))
+                    .isInstanceOf(SQLException.class);
+            assertThat(statement.executeUpdate("DELETE FROM person WHERE __key = -1")).isZero();
+        }
+
+        assertThat(metrics.getExecutionErrors()).isEqualTo(errors + 1);
+        assertThat(listener.events).containsExactly(
+                "connect:true", "execute:QUERY:false", "execute:DML:true", "connectionClosed");
+    }
+
+    @Test
+    public void when_connectFails_then_failureCounted() {
+        long failures = metrics.getConnectionFailures();
+
+        assertThatThrownBy(() -> DriverManager.getConnection("jdbc:hazelcast:invalid"))
+                .isInstanceOf(SQLException.class);
+
+        assertThat(metrics.getConnectionFailures()).isEqualTo(failures + 1);
+        assertThat(listener.events).containsExactly("connect:false");
+    }
+
+    @Test
+    public void when_connectionAndStatementOpen_then_gaugesIncremented() throws SQLException {
+        long openConnections = metrics.getOpenConnections();
+        long openStatements = metrics.getOpenStatements();
+
+        try (Connection connection = DriverManager.getConnection(URL)) {
+            assertThat(metrics.getOpenConnections()).isEqualTo(openConnections + 1);
+            try (Statement ignored = connection.createStatement()) {
+                assertThat(metrics.getOpenStatements()).isEqualTo(openStatements + 1);
+            }
+            assertThat(metrics.getOpenStatements()).isEqualTo(openStatements);
+        }
+        assertThat(metrics.getOpenConnections()).isEqualTo(openConnections);
+    }
+
+    @Test
+    public void when_listenerFails_then_statementSucceeds() throws SQLException {
+        JdbcMetricsListener failing = new JdbcMetricsListener() {
+            @Override
+            public void onExecute(SqlStatementType type, long durationNanos, boolean success) {
+                throw new IllegalStateException("expected");
+            }
+        };
+        JdbcMetrics.addListener(failing);
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            assertThat(statement.executeUpdate("DELETE FROM person WHERE __key = -1")).isZero();
+        } finally {
+            JdbcMetrics.removeListener(failing);
+        }
+    }
+
+    @Test
+    public void test_mbeanRegistered() throws Exception {
+        Object executions = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(JdbcMetrics.OBJECT_NAME), "Executions");
+
+        assertThat(executions).isInstanceOf(Long.class);
+    }
+
+    private static class RecordingListener implements JdbcMetricsListener {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private volatile long pages;
+
+        @Override
+        public void onConnect(long durationNanos, boolean success) {
+            events.add("connect:" + success);
+        }
+
+        @Override
+        public void onConnectionClosed() {
+            events.add("connectionClosed");
+        }
+
+        @Override
+        public void onExecute(SqlStatementType type, long durationNanos, boolean success) {
+            events.add("execute:" + type + ":" + success);
+        }
+
+        @Override
+        public void onResultSetClosed(SqlStatementType type, long rows, long pages) {
+            events.add("resultSetClosed:" + type + ":" + rows);
+            this.pages = pages;
+        }
+    }
+}
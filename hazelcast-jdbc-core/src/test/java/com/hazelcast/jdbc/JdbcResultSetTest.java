@@ -15,6 +15,8 @@
  */
 package com.hazelcast.jdbc;
 
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
 import com.hazelcast.sql.SqlColumnMetadata;
 import com.hazelcast.sql.SqlColumnType;
 import com.hazelcast.sql.SqlResult;
@@ -26,10 +28,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -237,4 +244,169 @@ public class JdbcResultSetTest {
         assertFalse(r.isFirst());
         assertTrue(r.isAfterLast());
     }
+
+    @Test
+    void nextBatch_when_rows_then_storedByColumn() throws SQLException {
+        SqlRowMetadata metadata = new SqlRowMetadata(Arrays.asList(
+                new SqlColumnMetadata("id", SqlColumnType.BIGINT, false),
+                new SqlColumnMetadata("price", SqlColumnType.DOUBLE, true),
+                new SqlColumnMetadata("quantity", SqlColumnType.SMALLINT, true),
+                new SqlColumnMetadata("name", SqlColumnType.VARCHAR, true)));
+        SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        List<SqlRow> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Object[] values = {(long) i, i == 1 ? null : i * 1.5, (short) i, i == 3 ? null : "name-" + i};
+            rows.add(FixedRowsSqlResult.row(metadata, serializationService, values));
+        }
+        HazelcastResultSet batches = new JdbcResultSet(new FixedRowsSqlResult(metadata, rows), statement)
+                .unwrap(HazelcastResultSet.class);
+        ColumnBatch batch = new ColumnBatch(2);
+
+        assertThat(batches.nextBatch(batch)).isEqualTo(2);
+        assertThat(batch.getLongs(1)).containsExactly(0L, 1L);
+        assertThat(batch.getDoubles(2)[0]).isEqualTo(0.0);
+        assertThat(batch.isNull(2, 0)).isFalse();
+        assertThat(batch.isNull(2, 1)).isTrue();
+        assertThat(batch.getInts(3)).containsExactly(0, 1);
+        // the cursor is on the last row of the batch
+        assertThat(batches.getLong(1)).isEqualTo(1L);
+
+        long[] ids = batch.getLongs(1);
+        assertThat(batches.nextBatch(batch)).isEqualTo(2);
+        assertThat(batch.getLongs(1)).isSameAs(ids).containsExactly(2L, 3L);
+        assertThat(batch.getObjects(4)).containsExactly("name-2", null);
+        assertThat(batch.isNull(2, 1)).isFalse();
+        assertThat(batch.isNull(4, 1)).isTrue();
+
+        assertThat(batches.nextBatch(batch)).isEqualTo(1);
+        assertThat(batch.getDoubles(2)[0]).isEqualTo(6.0);
+        assertThat(batches.nextBatch(batch)).isZero();
+        assertThat(batch.size()).isZero();
+        assertThat(batches.isAfterLast()).isTrue();
+    }
+
+    @Test
+    void nextBatch_when_wrongArrayType_then_throws() throws SQLException {
+        SqlRowMetadata metadata = new SqlRowMetadata(Collections.singletonList(
+                new SqlColumnMetadata("id", SqlColumnType.INTEGER, false)));
+        HazelcastResultSet batches = new JdbcResultSet(new FixedRowsSqlResult(metadata, Collections.emptyList()),
+                statement);
+        ColumnBatch batch = new ColumnBatch(10);
+
+        assertThat(batches.nextBatch(batch)).isZero();
+        assertThatThrownBy(() -> batch.getLongs(1))
+                .isInstanceOf(SQLException.class)
+                .hasMessage("Column 1 of type INTEGER isn't stored in long[]");
+        assertThatThrownBy(() -> batch.getInts(2))
+                .isInstanceOf(SQLException.class)
+                .hasMessage("Invalid column index: 2");
+    }
+
+    @Test
+    void stream_when_parallel_then_allRowsProcessed() throws SQLException {
+        SqlRowMetadata metadata = new SqlRowMetadata(Collections.singletonList(
+                new SqlColumnMetadata("id", SqlColumnType.BIGINT, false)));
+        SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        List<SqlRow> rows = new ArrayList<>();
+        for (long i = 0; i < 10_000; i++) {
+            rows.add(FixedRowsSqlResult.row(metadata, serializationService, new Object[]{i}));
+        }
+        JdbcResultSet rowSet = new JdbcResultSet(new FixedRowsSqlResult(metadata, rows), statement);
+
+        long sum;
+        try (Stream<SqlRow> stream = rowSet.unwrap(HazelcastResultSet.class).stream()) {
+            sum = stream.parallel()
+                    .mapToLong(row -> row.<Long>getObject(0))
+                    .sum();
+        }
+        assertThat(sum).isEqualTo(10_000L * 9_999 / 2);
+        assertThat(rowSet.isClosed()).isTrue();
+    }
+
+    @Test
+    void stream_when_split_then_fetchedRowsHandedOff() throws SQLException {
+        SqlRowMetadata metadata = new SqlRowMetadata(Collections.singletonList(
+                new SqlColumnMetadata("id", SqlColumnType.INTEGER, false)));
+        SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        List<SqlRow> rows = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            rows.add(FixedRowsSqlResult.row(metadata, serializationService, new Object[]{i}));
+        }
+        RowSpliterator spliterator = new RowSpliterator(new JdbcResultSet(new FixedRowsSqlResult(metadata, rows),
+                statement));
+
+        Spliterator<SqlRow> first = spliterator.trySplit();
+        assertThat(first.estimateSize()).isEqualTo(RowSpliterator.BATCH_UNIT);
+        Spliterator<SqlRow> second = spliterator.trySplit();
+        assertThat(second.estimateSize()).isEqualTo(1500 - RowSpliterator.BATCH_UNIT);
+        assertThat(spliterator.trySplit()).isNull();
+        assertThat(spliterator.tryAdvance(row -> { })).isFalse();
+        second.tryAdvance(row -> assertThat(row.<Integer>getObject(0)).isEqualTo(RowSpliterator.BATCH_UNIT));
+    }
+
+    @Test
+    void mapTo_when_setterAndFields_then_valuesConverted() throws SQLException {
+        SqlRowMetadata metadata = new SqlRowMetadata(Arrays.asList(
+                new SqlColumnMetadata("order_id", SqlColumnType.BIGINT, false),
+                new SqlColumnMetadata("QUANTITY", SqlColumnType.INTEGER, true),
+                new SqlColumnMetadata("price", SqlColumnType.DECIMAL, true),
+                new SqlColumnMetadata("note", SqlColumnType.VARCHAR, true)));
+        SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+        List<SqlRow> rows = Arrays.asList(
+                FixedRowsSqlResult.row(metadata, serializationService,
+                        new Object[]{1L, 3, new BigDecimal("2.50"), "first"}),
+                FixedRowsSqlResult.row(metadata, serializationService, new Object[]{2L, null, null, null}));
+        HazelcastResultSet mapped = new JdbcResultSet(new FixedRowsSqlResult(metadata, rows), statement);
+
+        assertThatThrownBy(() -> mapped.mapTo(Order.class))
+                .isInstanceOf(SQLException.class)
+                .hasMessage("The result set isn't positioned on a row");
+        assertThat(mapped.next()).isTrue();
+        Order order = mapped.mapTo(Order.class);
+        assertThat(order.orderId).isEqualTo(1L);
+        assertThat(order.quantity).isEqualTo(3);
+        assertThat(order.price).isEqualTo(2.5);
+        assertThat(order.note).isEqualTo("set-first");
+
+        assertThat(mapped.next()).isTrue();
+        order = mapped.mapTo(Order.class);
+        assertThat(order.orderId).isEqualTo(2L);
+        assertThat(order.quantity).isZero();
+        assertThat(order.price).isNull();
+        assertThat(order.note).isEqualTo("set-null");
+    }
+
+    @Test
+    void mapTo_when_noMatchingMembers_then_throws() throws SQLException {
+        SqlRowMetadata metadata = new SqlRowMetadata(Collections.singletonList(
+                new SqlColumnMetadata("unknown", SqlColumnType.VARCHAR, true)));
+        List<SqlRow> rows = Collections.singletonList(FixedRowsSqlResult.row(metadata,
+                new DefaultSerializationServiceBuilder().build(), new Object[]{"x"}));
+        HazelcastResultSet mapped = new JdbcResultSet(new FixedRowsSqlResult(metadata, rows), statement);
+        assertThat(mapped.next()).isTrue();
+
+        assertThatThrownBy(() -> mapped.mapTo(Order.class))
+                .isInstanceOf(SQLException.class)
+                .hasMessage("No column matches a setter or a field of " + Order.class.getName());
+        // the parameter names of the test classes aren't compiled
+        assertThatThrownBy(() -> mapped.mapTo(Unnamed.class))
+                .isInstanceOf(SQLException.class)
+                .hasMessageStartingWith("Class " + Unnamed.class.getName() + " has neither a public constructor");
+    }
+
+    public static class Order {
+        public long orderId;
+        public int quantity;
+        public Double price;
+        private String note;
+
+        public void setNote(String note) {
+            this.note = "set-" + note;
+        }
+    }
+
+    public static class Unnamed {
+        public Unnamed(String unknown) {
+        }
+    }
 }
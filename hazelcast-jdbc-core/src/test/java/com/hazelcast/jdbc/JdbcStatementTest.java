@@ -66,6 +66,7 @@ public class JdbcStatementTest {
     @Test
     void shouldCloseResultSetOnUpdateQuery() throws SQLException {
         when(client.execute(any())).thenReturn(updateResult());
+        when(client.getJdbcUrl()).thenReturn(new JdbcUrl("jdbc:hazelcast://localhost:5701/", null));
         JdbcStatement statement = new JdbcStatement(client, connection);
         boolean execute = statement.execute("UPDATE person SET name='JOHN' WHERE age=10");
         assertThat(execute).isFalse();
@@ -77,6 +78,7 @@ public class JdbcStatementTest {
     void shouldFailForQueryOnSqlUpdate() throws SQLException {
         when(client.execute(any())).thenThrow(new HazelcastSqlException(
                 UuidUtil.newUnsecureUUID(), -1, "The statement doesn't produce rows", QueryException.error(""), null));
+        when(client.getJdbcUrl()).thenReturn(new JdbcUrl("jdbc:hazelcast://localhost:5701/", null));
         JdbcStatement statement = new JdbcStatement(client, connection);
 
         assertThatThrownBy(() -> statement.executeQuery("UPDATE person SET name='JOHN' WHERE age=10"))
@@ -68,6 +68,14 @@ class JdbcUrlTest {
         assertThat(url.getProperty("b=")).isEqualTo("c");
     }
 
+    @Test
+    void test_clusterAuthorities() {
+        JdbcUrl url = new JdbcUrl("jdbc:hazelcast://a1:5701,a2:5701;b1:5701/", new Properties());
+        assertThat(url.getClusterAuthorities()).hasSize(2);
+        assertThat(url.getClusterAuthorities().get(1)).containsExactly("b1:5701");
+        assertThat(url.getAuthorities()).containsExactly("a1:5701", "a2:5701");
+    }
+
     @Test
     public void when_sameKeyInUrlAndProperties_then_thatFromUrlTakesPrecedence() {
         Properties props = new Properties();
@@ -81,4 +89,23 @@ class JdbcUrlTest {
         JdbcUrl url = new JdbcUrl("jdbc:hazelcast://localhost/?a=foo&a=bar", null);
         assertEquals("bar", url.getProperty("a"));
     }
+
+    @Test
+    void test_embeddedUrlParsing() {
+        JdbcUrl url = new JdbcUrl("jdbc:hazelcast:embedded", null);
+        assertThat(url.isEmbedded()).isTrue();
+        assertThat(url.getRawAuthority()).isEmpty();
+        assertThat(url.getAuthorities()).isEmpty();
+
+        JdbcUrl namedUrl = new JdbcUrl("jdbc:hazelcast:embedded/my-member/?prop1=val1", null);
+        assertThat(namedUrl.isEmbedded()).isTrue();
+        assertThat(namedUrl.getRawAuthority()).isEqualTo("my-member");
+        assertThat(namedUrl.getProperty("prop1")).isEqualTo("val1");
+
+        JdbcUrl propertiesOnlyUrl = new JdbcUrl("jdbc:hazelcast:embedded?prop1=val1", null);
+        assertThat(propertiesOnlyUrl.getRawAuthority()).isEmpty();
+        assertThat(propertiesOnlyUrl.getProperty("prop1")).isEqualTo("val1");
+
+        assertThat(new JdbcUrl("jdbc:hazelcast://embedded/", null).isEmbedded()).isFalse();
+    }
 }
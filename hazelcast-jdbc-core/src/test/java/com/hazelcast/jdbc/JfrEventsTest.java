@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.hazelcast.jdbc.JdbcTestSupport.createMapping;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JfrEventsTest {
+
+    private static final int ROW_COUNT = 10;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    public static void beforeClass() {
+        Config config = new Config();
+        config.getJetConfig().setEnabled(true);
+        HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, Person> personMap = member.getMap("person");
+        for (int i = 0; i < ROW_COUNT; i++) {
+            personMap.put(i, new Person("Jack" + i, i));
+        }
+        createMapping(member, personMap.getName(), int.class, Person.class);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void when_recording_then_eventsEmitted() throws Exception {
+        assertThat(JfrEvents.AVAILABLE).isTrue();
+        Path file = tempDir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.hazelcast.jdbc.*");
+            recording.start();
+            try (Connection connection = DriverManager.getConnection("jdbc:hazelcast://localhost:5701/?clusterName=dev")) {
+                connection.setSchema("public");
+                Statement statement = connection.createStatement();
+                statement.setFetchSize(2);
+                try (ResultSet resultSet = statement.executeQuery("SELECT * FROM person WHERE age >= 0")) {
+                    while (resultSet.next()) {
+                        // read all pages
+                    }
+                }
+                statement.close();
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(file).stream()
+                .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+
+        RecordedEvent connect = events.get("com.hazelcast.jdbc.Connect").get(0);
+        assertThat(connect.getString("url")).isEqualTo("jdbc:hazelcast://localhost:5701/");
+        assertThat(connect.getBoolean("success")).isTrue();
+        assertThat(events.get("com.hazelcast.jdbc.ClientStart")).hasSize(1);
+
+        RecordedEvent execute = events.get("com.hazelcast.jdbc.StatementExecute").get(0);
+        assertThat(execute.getString("fingerprint")).isEqualTo("SELECT * FROM person WHERE age >= ?");
+        assertThat(execute.getString("schema")).isEqualTo("public");
+        assertThat(execute.getString("statementType")).isEqualTo("QUERY");
+        assertThat(execute.getBoolean("success")).isTrue();
+
+        RecordedEvent resultSet = events.get("com.hazelcast.jdbc.ResultSet").get(0);
+        assertThat(resultSet.getLong("rows")).isEqualTo(ROW_COUNT);
+        assertThat(resultSet.getLong("pages")).isPositive();
+        assertThat(events.get("com.hazelcast.jdbc.PageFetch")).hasSize((int) resultSet.getLong("pages"));
+    }
+}
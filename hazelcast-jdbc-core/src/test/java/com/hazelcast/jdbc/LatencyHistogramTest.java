@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyHistogramTest {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    void when_empty_then_zeros() {
+        LatencySnapshot snapshot = new LatencySnapshot(histogram);
+
+        assertThat(snapshot.getCount()).isZero();
+        assertThat(snapshot.getMeanMillis()).isZero();
+        assertThat(snapshot.getP99Millis()).isZero();
+    }
+
+    @Test
+    void when_recorded_then_percentilesWithinFactorOfTwo() {
+        for (int i = 0; i < 99; i++) {
+            histogram.record(MILLISECONDS.toNanos(1));
+        }
+        histogram.record(MILLISECONDS.toNanos(100));
+
+        LatencySnapshot snapshot = new LatencySnapshot(histogram);
+
+        assertThat(snapshot.getCount()).isEqualTo(100);
+        assertThat(snapshot.getTotalMillis()).isEqualTo(199);
+        assertThat(snapshot.getMeanMillis()).isEqualTo(1.99);
+        assertThat(snapshot.getP50Millis()).isBetween(1d, 2d);
+        assertThat(snapshot.getP99Millis()).isBetween(1d, 2d);
+        assertThat(snapshot.getMaxMillis()).isEqualTo(100);
+    }
+
+    @Test
+    void when_reset_then_empty() {
+        histogram.record(MILLISECONDS.toNanos(5));
+        histogram.reset();
+
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getMaxNanos()).isZero();
+        assertThat(histogram.percentileNanos(0.5)).isZero();
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlRow;
+import com.hazelcast.sql.SqlStatement;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+
+import static com.hazelcast.jdbc.JdbcTestSupport.createMapping;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LiveQueriesTest {
+
+    private static HazelcastInstance member;
+    private static IMap<Integer, Person> personMap;
+
+    private HazelcastSqlClient sqlClient;
+    private LiveQueries liveQueries;
+
+    @BeforeAll
+    public static void beforeClass() {
+        Config config = new Config();
+        config.getJetConfig().setEnabled(true);
+        member = Hazelcast.newHazelcastInstance(config);
+        personMap = member.getMap("live_person");
+        createMapping(member, personMap.getName(), int.class, Person.class);
+        member.getMap("other_map");
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        for (int i = 0; i < 5; i++) {
+            personMap.put(i, new Person("Jack" + i, i));
+        }
+        sqlClient = new HazelcastSqlClient(member, new JdbcUrl("jdbc:hazelcast:embedded", new Properties()));
+        liveQueries = sqlClient.getLiveQueries();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sqlClient.shutdown();
+    }
+
+    @Test
+    public void when_mapUnchanged_then_resultReused() throws Exception {
+        SqlStatement query = new SqlStatement("SELECT name FROM live_person WHERE age >= ? ORDER BY age").addParameter(3);
+
+        SqlResult first = liveQueries.execute(sqlClient, query, null, query.getParameters());
+        assertThat(first).isNotInstanceOf(FixedRowsSqlResult.class);
+        assertThat(names(first)).containsExactly("Jack3", "Jack4");
+
+        SqlResult second = liveQueries.execute(sqlClient, query, null, query.getParameters());
+        assertThat(second).isInstanceOf(FixedRowsSqlResult.class);
+        assertThat(names(second)).containsExactly("Jack3", "Jack4");
+
+        personMap.put(5, new Person("Jack5", 5));
+        assertThat(awaitNames(() -> names(liveQueries.execute(sqlClient, query, null, query.getParameters())),
+                asList("Jack3", "Jack4", "Jack5"))).containsExactly("Jack3", "Jack4", "Jack5");
+        assertThat(liveQueries.execute(sqlClient, query, null, query.getParameters())).isInstanceOf(FixedRowsSqlResult.class);
+    }
+
+    @Test
+    public void when_otherMapChanged_then_resultReused() throws SQLException {
+        SqlStatement query = new SqlStatement("SELECT * FROM live_person p WHERE p.age = 1");
+        names(liveQueries.execute(sqlClient, query, null, Collections.emptyList()));
+
+        member.getMap("other_map").put(1, 1);
+        assertThat(liveQueries.execute(sqlClient, query, null, Collections.emptyList())).isInstanceOf(FixedRowsSqlResult.class);
+    }
+
+    @Test
+    public void when_mappingsChanged_then_mapNameResolvedAgain() throws SQLException {
+        String ddl = "CREATE OR REPLACE MAPPING live_alias EXTERNAL NAME %s (__key INT, this VARCHAR) TYPE IMap "
+                + "OPTIONS ('keyFormat'='int', 'valueFormat'='varchar')";
+        member.getSql().execute(String.format(ddl, "live_person")).close();
+        assertThat(liveQueries.mapName(sqlClient, "SELECT * FROM live_alias", null)).isEqualTo("live_person");
+
+        member.getSql().execute(String.format(ddl, "other_map")).close();
+        assertThat(liveQueries.mapName(sqlClient, "SELECT * FROM live_alias", null)).isEqualTo("live_person");
+        sqlClient.mappingsChanged();
+        assertThat(liveQueries.mapName(sqlClient, "SELECT * FROM live_alias", null)).isEqualTo("other_map");
+    }
+
+    @Test
+    public void when_notSingleIMapQuery_then_notWatched() throws SQLException {
+        assertThat(liveQueries.mapName(sqlClient, "SELECT * FROM live_person", null)).isEqualTo("live_person");
+        assertThat(liveQueries.mapName(sqlClient, "SELECT name FROM public.\"live_person\" ORDER BY name LIMIT 2", "public"))
+                .isEqualTo("live_person");
+        assertThat(liveQueries.mapName(sqlClient, "SELECT * FROM live_person a JOIN live_person b ON a.age = b.age", null)).isNull();
+        assertThat(liveQueries.mapName(sqlClient, "SELECT * FROM live_person WHERE age IN (SELECT age FROM live_person)", null))
+                .isNull();
+        assertThat(liveQueries.mapName(sqlClient, "SELECT * FROM TABLE(generate_series(1, 3))", null)).isNull();
+        assertThat(liveQueries.mapName(sqlClient, "SELECT * FROM information_schema.mappings", null)).isNull();
+        assertThat(liveQueries.size()).isZero();
+    }
+
+    @Test
+    public void when_idleOrClosed_then_mapNoLongerWatched() throws Exception {
+        SqlStatement query = new SqlStatement("SELECT name FROM live_person");
+        names(liveQueries.execute(sqlClient, query, null, Collections.emptyList()));
+        assertThat(liveQueries.size()).isEqualTo(1);
+        liveQueries.removeIdle();
+        assertThat(liveQueries.size()).isEqualTo(1);
+        sqlClient.shutdown();
+        assertThat(liveQueries.size()).isZero();
+
+        HazelcastSqlClient expiringClient = new HazelcastSqlClient(member,
+                new JdbcUrl("jdbc:hazelcast:embedded?liveQueryIdleTimeoutMillis=200", null));
+        try {
+            LiveQueries expiring = expiringClient.getLiveQueries();
+            names(expiring.execute(expiringClient, query, null, Collections.emptyList()));
+            assertThat(expiring.size()).isEqualTo(1);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (expiring.size() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(expiring.size()).isZero();
+        } finally {
+            expiringClient.shutdown();
+        }
+    }
+
+    @Test
+    public void when_sameCluster_then_liveQueriesShared() throws Exception {
+        HazelcastSqlClient other = new HazelcastSqlClient(member, new JdbcUrl("jdbc:hazelcast:embedded", new Properties()));
+        SqlStatement query = new SqlStatement("SELECT name FROM live_person WHERE age = 1");
+        try {
+            assertThat(other.getLiveQueries()).isSameAs(liveQueries);
+            names(liveQueries.execute(sqlClient, query, null, Collections.emptyList()));
+            assertThat(liveQueries.execute(other, query, null, Collections.emptyList()))
+                    .isInstanceOf(FixedRowsSqlResult.class);
+            assertThat(liveQueries.size()).isEqualTo(1);
+
+            // the map was watched through the closed connection, watched again through the other one
+            sqlClient.shutdown();
+            assertThat(liveQueries.size()).isZero();
+            names(liveQueries.execute(other, query, null, Collections.emptyList()));
+            assertThat(liveQueries.size()).isEqualTo(1);
+            personMap.put(1, new Person("John1", 1));
+            assertThat(awaitNames(() -> names(liveQueries.execute(other, query, null, Collections.emptyList())),
+                    asList("John1"))).containsExactly("John1");
+        } finally {
+            other.shutdown();
+        }
+        assertThat(liveQueries.size()).isZero();
+    }
+
+    @Test
+    public void when_liveQueryStatement_then_resultKeptUntilChange() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:hazelcast://localhost:5701/");
+             PreparedStatement statement = connection.prepareStatement("SELECT name FROM live_person WHERE age < ? ORDER BY age")) {
+            HazelcastStatement hazelcastStatement = statement.unwrap(HazelcastStatement.class);
+            assertThat(hazelcastStatement.isLiveQuery()).isFalse();
+            hazelcastStatement.setLiveQuery(true);
+            statement.setInt(1, 2);
+            assertThat(names(statement)).containsExactly("Jack0", "Jack1");
+
+            personMap.put(0, new Person("John0", 0));
+            assertThat(awaitNames(() -> names(statement), asList("John0", "Jack1"))).containsExactly("John0", "Jack1");
+        }
+    }
+
+    private static List<String> awaitNames(Callable<List<String>> query, List<String> expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        List<String> names = query.call();
+        while (!names.equals(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            names = query.call();
+        }
+        return names;
+    }
+
+    private static List<String> names(SqlResult result) {
+        List<String> names = new ArrayList<>();
+        try (SqlResult closed = result) {
+            for (SqlRow row : closed) {
+                names.add(row.getObject("name"));
+            }
+        }
+        return names;
+    }
+
+    private static List<String> names(PreparedStatement statement) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PartitionedScanTest {
+
+    private static final String URL = "jdbc:hazelcast://localhost:5701/";
+    private static final String QUERY = "SELECT __key, this FROM scan";
+
+    @BeforeAll
+    public static void beforeClass() throws SQLException {
+        Config config = new Config();
+        config.getJetConfig().setEnabled(true);
+        HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        IMap<Long, String> map = member.getMap("scan");
+        for (long key = -50; key < 150; key++) {
+            map.put(key, "value-" + key);
+        }
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE MAPPING scan (__key BIGINT, this VARCHAR) TYPE IMap "
+                    + "OPTIONS ('keyFormat'='bigint', 'valueFormat'='varchar')");
+        }
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void when_partitionedQuery_then_disjointParts() throws Exception {
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            List<ResultSet> parts = statement.unwrap(HazelcastStatement.class).executePartitionedQuery(QUERY, "__key", 3);
+            assertThat(parts).hasSize(3);
+            List<CompletableFuture<Set<Long>>> futures = new ArrayList<>();
+            for (ResultSet part : parts) {
+                futures.add(CompletableFuture.supplyAsync(() -> keys(part)));
+            }
+            Set<Long> all = new HashSet<>();
+            for (int i = 0; i < futures.size(); i++) {
+                Set<Long> keys = futures.get(i).get();
+                assertThat(keys).isNotEmpty();
+                for (long key : keys) {
+                    assertThat(Math.abs(key % 3)).isEqualTo(i);
+                }
+                all.addAll(keys);
+            }
+            assertThat(all).hasSize(200);
+
+            statement.close();
+            assertThat(parts).allMatch(this::isClosed);
+        }
+    }
+
+    @Test
+    public void when_parallelQuery_then_allRowsInterleaved() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.unwrap(HazelcastStatement.class).executeParallelQuery(QUERY, "__key", 4)) {
+            Set<Long> keys = new HashSet<>();
+            while (rows.next()) {
+                assertThat(rows.getString("this")).isEqualTo("value-" + rows.getLong("__key"));
+                assertThat(keys.add(rows.getLong(1))).isTrue();
+            }
+            assertThat(keys).hasSize(200);
+        }
+    }
+
+    @Test
+    public void when_parallelQueryClosedEarly_then_readersStop() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            statement.setFetchSize(2);
+            ResultSet rows = statement.unwrap(HazelcastStatement.class).executeParallelQuery(QUERY, "__key", 2);
+            assertThat(rows.next()).isTrue();
+            rows.close();
+            try (ResultSet next = statement.executeQuery("SELECT COUNT(*) FROM scan")) {
+                assertThat(next.next()).isTrue();
+                assertThat(next.getLong(1)).isEqualTo(200);
+            }
+        }
+    }
+
+    @Test
+    public void when_partitionedQuery_then_partsAdmittedAndRecorded() throws SQLException {
+        String url = URL + "?maxConcurrentStatements=1&workload.default.queueTimeoutMillis=100";
+        try (Connection connection = DriverManager.getConnection(url);
+             Connection otherConnection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement();
+             Statement other = otherConnection.createStatement()) {
+            HazelcastStatement hazelcast = statement.unwrap(HazelcastStatement.class);
+            long rowsBefore = partRows();
+            // more parts than permits, the query is admitted once
+            List<ResultSet> parts = hazelcast.executePartitionedQuery(QUERY, "__key", 3);
+            assertThatThrownBy(() -> other.executeQuery("SELECT COUNT(*) FROM scan"))
+                    .isInstanceOf(SQLTimeoutException.class);
+            Set<Long> keys = new HashSet<>();
+            for (ResultSet part : parts) {
+                keys.addAll(keys(part));
+                part.close();
+            }
+            assertThat(keys).hasSize(200);
+            assertThat(partRows() - rowsBefore).isEqualTo(200);
+
+            // the permit is released when all the parts are closed
+            try (ResultSet resultSet = other.executeQuery("SELECT COUNT(*) FROM scan")) {
+                assertThat(resultSet.next()).isTrue();
+            }
+            try (ResultSet rows = hazelcast.executeParallelQuery(QUERY, "__key", 4)) {
+                assertThat(keys(rows)).hasSize(200);
+            }
+            try (ResultSet resultSet = other.executeQuery("SELECT COUNT(*) FROM scan")) {
+                assertThat(resultSet.next()).isTrue();
+            }
+        }
+    }
+
+    @Test
+    public void when_invalidSplit_then_sqlException() throws SQLException {
+        assertThat(PartitionedScan.subQueries("SELECT * FROM t", "id", 2)).containsExactly(
+                "SELECT * FROM (SELECT * FROM t) WHERE \"id\" % 2 = 0 OR \"id\" IS NULL",
+                "SELECT * FROM (SELECT * FROM t) WHERE \"id\" % 2 = 1 OR \"id\" % 2 = -1");
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            HazelcastStatement hazelcast = statement.unwrap(HazelcastStatement.class);
+            assertThatThrownBy(() -> hazelcast.executeParallelQuery(QUERY, "__key", 0))
+                    .hasMessage("The number of parts must be between 1 and 64: 0");
+            assertThatThrownBy(() -> hazelcast.executePartitionedQuery(QUERY, "__key", 65))
+                    .hasMessage("The number of parts must be between 1 and 64: 65");
+            assertThatThrownBy(() -> hazelcast.executePartitionedQuery(QUERY, "missing", 2))
+                    .isInstanceOf(SQLException.class)
+                    .hasMessageContaining("missing");
+        }
+    }
+
+    private static Set<Long> keys(ResultSet resultSet) {
+        Set<Long> keys = new HashSet<>();
+        try {
+            while (resultSet.next()) {
+                keys.add(resultSet.getLong(1));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return keys;
+    }
+
+    private static long partRows() {
+        String prefix = "SELECT * FROM (" + QUERY + ")";
+        long rows = 0;
+        for (StatementStats.Entry entry : StatementStats.getInstance().entries()) {
+            if (entry.getFingerprint().startsWith(prefix)) {
+                rows += entry.getRows();
+            }
+        }
+        return rows;
+    }
+
+    private boolean isClosed(ResultSet resultSet) {
+        try {
+            return resultSet.isClosed();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
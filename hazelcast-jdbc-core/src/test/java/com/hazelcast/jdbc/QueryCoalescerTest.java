@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.sql.SqlColumnMetadata;
+import com.hazelcast.sql.SqlColumnType;
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlRow;
+import com.hazelcast.sql.SqlRowMetadata;
+import com.hazelcast.sql.SqlStatement;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class QueryCoalescerTest {
+
+    private static final SqlRowMetadata METADATA = new SqlRowMetadata(Collections.singletonList(
+            new SqlColumnMetadata("name", SqlColumnType.VARCHAR, true)));
+
+    private final HazelcastSqlClient client = mock(HazelcastSqlClient.class);
+    private final SqlStatement query = new SqlStatement("SELECT name FROM person WHERE age > ?").addParameter(1);
+    private final ResultCache.Key key = new ResultCache.Key(query.getSql(), "public", query.getParameters());
+
+    @Test
+    public void when_identicalQueryInProgress_then_rowsShared() throws Exception {
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(client.execute(any())).thenAnswer(invocation -> {
+            executing.countDown();
+            release.await();
+            return result("a", "b");
+        });
+        QueryCoalescer coalescer = new QueryCoalescer(1_000_000, 10_000);
+
+        CompletableFuture<List<String>> leader = CompletableFuture.supplyAsync(() -> names(coalescer));
+        assertThat(executing.await(10, SECONDS)).isTrue();
+        AtomicReference<Thread> followerThread = new AtomicReference<>();
+        CompletableFuture<List<String>> follower = CompletableFuture.supplyAsync(() -> {
+            followerThread.set(Thread.currentThread());
+            return names(coalescer);
+        });
+        awaitWaiting(followerThread);
+        release.countDown();
+
+        assertThat(leader.get(10, SECONDS)).containsExactly("a", "b");
+        assertThat(follower.get(10, SECONDS)).containsExactly("a", "b");
+        verify(client, times(1)).execute(any());
+        assertThat(coalescer.inFlight()).isZero();
+
+        assertThat(names(coalescer)).containsExactly("a", "b");
+        verify(client, times(2)).execute(any());
+    }
+
+    @Test
+    public void when_rowsTooLarge_then_leaderStreamsAndFollowerExecutes() throws Exception {
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(client.execute(any())).thenAnswer(invocation -> {
+            executing.countDown();
+            release.await();
+            return result("a", "b", "c");
+        }).thenReturn(result("a", "b", "c"));
+        QueryCoalescer coalescer = new QueryCoalescer(ResultCache.estimateBytes(new Object[]{"a"}), 10_000);
+
+        CompletableFuture<List<String>> leader = CompletableFuture.supplyAsync(() -> names(coalescer));
+        assertThat(executing.await(10, SECONDS)).isTrue();
+        AtomicReference<Thread> followerThread = new AtomicReference<>();
+        CompletableFuture<List<String>> follower = CompletableFuture.supplyAsync(() -> {
+            followerThread.set(Thread.currentThread());
+            return names(coalescer);
+        });
+        awaitWaiting(followerThread);
+        release.countDown();
+
+        assertThat(leader.get(10, SECONDS)).containsExactly("a", "b", "c");
+        assertThat(follower.get(10, SECONDS)).containsExactly("a", "b", "c");
+        verify(client, times(2)).execute(any());
+    }
+
+    @Test
+    public void when_leaderReading_then_rowsStreamedAndSharedAtEnd() throws Exception {
+        CountDownLatch fetchRest = new CountDownLatch(1);
+        SqlResult first = result("a");
+        SqlResult rest = result("b");
+        SqlResult slow = mock(SqlResult.class);
+        when(slow.isRowSet()).thenReturn(true);
+        when(slow.getRowMetadata()).thenReturn(METADATA);
+        Iterator<SqlRow> firstRows = first.iterator();
+        Iterator<SqlRow> restRows = rest.iterator();
+        when(slow.iterator()).thenReturn(new Iterator<SqlRow>() {
+            @Override
+            public boolean hasNext() {
+                if (firstRows.hasNext()) {
+                    return true;
+                }
+                try {
+                    fetchRest.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return restRows.hasNext();
+            }
+
+            @Override
+            public SqlRow next() {
+                return hasNext() && firstRows.hasNext() ? firstRows.next() : restRows.next();
+            }
+        });
+        when(client.execute(any())).thenReturn(slow);
+        QueryCoalescer coalescer = new QueryCoalescer(1_000_000, 10_000);
+
+        SqlResult leader = coalescer.execute(client, query, key);
+        Iterator<SqlRow> leaderRows = leader.iterator();
+        // the first row is returned before the last one is fetched
+        assertThat(leaderRows.next().<String>getObject(0)).isEqualTo("a");
+
+        AtomicReference<Thread> followerThread = new AtomicReference<>();
+        CompletableFuture<List<String>> follower = CompletableFuture.supplyAsync(() -> {
+            followerThread.set(Thread.currentThread());
+            return names(coalescer);
+        });
+        awaitWaiting(followerThread);
+        fetchRest.countDown();
+        assertThat(leaderRows.next().<String>getObject(0)).isEqualTo("b");
+        assertThat(leaderRows.hasNext()).isFalse();
+        leader.close();
+
+        assertThat(follower.get(10, SECONDS)).containsExactly("a", "b");
+        verify(client, times(1)).execute(any());
+        assertThat(coalescer.inFlight()).isZero();
+    }
+
+    @Test
+    public void when_leaderClosedEarly_then_followerExecutes() throws Exception {
+        when(client.execute(any())).thenReturn(result("a", "b"), result("c"));
+        QueryCoalescer coalescer = new QueryCoalescer(1_000_000, 10_000);
+
+        SqlResult leader = coalescer.execute(client, query, key);
+        assertThat(leader.iterator().next().<String>getObject(0)).isEqualTo("a");
+        assertThat(coalescer.inFlight()).isOne();
+        leader.close();
+        assertThat(coalescer.inFlight()).isZero();
+        assertThat(names(coalescer)).containsExactly("c");
+    }
+
+    @Test
+    public void when_leaderFails_then_followerExecutes() throws Exception {
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(client.execute(any())).thenAnswer(invocation -> {
+            executing.countDown();
+            release.await();
+            throw new SQLException("expected");
+        }).thenReturn(result("a"));
+        QueryCoalescer coalescer = new QueryCoalescer(1_000_000, 10_000);
+
+        CompletableFuture<List<String>> leader = CompletableFuture.supplyAsync(() -> names(coalescer));
+        assertThat(executing.await(10, SECONDS)).isTrue();
+        AtomicReference<Thread> followerThread = new AtomicReference<>();
+        CompletableFuture<List<String>> follower = CompletableFuture.supplyAsync(() -> {
+            followerThread.set(Thread.currentThread());
+            return names(coalescer);
+        });
+        awaitWaiting(followerThread);
+        release.countDown();
+
+        assertThat(follower.get(10, SECONDS)).containsExactly("a");
+        assertThatThrownBy(() -> leader.get(10, SECONDS)).hasRootCauseMessage("expected");
+        assertThat(coalescer.inFlight()).isZero();
+    }
+
+    @Test
+    public void when_leaderStuck_then_followerExecutesAfterQueryTimeout() throws Exception {
+        CountDownLatch executing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(client.execute(any())).thenAnswer(invocation -> {
+            executing.countDown();
+            release.await();
+            return result("a");
+        }).thenReturn(result("b"));
+        QueryCoalescer coalescer = new QueryCoalescer(1_000_000, 10_000);
+
+        CompletableFuture<List<String>> leader = CompletableFuture.supplyAsync(() -> names(coalescer));
+        assertThat(executing.await(10, SECONDS)).isTrue();
+        SqlStatement timed = query.copy().setTimeoutMillis(100);
+        assertThat(names(coalescer, timed)).containsExactly("b");
+        verify(client, times(2)).execute(any());
+
+        release.countDown();
+        assertThat(leader.get(10, SECONDS)).containsExactly("a");
+        assertThat(coalescer.inFlight()).isZero();
+    }
+
+    private List<String> names(QueryCoalescer coalescer) {
+        return names(coalescer, query);
+    }
+
+    private List<String> names(QueryCoalescer coalescer, SqlStatement statement) {
+        List<String> names = new ArrayList<>();
+        try (SqlResult result = coalescer.execute(client, statement, key)) {
+            for (SqlRow row : result) {
+                names.add(row.getObject(0));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return names;
+    }
+
+    private static SqlResult result(String... names) {
+        List<SqlRow> rows = new ArrayList<>();
+        for (String name : asList(names)) {
+            rows.add(FixedRowsSqlResult.row(METADATA, new DefaultSerializationServiceBuilder().build(), new Object[]{name}));
+        }
+        return new FixedRowsSqlResult(METADATA, rows);
+    }
+
+    private static void awaitWaiting(AtomicReference<Thread> thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((thread.get() == null || thread.get().getState() != Thread.State.TIMED_WAITING)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(thread.get().getState()).isEqualTo(Thread.State.TIMED_WAITING);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.jdbc.QueryOrder.SortKey;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryOrderTest {
+
+    @Test
+    void when_orderByColumns_then_keysParsed() throws Exception {
+        QueryOrder order = QueryOrder.parse("SELECT a, \"B\" FROM t WHERE x IN (SELECT y FROM u ORDER BY z LIMIT 1) "
+                + "ORDER BY t.a DESC, \"B\", 1 ASC -- comment", Collections.emptyList());
+
+        assertThat(order.getKeys()).hasSize(3);
+        SortKey first = order.getKeys().get(0);
+        assertThat(first.getColumn()).isEqualTo("a");
+        assertThat(first.isDescending()).isTrue();
+        assertThat(first.isQuoted()).isFalse();
+        assertThat(order.getKeys().get(1).getColumn()).isEqualTo("B");
+        assertThat(order.getKeys().get(1).isQuoted()).isTrue();
+        assertThat(order.getKeys().get(2).getPosition()).isEqualTo(1);
+        assertThat(order.getLimit()).isEqualTo(-1);
+    }
+
+    @Test
+    void when_limit_then_parsed() throws Exception {
+        assertThat(QueryOrder.parse("SELECT a FROM t ORDER BY a LIMIT 5", Collections.emptyList()).getLimit())
+                .isEqualTo(5);
+        QueryOrder order = QueryOrder.parse("SELECT a FROM t WHERE b = ? LIMIT ?", Arrays.asList("x", 7));
+        assertThat(order.getKeys()).isEmpty();
+        assertThat(order.getLimit()).isEqualTo(7);
+    }
+
+    @Test
+    void when_notMergeable_then_throws() {
+        assertThatThrownBy(() -> QueryOrder.parse("SELECT a FROM t ORDER BY a + 1", Collections.emptyList()))
+                .isInstanceOf(SQLFeatureNotSupportedException.class);
+        assertThatThrownBy(() -> QueryOrder.parse("SELECT a FROM t ORDER BY a LIMIT 5 OFFSET 5", Collections.emptyList()))
+                .isInstanceOf(SQLFeatureNotSupportedException.class);
+    }
+
+    @Test
+    void when_aggregated_then_throws() throws Exception {
+        assertThatThrownBy(() -> QueryOrder.parse("SELECT sum(a) FROM t", Collections.emptyList()))
+                .isInstanceOf(SQLFeatureNotSupportedException.class)
+                .hasMessage("The rows of a query with SUM can't be merged across shards");
+        assertThatThrownBy(() -> QueryOrder.parse("SELECT a, b FROM t GROUP BY a, b", Collections.emptyList()))
+                .hasMessage("The rows of a query with GROUP BY can't be merged across shards");
+        assertThatThrownBy(() -> QueryOrder.parse("SELECT DISTINCT a FROM t", Collections.emptyList()))
+                .hasMessage("The rows of a query with DISTINCT can't be merged across shards");
+        assertThatThrownBy(() -> QueryOrder.parse("SELECT * FROM (SELECT COUNT(*) c FROM t)", Collections.emptyList()))
+                .hasMessage("The rows of a query with COUNT can't be merged across shards");
+
+        // columns named as functions and null-safe comparisons aggregate nothing
+        assertThat(QueryOrder.parse("SELECT \"count\", max FROM t WHERE a IS NOT DISTINCT FROM b ORDER BY max",
+                Collections.emptyList()).getKeys()).hasSize(1);
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.sql.SqlResult;
+import com.hazelcast.sql.SqlStatement;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReadHedgingTest {
+
+    private final HazelcastSqlClient client = mock(HazelcastSqlClient.class);
+    private final SqlStatement query = new SqlStatement("SELECT * FROM person");
+
+    @Test
+    public void when_firstExecutionSlow_then_hedgeWins() throws Exception {
+        SqlResult slow = mock(SqlResult.class);
+        SqlResult fast = mock(SqlResult.class);
+        CountDownLatch slowClosed = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            slowClosed.countDown();
+            return null;
+        }).when(slow).close();
+        when(client.execute(any())).thenAnswer(invocation -> {
+            Thread.sleep(2_000);
+            return slow;
+        }).thenReturn(fast);
+        ReadHedging hedging = new ReadHedging(20, 0, 0.1);
+
+        long start = System.nanoTime();
+        assertThat(hedging.execute(client, query)).isSameAs(fast);
+        assertThat(System.nanoTime() - start).isLessThan(MILLISECONDS.toNanos(1_000));
+        assertThat(hedging.hedges()).isEqualTo(1);
+
+        // the slow result is closed once it responds
+        assertThat(slowClosed.await(10, SECONDS)).isTrue();
+        assertThat(hedging.hedgeWins()).isEqualTo(1);
+        verify(fast, never()).close();
+    }
+
+    @Test
+    public void when_firstExecutionFails_then_hedgeResultReturned() throws Exception {
+        SqlResult hedged = mock(SqlResult.class);
+        when(client.execute(any())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            throw new SQLException("expected");
+        }).thenReturn(hedged);
+        ReadHedging hedging = new ReadHedging(1, 0, 0.1);
+
+        assertThat(hedging.execute(client, query)).isSameAs(hedged);
+        assertThat(hedging.hedges()).isEqualTo(1);
+    }
+
+    @Test
+    public void when_threadsBusy_then_executedByCallerWithoutHedge() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Queue<String> threads = new ConcurrentLinkedQueue<>();
+        when(client.execute(any())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            release.await();
+            return mock(SqlResult.class);
+        });
+        // occupies all the threads, never hedged
+        ReadHedging busy = new ReadHedging(60_000, 0, 0.1);
+        ReadHedging hedging = new ReadHedging(1, 0, 0.1);
+        ExecutorService callers = Executors.newCachedThreadPool();
+        try {
+            for (int i = 0; i < ReadHedging.MAX_THREADS; i++) {
+                callers.submit(() -> busy.execute(client, query));
+            }
+            awaitSize(threads, ReadHedging.MAX_THREADS);
+            callers.submit(() -> hedging.execute(client, query));
+            awaitSize(threads, ReadHedging.MAX_THREADS + 1);
+            Thread.sleep(100);
+            assertThat(threads).hasSize(ReadHedging.MAX_THREADS + 1);
+            assertThat(threads).filteredOn(name -> !name.startsWith("hz-jdbc-hedge")).hasSize(1);
+            assertThat(hedging.hedges()).isZero();
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            assertThat(callers.awaitTermination(10, SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    public void when_firstExecutionFast_then_notHedged() throws SQLException {
+        SqlResult fast = mock(SqlResult.class);
+        when(client.execute(any())).thenReturn(fast);
+        ReadHedging hedging = new ReadHedging(10_000, 0, 0.1);
+
+        assertThat(hedging.execute(client, query)).isSameAs(fast);
+        verify(client, times(1)).execute(any());
+        assertThat(hedging.hedges()).isZero();
+    }
+
+    @Test
+    public void when_budgetExhausted_then_notHedged() throws SQLException {
+        when(client.execute(any())).thenAnswer(invocation -> {
+            Thread.sleep(10);
+            return mock(SqlResult.class);
+        });
+        ReadHedging hedging = new ReadHedging(1, 0, 0);
+
+        for (int i = 0; i < 15; i++) {
+            hedging.execute(client, query);
+        }
+        // only the initial allowance, the budget of 0 adds nothing
+        assertThat(hedging.hedges()).isEqualTo(10);
+    }
+
+    @Test
+    public void when_allExecutionsFail_then_failureThrown() throws SQLException {
+        when(client.execute(any())).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            throw new SQLException("expected");
+        });
+        ReadHedging hedging = new ReadHedging(1, 0, 0.1);
+
+        assertThatThrownBy(() -> hedging.execute(client, query))
+                .isInstanceOf(SQLException.class)
+                .hasMessage("expected");
+        assertThat(hedging.hedges()).isEqualTo(1);
+    }
+
+    @Test
+    public void when_percentile_then_delayAdaptsAfterWindow() throws SQLException {
+        when(client.execute(any())).thenReturn(mock(SqlResult.class));
+        ReadHedging hedging = new ReadHedging(5, 0.99, 0.1);
+
+        assertThat(hedging.delayNanos()).isEqualTo(-1);
+        for (int i = 0; i < ReadHedging.WINDOW; i++) {
+            hedging.execute(client, query);
+        }
+        assertThat(hedging.delayNanos()).isGreaterThanOrEqualTo(MILLISECONDS.toNanos(5));
+        assertThat(hedging.hedges()).isZero();
+    }
+
+    private static void awaitSize(Queue<?> queue, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (queue.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(queue).hasSize(size);
+    }
+
+    @Test
+    public void when_notConfigured_then_disabled() {
+        assertThat(ReadHedging.create(new JdbcUrl("jdbc:hazelcast://localhost:5701/", null))).isNull();
+        assertThat(ReadHedging.create(new JdbcUrl("jdbc:hazelcast://localhost:5701/?hedgePercentile=0.95", null)))
+                .isNotNull();
+        JdbcUrl invalid = new JdbcUrl("jdbc:hazelcast://localhost:5701/?hedgeDelayMillis=10&hedgeBudget=2", null);
+        assertThatThrownBy(() -> ReadHedging.create(invalid)).hasMessageContaining("hedgeBudget");
+    }
+}
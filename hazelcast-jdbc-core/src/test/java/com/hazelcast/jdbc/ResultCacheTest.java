@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.client.config.ClientConfig;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.security.TokenIdentityConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.security.UsernamePasswordCredentials;
+import com.hazelcast.sql.SqlColumnMetadata;
+import com.hazelcast.sql.SqlColumnType;
+import com.hazelcast.sql.SqlRowMetadata;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.hazelcast.jdbc.JdbcTestSupport.createMapping;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResultCacheTest {
+
+    private static final String URL = "jdbc:hazelcast://localhost:5701/?resultCacheMaxBytes=10000000";
+    private static final SqlRowMetadata METADATA = new SqlRowMetadata(Collections.singletonList(
+            new SqlColumnMetadata("name", SqlColumnType.VARCHAR, true)));
+
+    private static IMap<Integer, Person> personMap;
+
+    @BeforeAll
+    public static void beforeClass() {
+        Config config = new Config();
+        config.getJetConfig().setEnabled(true);
+        HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        personMap = member.getMap("cached_person");
+        for (int i = 0; i < 5; i++) {
+            personMap.put(i, new Person("Jack" + i, i));
+        }
+        createMapping(member, personMap.getName(), int.class, Person.class);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void when_readOnlyConnection_then_resultCachedUntilDml() throws SQLException {
+        String sql = "SELECT name FROM cached_person WHERE age >= ? ORDER BY age";
+        try (Connection connection = DriverManager.getConnection(URL);
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            assertThat(statement.unwrap(HazelcastStatement.class).isResultCacheEnabled()).isTrue();
+            statement.setInt(1, 3);
+            assertThat(names(statement)).containsExactly("Jack3", "Jack4");
+
+            personMap.put(5, new Person("Jack5", 5));
+            assertThat(names(statement)).containsExactly("Jack3", "Jack4");
+            statement.setInt(1, 4);
+            assertThat(names(statement)).containsExactly("Jack4", "Jack5");
+
+            try (Statement update = connection.createStatement()) {
+                update.executeUpdate("DELETE FROM cached_person WHERE __key = 4");
+            }
+            statement.setInt(1, 3);
+            assertThat(names(statement)).containsExactly("Jack3", "Jack5");
+        } finally {
+            personMap.put(4, new Person("Jack4", 4));
+            personMap.delete(5);
+        }
+    }
+
+    @Test
+    public void when_cacheDisabledForStatementOrConnection_then_notCached() throws SQLException {
+        String sql = "SELECT name FROM cached_person WHERE age < 2 ORDER BY age";
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            HazelcastStatement hazelcastStatement = statement.unwrap(HazelcastStatement.class);
+            hazelcastStatement.setResultCacheEnabled(false);
+            assertThat(names(statement, sql)).containsExactly("Jack0", "Jack1");
+            personMap.put(0, new Person("John0", 0));
+            assertThat(names(statement, sql)).containsExactly("John0", "Jack1");
+
+            hazelcastStatement.setResultCacheEnabled(true);
+            connection.setReadOnly(false);
+            assertThat(hazelcastStatement.isResultCacheEnabled()).isTrue();
+            assertThat(names(statement, sql)).containsExactly("John0", "Jack1");
+            personMap.put(0, new Person("Jack0", 0));
+            assertThat(names(statement, sql)).containsExactly("John0", "Jack1");
+
+            try (Statement other = connection.createStatement()) {
+                assertThat(other.unwrap(HazelcastStatement.class).isResultCacheEnabled()).isFalse();
+                assertThat(names(other, sql)).containsExactly("Jack0", "Jack1");
+            }
+        }
+    }
+
+    @Test
+    public void when_credentials_then_principalKeyDiffers() {
+        ClientConfig anonymous = new ClientConfig();
+        ClientConfig alice = new ClientConfig();
+        alice.getSecurityConfig().setCredentials(new UsernamePasswordCredentials("alice", "secret"));
+        ClientConfig aliceOtherPassword = new ClientConfig();
+        aliceOtherPassword.getSecurityConfig().setUsernamePasswordIdentityConfig("alice", "other");
+        ClientConfig token = new ClientConfig();
+        token.getSecurityConfig().setTokenIdentityConfig(new TokenIdentityConfig(new byte[]{1, 2, 3}));
+
+        assertThat(ResultCache.principalKey(anonymous)).isEqualTo("anonymous");
+        assertThat(ResultCache.principalKey(alice)).startsWith("user:alice:").doesNotContain("secret");
+        assertThat(ResultCache.principalKey(aliceOtherPassword)).startsWith("user:alice:")
+                .isNotEqualTo(ResultCache.principalKey(alice));
+        assertThat(ResultCache.principalKey(token)).startsWith("token:");
+
+        JdbcUrl url = new JdbcUrl(URL, null);
+        assertThat(ResultCache.create(url, ResultCache.principalKey(alice)))
+                .isSameAs(ResultCache.create(url, ResultCache.principalKey(alice)))
+                .isNotSameAs(ResultCache.create(url, ResultCache.principalKey(aliceOtherPassword)))
+                .isNotSameAs(ResultCache.create(url, ResultCache.principalKey(anonymous)));
+        assertThat(ResultCache.create(url, null)).isNull();
+    }
+
+    @Test
+    public void when_cacheNotConfigured_then_disabled() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:hazelcast://localhost:5701/");
+             Statement statement = connection.createStatement()) {
+            assertThat(statement.unwrap(HazelcastStatement.class).isResultCacheEnabled()).isFalse();
+        }
+    }
+
+    @Test
+    public void when_sizeExceeded_then_leastRecentlyUsedEvicted() {
+        ResultCache cache = new ResultCache(4 * 4 * rowBytes(), 60_000);
+        ResultCache.Key first = put(cache, "SELECT 1");
+        ResultCache.Key second = put(cache, "SELECT 2");
+        assertThat(cache.get(first)).isNotNull();
+        put(cache, "SELECT 3");
+        put(cache, "SELECT 4");
+        put(cache, "SELECT 5");
+
+        assertThat(cache.size()).isEqualTo(4);
+        assertThat(cache.get(first)).isNotNull();
+        assertThat(cache.get(second)).isNull();
+    }
+
+    @Test
+    public void when_expired_then_notReturned() throws InterruptedException {
+        ResultCache cache = new ResultCache(1_000_000, 1);
+        ResultCache.Key key = put(cache, "SELECT 1");
+        Thread.sleep(5);
+        assertThat(cache.get(key)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    public void when_invalidatedDuringExecution_then_notCached() {
+        ResultCache cache = new ResultCache(1_000_000, 60_000);
+        ResultCache.Key key = new ResultCache.Key("SELECT * FROM m", null, Collections.emptyList());
+        long generation = cache.generation();
+        cache.invalidate("other");
+        cache.put(key, generation, METADATA, rows(cache), rowBytes());
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    public void when_mappingInvalidated_then_onlyQueriesReferringToItRemoved() {
+        ResultCache cache = new ResultCache(1_000_000, 60_000);
+        ResultCache.Key exact = put(cache, "SELECT * FROM t WHERE __key = 1");
+        ResultCache.Key quoted = put(cache, "SELECT * FROM \"T\"");
+        ResultCache.Key longerName = put(cache, "SELECT * FROM orders_t_archive");
+        ResultCache.Key literal = put(cache, "SELECT * FROM m WHERE name = 't'");
+
+        cache.invalidate("t");
+
+        assertThat(cache.get(exact)).isNull();
+        assertThat(cache.get(quoted)).isNull();
+        assertThat(cache.get(longerName)).isNotNull();
+        assertThat(cache.get(literal)).isNotNull();
+    }
+
+    @Test
+    public void when_dmlExecuted_then_otherClustersNotInvalidated() {
+        JdbcUrl url = new JdbcUrl("jdbc:hazelcast://host-a:5701/?resultCacheMaxBytes=1000000", null);
+        JdbcUrl otherUrl = new JdbcUrl("jdbc:hazelcast://host-b:5701/?resultCacheMaxBytes=1000000", null);
+        ResultCache cache = ResultCache.create(url, "anonymous");
+        ResultCache otherCache = ResultCache.create(otherUrl, "anonymous");
+        ResultCache.Key key = put(cache, "SELECT * FROM m");
+        ResultCache.Key otherKey = put(otherCache, "SELECT * FROM m");
+
+        ResultCache.invalidate(url, "DELETE FROM m", SqlStatementType.DML);
+
+        assertThat(cache.get(key)).isNull();
+        assertThat(otherCache.get(otherKey)).isNotNull();
+    }
+
+    @Test
+    public void when_objectCached_then_eachReaderGetsOwnInstance() {
+        SqlRowMetadata metadata = new SqlRowMetadata(Collections.singletonList(
+                new SqlColumnMetadata("this", SqlColumnType.OBJECT, true)));
+        ResultCache cache = new ResultCache(1_000_000, 60_000);
+        ResultCache.Key key = new ResultCache.Key("SELECT this FROM m", null, Collections.emptyList());
+        List<String> value = new ArrayList<>(asList("a", "b"));
+        Object[] values = cache.cachedValues(metadata, new Object[]{value});
+        cache.put(key, cache.generation(), metadata, Collections.singletonList(values), rowBytes());
+
+        List<String> first = cache.get(key).iterator().next().getObject(0);
+        first.add("c");
+        List<String> second = cache.get(key).iterator().next().getObject(0);
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(second).containsExactly("a", "b");
+    }
+
+    @Test
+    public void when_dml_then_targetMappingExtracted() {
+        assertThat(ResultCache.dmlTarget("INSERT INTO m VALUES (1, 'a')")).isEqualTo("m");
+        assertThat(ResultCache.dmlTarget("sink into public.\"My Map\" select * from other")).isEqualTo("my map");
+        assertThat(ResultCache.dmlTarget("/* comment */ UPDATE Persons SET age = 1")).isEqualTo("persons");
+        assertThat(ResultCache.dmlTarget("DELETE FROM hazelcast.public.m WHERE __key = 1")).isEqualTo("m");
+        assertThat(ResultCache.dmlTarget("SELECT * FROM m")).isNull();
+    }
+
+    private static ResultCache.Key put(ResultCache cache, String sql) {
+        ResultCache.Key key = new ResultCache.Key(sql, "public", asList(1, "a"));
+        cache.put(key, cache.generation(), METADATA, rows(cache), 4 * rowBytes());
+        return key;
+    }
+
+    private static List<Object[]> rows(ResultCache cache) {
+        return Collections.singletonList(cache.cachedValues(METADATA, new Object[]{"value"}));
+    }
+
+    private static long rowBytes() {
+        return ResultCache.estimateBytes(new Object[]{"value"});
+    }
+
+    private static List<String> names(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            return names(resultSet);
+        }
+    }
+
+    private static List<String> names(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            return names(resultSet);
+        }
+    }
+
+    private static List<String> names(ResultSet resultSet) throws SQLException {
+        List<String> names = new ArrayList<>();
+        while (resultSet.next()) {
+            names.add(resultSet.getString(1));
+        }
+        return names;
+    }
+}
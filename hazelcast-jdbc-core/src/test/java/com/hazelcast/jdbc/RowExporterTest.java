@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastJsonValue;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.sql.SqlColumnMetadata;
+import com.hazelcast.sql.SqlColumnType;
+import com.hazelcast.sql.SqlRowMetadata;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RowExporterTest {
+
+    private static final SqlRowMetadata METADATA = new SqlRowMetadata(Arrays.asList(
+            new SqlColumnMetadata("id", SqlColumnType.BIGINT, false),
+            new SqlColumnMetadata("name", SqlColumnType.VARCHAR, true),
+            new SqlColumnMetadata("price", SqlColumnType.DECIMAL, true),
+            new SqlColumnMetadata("active", SqlColumnType.BOOLEAN, true),
+            new SqlColumnMetadata("day", SqlColumnType.DATE, true),
+            new SqlColumnMetadata("doc", SqlColumnType.JSON, true)));
+
+    private final SerializationService serializationService = new DefaultSerializationServiceBuilder().build();
+
+    @BeforeAll
+    public static void beforeClass() {
+        Config config = new Config();
+        config.getJetConfig().setEnabled(true);
+        Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void when_csv_then_quotedAsNeeded() throws SQLException {
+        assertThat(export(ExportFormat.CSV)).isEqualTo("id,name,price,active,day,doc\r\n"
+                + "-42,\"say \"\"hi\"\", world\",1.50,true,2023-01-02,\"{\"\"a\"\":1}\"\r\n"
+                + "7,zürich 😀,,,,\r\n");
+    }
+
+    @Test
+    public void when_jsonLines_then_escaped() throws SQLException {
+        assertThat(export(ExportFormat.JSON_LINES)).isEqualTo(
+                "{\"id\":-42,\"name\":\"say \\\"hi\\\", world\",\"price\":1.50,\"active\":true,"
+                        + "\"day\":\"2023-01-02\",\"doc\":{\"a\":1}}\n"
+                        + "{\"id\":7,\"name\":\"zürich 😀\",\"price\":null,\"active\":null,"
+                        + "\"day\":null,\"doc\":null}\n");
+    }
+
+    @Test
+    public void when_exportQuery_then_allRowsWritten() throws SQLException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Connection connection = DriverManager.getConnection("jdbc:hazelcast://localhost:5701/");
+             Statement statement = connection.createStatement()) {
+            // several buffers
+            long count = statement.unwrap(HazelcastStatement.class).exportQuery(
+                    "SELECT v, 'row-' || CAST(v AS VARCHAR) AS name FROM TABLE(generate_series(1, 20000))",
+                    ExportFormat.CSV, Channels.newChannel(out));
+            assertThat(count).isEqualTo(20_000);
+            assertThat(statement.getResultSet()).isNull();
+        }
+        String[] lines = new String(out.toByteArray(), UTF_8).split("\r\n");
+        assertThat(lines).hasSize(20_001);
+        assertThat(lines[0]).isEqualTo("v,name");
+        assertThat(lines[20_000]).isEqualTo("20000,row-20000");
+    }
+
+    @Test
+    public void when_channelFails_then_sqlException() throws SQLException {
+        WritableByteChannel failing = new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                throw new IOException("disk full");
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try (Connection connection = DriverManager.getConnection("jdbc:hazelcast://localhost:5701/");
+             Statement statement = connection.createStatement()) {
+            assertThatThrownBy(() -> statement.unwrap(HazelcastStatement.class).exportQuery(
+                    "SELECT * FROM TABLE(generate_series(1, 3))", ExportFormat.JSON_LINES, failing))
+                    .isInstanceOf(SQLException.class)
+                    .hasMessage("Failed to write the exported rows: disk full");
+        }
+    }
+
+    private String export(ExportFormat format) throws SQLException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RowExporter exporter = new RowExporter(format, METADATA, Channels.newChannel(out));
+        exporter.start();
+        exporter.add(FixedRowsSqlResult.row(METADATA, serializationService, new Object[]{
+                -42L, "say \"hi\", world", new BigDecimal("1.50"), true, LocalDate.of(2023, 1, 2),
+                new HazelcastJsonValue("{\"a\":1}")}));
+        exporter.add(FixedRowsSqlResult.row(METADATA, serializationService, new Object[]{
+                7L, "zürich 😀", null, null, null, null}));
+        exporter.finish();
+        assertThat(exporter.getRowCount()).isEqualTo(2);
+        return new String(out.toByteArray(), UTF_8);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ShardRouterTest {
+
+    private static final String URL = "jdbc:hazelcast://127.0.0.1:5721;127.0.0.1:5722/"
+            + "?clusterNames=shardA,shardB&shardKeyParameter=1";
+
+    private static HazelcastInstance shardA;
+    private static HazelcastInstance shardB;
+
+    @BeforeAll
+    public static void beforeClass() throws SQLException {
+        shardA = newMember("shardA", 5721);
+        shardB = newMember("shardB", 5722);
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement();
+             PreparedStatement insert = connection.prepareStatement("SINK INTO tenant VALUES (?, ?)")) {
+            // executed by both shards
+            statement.execute("CREATE MAPPING tenant (__key INT, name VARCHAR) TYPE IMap "
+                    + "OPTIONS ('keyFormat'='int', 'valueFormat'='json-flat')");
+            for (int key = 1; key <= 6; key++) {
+                insert.setInt(1, key);
+                insert.setString(2, key == 3 ? null : "tenant-" + key);
+                insert.executeUpdate();
+            }
+        }
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void when_shardKey_then_routedByHash() throws SQLException {
+        ShardingFunction function = new ShardRouter.KeyParameterFunction(0);
+        for (int key = 1; key <= 6; key++) {
+            HazelcastInstance shard = function.shard("", singletonList(key), 2) == 0 ? shardA : shardB;
+            assertThat(shard.getMap("tenant").containsKey(key)).isTrue();
+        }
+        assertThat(shardA.getMap("tenant").size() + shardB.getMap("tenant").size()).isEqualTo(6);
+
+        try (Connection connection = DriverManager.getConnection(URL);
+             PreparedStatement statement = connection.prepareStatement("SELECT __key FROM tenant WHERE __key = ?")) {
+            statement.setInt(1, 5);
+            assertThat(keys(statement.executeQuery())).containsExactly(5);
+            statement.setLong(1, 5);
+            assertThat(keys(statement.executeQuery())).containsExactly(5);
+            statement.setShort(1, (short) 5);
+            assertThat(keys(statement.executeQuery())).containsExactly(5);
+        }
+    }
+
+    @Test
+    public void when_dmlWithoutKey_then_sqlException() throws SQLException {
+        ShardingFunction function = new ShardRouter.KeyParameterFunction(0);
+        assertThat(function.shard("", singletonList(7), 16)).isEqualTo(function.shard("", singletonList(7L), 16));
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            assertThatThrownBy(() -> statement.executeUpdate("DELETE FROM tenant WHERE __key = 100"))
+                    .isInstanceOf(SQLException.class)
+                    .hasMessage("The shard key parameter 1 isn't set, a DML statement can't be executed by all shards");
+            assertThatThrownBy(() -> statement.executeUpdate("SINK INTO tenant VALUES (100, 'x')"))
+                    .isInstanceOf(SQLException.class);
+            assertThat(shardA.getMap("tenant").containsKey(100)).isFalse();
+            assertThat(shardB.getMap("tenant").containsKey(100)).isFalse();
+        }
+    }
+
+    @Test
+    public void when_orderedQueryWithoutKey_then_rowsMerged() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            assertThat(keys(statement.executeQuery("SELECT __key FROM tenant ORDER BY __key DESC")))
+                    .containsExactly(6, 5, 4, 3, 2, 1);
+            assertThat(keys(statement.executeQuery("SELECT __key, name FROM tenant ORDER BY name, 1 LIMIT 3")))
+                    .containsExactly(3, 1, 2);
+            assertThat(keys(statement.executeQuery("SELECT __key FROM tenant"))).hasSize(6);
+            assertThatThrownBy(() -> statement.executeQuery("SELECT __key FROM tenant ORDER BY __key OFFSET 2 ROWS"))
+                    .isInstanceOf(SQLFeatureNotSupportedException.class);
+            assertThatThrownBy(() -> statement.executeQuery("SELECT COUNT(*) FROM tenant"))
+                    .isInstanceOf(SQLFeatureNotSupportedException.class)
+                    .hasMessage("The rows of a query with COUNT can't be merged across shards");
+        }
+    }
+
+    @Test
+    public void when_shardingFunction_then_used() throws SQLException {
+        String url = URL.replace("shardKeyParameter=1", "shardingFunction=" + SecondShard.class.getName());
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            assertThat(keys(statement.executeQuery("SELECT __key FROM tenant ORDER BY __key")))
+                    .containsExactlyInAnyOrderElementsOf(shardB.<Integer, Object>getMap("tenant").keySet());
+        }
+        assertThatThrownBy(() -> DriverManager.getConnection(URL.replace("shardKeyParameter=1", "shardingFunction=x")))
+                .hasMessageContaining("'shardingFunction' not a sharding function, 'x'");
+    }
+
+    @Test
+    public void when_arrayShardKey_then_routedByValue() throws SQLException {
+        ShardingFunction function = new ShardRouter.KeyParameterFunction(0);
+        int shard = function.shard("", singletonList(new byte[]{1, 2, 3}), 16);
+        for (int i = 0; i < 10; i++) {
+            assertThat(function.shard("", singletonList(new byte[]{1, 2, 3}), 16)).isEqualTo(shard);
+        }
+        assertThatThrownBy(() -> function.shard("", singletonList(new Object()), 16))
+                .isInstanceOf(SQLException.class)
+                .hasMessageStartingWith("The shard key parameter 1 can't be serialized");
+    }
+
+    private static HazelcastInstance newMember(String clusterName, int port) {
+        Config config = new Config();
+        config.setClusterName(clusterName);
+        config.getJetConfig().setEnabled(true);
+        config.getNetworkConfig().setPort(port).setPortAutoIncrement(false);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        return Hazelcast.newHazelcastInstance(config);
+    }
+
+    private static List<Integer> keys(ResultSet resultSet) throws SQLException {
+        List<Integer> keys = new ArrayList<>();
+        try (ResultSet rs = resultSet) {
+            while (rs.next()) {
+                keys.add(rs.getInt(1));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Routes all statements to the second shard.
+     */
+    public static class SecondShard implements ShardingFunction {
+
+        @Override
+        public int shard(String sql, List<Object> parameters, int shardCount) {
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static com.hazelcast.jdbc.JdbcTestSupport.createMapping;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class SlowQueryLogTest {
+
+    private static final String URL = "jdbc:hazelcast://localhost:5701/";
+
+    private final Logger julLogger = Logger.getLogger(SlowQueryLog.class.getName());
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+    private final Handler handler = new Handler() {
+        @Override
+        public void publish(LogRecord record) {
+            messages.add(record.getMessage());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @BeforeAll
+    public static void beforeClass() {
+        Config config = new Config();
+        config.getJetConfig().setEnabled(true);
+        HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, Person> personMap = member.getMap("person");
+        for (int i = 0; i < 5; i++) {
+            personMap.put(i, new Person("Jack" + i, i));
+        }
+        createMapping(member, personMap.getName(), int.class, Person.class);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        julLogger.addHandler(handler);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        julLogger.removeHandler(handler);
+    }
+
+    @Test
+    public void when_thresholdExceeded_then_statementLoggedWithRedactedParameters() throws Exception {
+        try (Connection connection = DriverManager.getConnection(URL
+                + "?slowQueryThresholdMillis=0&slowQueryParameters=redacted");
+             PreparedStatement statement = connection.prepareStatement("SELECT * FROM person WHERE name <> ? AND age >= 0")) {
+            statement.setString(1, "secret");
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    // read all rows
+                }
+            }
+        }
+
+        String message = awaitMessage();
+        assertThat(message)
+                .startsWith("Slow statement: ")
+                .contains("first row", "rows 5", "parameters [<String>]")
+                .endsWith(": SELECT * FROM person WHERE name <> ? AND age >= ?")
+                .doesNotContain("secret");
+    }
+
+    @Test
+    public void when_thresholdNotExceeded_then_nothingLogged() throws Exception {
+        try (Connection connection = DriverManager.getConnection(URL + "?slowQueryThresholdMillis=60000");
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM person WHERE __key = -1")) {
+            statement.executeUpdate();
+        }
+        try (Connection connection = DriverManager.getConnection(URL + "?slowQueryThresholdMillis=0");
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM person WHERE __key = -2")) {
+            statement.executeUpdate();
+        }
+
+        // the second statement is logged, the first one isn't
+        String message = awaitMessage();
+        assertThat(message).endsWith(": DELETE FROM person WHERE __key = -?").doesNotContain("parameters");
+        assertThat(messages).hasSize(1);
+    }
+
+    @Test
+    public void when_valuesCaptured_then_longValuesTruncated() {
+        ILogger logger = mock(ILogger.class);
+        SlowQueryLog log = new SlowQueryLog(0, 1, SlowQueryLog.ParameterCapture.VALUES, logger);
+        char[] longValue = new char[SlowQueryLog.MAX_PARAMETER_LENGTH + 1];
+        Arrays.fill(longValue, 'x');
+
+        log.log(new SlowQueryLog.Entry(log, "UPDATE t SET a = ? WHERE b = ?", null,
+                Arrays.asList(new String(longValue), null), false, MILLISECONDS.toNanos(5), MILLISECONDS.toNanos(5),
+                -1, 0, 0));
+
+        String truncated = new String(longValue, 0, SlowQueryLog.MAX_PARAMETER_LENGTH) + "...";
+        verify(logger, timeout(10_000)).warning(startsWith(
+                "Slow statement: 5.000 ms (execute 5.000 ms), rows 0, pages 0, failed, parameters [" + truncated + ", NULL]"));
+    }
+
+    @Test
+    public void create_when_notConfigured_then_null() {
+        assertThat(SlowQueryLog.create(new JdbcUrl(URL, null))).isNull();
+    }
+
+    @Test
+    public void create_when_invalidProperties_then_fail() {
+        assertThatThrownBy(() -> SlowQueryLog.create(
+                new JdbcUrl(URL + "?slowQueryThresholdMillis=10&slowQuerySampleRate=2", null)))
+                .hasMessage("'slowQuerySampleRate' must be between 0 and 1, '2'");
+        assertThatThrownBy(() -> SlowQueryLog.create(
+                new JdbcUrl(URL + "?slowQueryThresholdMillis=10&slowQueryParameters=all", null)))
+                .hasMessage("'slowQueryParameters' must be one of none, redacted or values, 'all'");
+    }
+
+    @Test
+    public void sample_when_rateZero_then_neverSampled() {
+        SlowQueryLog log = new SlowQueryLog(0, 0, SlowQueryLog.ParameterCapture.NONE, mock(ILogger.class));
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(log.sample()).isFalse();
+        }
+    }
+
+    private String awaitMessage() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (messages.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(messages).isNotEmpty();
+        return messages.get(0);
+    }
+}
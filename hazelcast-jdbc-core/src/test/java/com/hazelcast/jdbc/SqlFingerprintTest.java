@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlFingerprintTest {
+
+    @Test
+    void normalize_when_literals_then_replaced() {
+        assertThat(SqlFingerprint.normalize("SELECT * FROM person WHERE name = 'Jack' AND age > 42"))
+                .isEqualTo("SELECT * FROM person WHERE name = ? AND age > ?");
+        assertThat(SqlFingerprint.normalize("SELECT 1.5e-3, 'it''s', x2 FROM t"))
+                .isEqualTo("SELECT ?, ?, x2 FROM t");
+    }
+
+    @Test
+    void normalize_when_parametersAndQuotedIdentifiers_then_kept() {
+        assertThat(SqlFingerprint.normalize("SELECT \"my col\" FROM \"t\"\"1\" WHERE a = ?"))
+                .isEqualTo("SELECT \"my col\" FROM \"t\"\"1\" WHERE a = ?");
+    }
+
+    @Test
+    void normalize_when_commentsAndWhitespace_then_collapsed() {
+        assertThat(SqlFingerprint.normalize("  SELECT /* hint */ a\n\t FROM  t -- trailing\n WHERE b=1  "))
+                .isEqualTo("SELECT a FROM t WHERE b=?");
+    }
+
+    @Test
+    void of_when_sameStatementsWithDifferentLiterals_then_sameFingerprint() {
+        assertThat(SqlFingerprint.of("SELECT * FROM t WHERE id = 1"))
+                .isEqualTo(SqlFingerprint.of("SELECT * FROM t WHERE id = 2"));
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatementTypeTest {
+
+    @Test
+    void of_when_leadingKeyword_then_typeResolved() {
+        assertThat(SqlStatementType.of("SELECT * FROM person")).isEqualTo(SqlStatementType.QUERY);
+        assertThat(SqlStatementType.of("with t AS (SELECT 1) SELECT * FROM t")).isEqualTo(SqlStatementType.QUERY);
+        assertThat(SqlStatementType.of("SINK INTO person VALUES (1, 'a')")).isEqualTo(SqlStatementType.DML);
+        assertThat(SqlStatementType.of("delete from person")).isEqualTo(SqlStatementType.DML);
+        assertThat(SqlStatementType.of("CREATE MAPPING person TYPE IMap")).isEqualTo(SqlStatementType.DDL);
+        assertThat(SqlStatementType.of("EXPLAIN SELECT 1")).isEqualTo(SqlStatementType.OTHER);
+        assertThat(SqlStatementType.of("")).isEqualTo(SqlStatementType.OTHER);
+    }
+
+    @Test
+    void of_when_commentsAndParentheses_then_skipped() {
+        assertThat(SqlStatementType.of("  -- comment\n /* block */ (SELECT 1)")).isEqualTo(SqlStatementType.QUERY);
+        assertThat(SqlStatementType.of("/* unterminated")).isEqualTo(SqlStatementType.OTHER);
+        assertThat(SqlStatementType.of("-- only comment")).isEqualTo(SqlStatementType.OTHER);
+    }
+}
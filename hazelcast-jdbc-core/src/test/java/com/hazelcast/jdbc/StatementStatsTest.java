@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2008-2023, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hazelcast.jdbc;
+
+import com.hazelcast.client.HazelcastClient;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.jdbc.JdbcTestSupport.createMapping;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StatementStatsTest {
+
+    private static final String URL = "jdbc:hazelcast://localhost:5701/";
+
+    @BeforeAll
+    public static void beforeClass() {
+        Config config = new Config();
+        config.getJetConfig().setEnabled(true);
+        HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        IMap<Integer, Person> personMap = member.getMap("person");
+        for (int i = 0; i < 5; i++) {
+            personMap.put(i, new Person("Jack" + i, i));
+        }
+        createMapping(member, personMap.getName(), int.class, Person.class);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        HazelcastClient.shutdownAll();
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void when_sameFingerprint_then_aggregated() {
+        StatementStats stats = new StatementStats(10);
+        stats.record("SELECT * FROM t WHERE a = 1", SqlStatementType.QUERY, MILLISECONDS.toNanos(2), true, 3);
+        stats.record("SELECT * FROM t WHERE a = 2", SqlStatementType.QUERY, MILLISECONDS.toNanos(4), false, 0);
+
+        assertThat(stats.entries()).hasSize(1);
+        StatementStats.Entry entry = stats.entries().get(0);
+        assertThat(entry.getFingerprint()).isEqualTo("SELECT * FROM t WHERE a = ?");
+        assertThat(entry.getType()).isEqualTo(SqlStatementType.QUERY);
+        assertThat(entry.getLatency().getCount()).isEqualTo(2);
+        assertThat(entry.getLatency().getTotalMillis()).isEqualTo(6);
+        assertThat(entry.getErrors()).isEqualTo(1);
+        assertThat(entry.getRows()).isEqualTo(3);
+    }
+
+    @Test
+    public void when_limitReached_then_newFingerprintsAggregatedAsOther() {
+        StatementStats stats = new StatementStats(2);
+        stats.record("SELECT a FROM t", SqlStatementType.QUERY, 1, true, 0);
+        stats.record("SELECT b FROM t", SqlStatementType.QUERY, 1, true, 0);
+        stats.record("SELECT c FROM t", SqlStatementType.QUERY, 1, true, 0);
+        stats.record("SELECT d FROM t", SqlStatementType.QUERY, 1, true, 0);
+        stats.record("SELECT a FROM t", SqlStatementType.QUERY, 1, true, 0);
+
+        List<String> fingerprints = new ArrayList<>();
+        for (StatementStats.Entry entry : stats.entries()) {
+            fingerprints.add(entry.getFingerprint() + "=" + entry.getLatency().getCount());
+        }
+        assertThat(fingerprints).containsExactlyInAnyOrder("SELECT a FROM t=2", "SELECT b FROM t=1",
+                StatementStats.OTHER_FINGERPRINT + "=2");
+
+        assertThat(stats.reset()).isEqualTo(3);
+        assertThat(stats.entries()).isEmpty();
+    }
+
+    @Test
+    public void when_selectStatementStats_then_executionsReported() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM jdbc_client.statement_stats");
+            for (int i = 0; i < 3; i++) {
+                try (ResultSet resultSet = statement.executeQuery("SELECT name FROM person WHERE age >= " + i)) {
+                    while (resultSet.next()) {
+                        // read all rows
+                    }
+                }
+            }
+            assertThatThrownBy(() -> statement.executeQuery("SELECT * FROM not_existing"))
+                    .isInstanceOf(SQLException.class);
+
+            try (ResultSet resultSet = statement.executeQuery(
+                    "select * from JDBC_CLIENT.statement_stats order by calls desc limit 1")) {
+                assertThat(resultSet.next()).isTrue();
+                assertThat(resultSet.getString("fingerprint")).isEqualTo("SELECT name FROM person WHERE age >= ?");
+                assertThat(resultSet.getString("statement_type")).isEqualTo("QUERY");
+                assertThat(resultSet.getLong("calls")).isEqualTo(3);
+                assertThat(resultSet.getLong("errors")).isZero();
+                assertThat(resultSet.getLong("rows")).isEqualTo(5 + 4 + 3);
+                assertThat(resultSet.getDouble("total_time_ms")).isPositive();
+                assertThat(resultSet.getDouble("max_time_ms"))
+                        .isGreaterThanOrEqualTo(resultSet.getDouble("mean_time_ms"));
+                assertThat(resultSet.next()).isFalse();
+            }
+
+            assertThat(statement.execute("SELECT * FROM jdbc_client.statement_stats ORDER BY errors DESC")).isTrue();
+            try (ResultSet resultSet = statement.getResultSet()) {
+                assertThat(resultSet.next()).isTrue();
+                assertThat(resultSet.getString("fingerprint")).isEqualTo("SELECT * FROM not_existing");
+                assertThat(resultSet.getLong("errors")).isEqualTo(1);
+            }
+
+            assertThat(statement.executeUpdate("DELETE FROM jdbc_client.statement_stats")).isEqualTo(2);
+            try (ResultSet resultSet = statement.executeQuery("SELECT * FROM jdbc_client.statement_stats")) {
+                assertThat(resultSet.next()).isFalse();
+            }
+        }
+    }
+
+    @Test
+    public void when_unsupportedClientTableStatement_then_throws() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            assertThatThrownBy(() -> statement.executeQuery("SELECT fingerprint FROM jdbc_client.statement_stats"))
+                    .isInstanceOf(SQLException.class)
+                    .hasMessageStartingWith("Unsupported statement on the jdbc_client schema");
+            assertThatThrownBy(() -> statement.executeQuery("SELECT * FROM jdbc_client.statement_stats ORDER BY foo"))
+                    .isInstanceOf(SQLException.class)
+                    .hasMessage("Column 'foo' not found in jdbc_client.statement_stats");
+            assertThatThrownBy(() -> statement.executeUpdate("SELECT * FROM jdbc_client.statement_stats"))
+                    .isInstanceOf(SQLException.class)
+                    .hasMessage("The statement doesn't produce update count");
+        }
+    }
+
+    @Test
+    public void when_statementMentionsClientSchema_then_executedByCluster() throws SQLException {
+        assertThat(ClientTables.isClientTableStatement("select * from JDBC_CLIENT . statement_stats")).isTrue();
+        assertThat(ClientTables.isClientTableStatement("SELECT * FROM my_jdbc_client_log")).isFalse();
+        assertThat(ClientTables.isClientTableStatement("SELECT 'x FROM jdbc_client.y' FROM t")).isFalse();
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT 'jdbc_client' AS jdbc_client")) {
+            assertThat(resultSet.next()).isTrue();
+            assertThat(resultSet.getString(1)).isEqualTo("jdbc_client");
+        }
+    }
+}